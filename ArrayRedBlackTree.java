@@ -0,0 +1,742 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Self balancing Red-Black tree stored in parallel arrays
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.Arrays;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Red-Black tree with the same behavior as RedBlackTree, but instead of a
+ * Node object per key the color, links, key and value of each node are
+ * kept in parallel arrays addressed by an int index. Slot 0 is the shared
+ * black null leaf, and slots released by remove are kept on a free list
+ * and handed out again by add.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class ArrayRedBlackTree<K extends Comparable<K>, V> implements Tree<K, V> {
+	//index of the shared null leaf
+	private static final int NIL = 0;
+
+	private static final boolean RED = true;
+	private static final boolean BLACK = false;
+
+	//node fields, one entry per slot
+	private boolean[] color;
+	private int[] left;
+	private int[] right;
+	private int[] parent;
+	private Object[] keys;
+	private Object[] values;
+
+	private int root = NIL;
+
+	//first never used slot, and head of the released slots linked through left
+	private int nextSlot = 1;
+	private int freeSlot = NIL;
+
+	/**
+	 * Creates an empty tree with room for 16 keys before growing.
+	 */
+	public ArrayRedBlackTree(){
+		this(16);
+	}
+
+	/**
+	 * Creates an empty tree with room for the given number of keys,
+	 * so a tree of known size never has to grow its arrays.
+	 *
+	 * @param capacity
+	 * Number of keys the tree can hold before growing.
+	 */
+	public ArrayRedBlackTree(int capacity){
+		if(capacity < 0)
+			throw new IllegalArgumentException("Negative capacity: " + capacity);
+
+		//one extra slot for the null leaf
+		int slots = capacity + 1;
+		color = new boolean[slots];
+		left = new int[slots];
+		right = new int[slots];
+		parent = new int[slots];
+		keys = new Object[slots];
+		values = new Object[slots];
+	}
+
+	/**
+	 *
+	 * Add the key, value pair into the tree, then balance it.
+	 * If the key is already in the tree its value is replaced.
+	 *
+	 * @param key
+	 * Key used to compare the the tree nodes to find the insert position.
+	 *
+	 * @param value
+	 * Value the Node will hold.
+	 */
+	public void add(K key, V value){
+		//walk down to the insertion position, comparing once per level
+		int current = root;
+		int addPos = NIL;
+		int cmp = 0;
+
+		while(current != NIL){
+			addPos = current;
+			cmp = key.compareTo(key(current));
+
+			//key is already in the tree, only the value changes
+			if(cmp == 0){
+				values[current] = value;
+				return;
+			}
+
+			current = cmp < 0 ? left[current] : right[current];
+		}
+
+		int addNode = newSlot(key, value, addPos);
+
+		//if tree is empty make new node the root.
+		if(addPos == NIL){
+			root = addNode;
+		}
+		//if the key is less it belongs in the left sub-tree
+		else if(cmp < 0){
+			left[addPos] = addNode;
+		}
+		//otherwise belongs in the right sub-tree
+		else{
+			right[addPos] = addNode;
+		}
+
+		//go through balance cases
+		addCase1(addNode);
+	}
+
+	/**
+	 * Takes a slot from the free list, or the next unused slot, and
+	 * fills it in as a red node with two null leaves.
+	 *
+	 * @param key
+	 * Key the node will have.
+	 * @param value
+	 * Value the node will have.
+	 * @param addParent
+	 * Parent of the node.
+	 * @return
+	 * returns the index of the new node.
+	 */
+	private int newSlot(K key, V value, int addParent){
+		int slot;
+
+		if(freeSlot != NIL){
+			slot = freeSlot;
+			freeSlot = left[slot];
+		}
+		else{
+			if(nextSlot == keys.length)
+				grow();
+			slot = nextSlot++;
+		}
+
+		color[slot] = RED;
+		left[slot] = NIL;
+		right[slot] = NIL;
+		parent[slot] = addParent;
+		keys[slot] = key;
+		values[slot] = value;
+
+		return slot;
+	}
+
+	/**
+	 * Doubles the size of all the node arrays.
+	 */
+	private void grow(){
+		int slots = Math.max(2, keys.length * 2);
+
+		color = Arrays.copyOf(color, slots);
+		left = Arrays.copyOf(left, slots);
+		right = Arrays.copyOf(right, slots);
+		parent = Arrays.copyOf(parent, slots);
+		keys = Arrays.copyOf(keys, slots);
+		values = Arrays.copyOf(values, slots);
+	}
+
+	/**
+	 * Case 1 of addition to a Red-Black tree
+	 * the parent is null, so the node is the root, color it black for
+	 * 2nd RBT invariant.
+	 *
+	 * @param node
+	 * The node that was added to the tree.
+	 */
+	private void addCase1(int node){
+		//if node is root color black
+		if(parent[node] == NIL){
+			color[node] = BLACK;
+		}
+		//otherwise check for case 2 of adding to a RBT
+		else{
+			addCase2(node);
+		}
+	}
+
+	/**
+	 * Case 2 of addition to a RBT
+	 * where if the nodes parent is black then RBT invariant 4 is maintained.
+	 *
+	 * @param node
+	 * Node that is being added to the tree.
+	 */
+	private void addCase2(int node){
+		if(color[parent[node]] == BLACK){
+			return;
+		}
+		//if invariant 4 is broken fix with case3
+		else{
+			addCase3(node);
+		}
+	}
+
+	/**
+	 * Case 3 of addition to a RBT
+	 * where if the uncle of the addition node is color red, along with add node's parent
+	 * in which case we color parent, and uncle black, and grand parent red to restore
+	 * invariant 4.
+	 *
+	 * @param node
+	 * Node that is being added to the tree.
+	 */
+	private void addCase3(int node){
+		int uncle = getUncle(node);
+
+		if(color[uncle] == RED){
+			color[parent[node]] = BLACK;
+			color[uncle] = BLACK;
+
+			//get grandparent
+			int grandParent = parent[parent[node]];
+			//re-color grandparent
+			color[grandParent] = RED;
+
+			//check to see if invariants are maintained on the grand parent
+			addCase1(grandParent);
+		}
+		//Check for case 4 if case 3 is not valid
+		else{
+			addCase4(node);
+		}
+	}
+
+	/**
+	 * Case 4 of adding to a RBT
+	 * if the node we are adding is an internal node, then we
+	 * rotate to make it external, and set up for case 5.
+	 *
+	 * @param node
+	 * The node we are adding to the RBT.
+	 */
+	private void addCase4(int node){
+		int grandParent = parent[parent[node]];
+
+		//if node we are adding is a left side internal node rotate left to make it an external node
+		if(node == right[parent[node]] && parent[node] == left[grandParent]){
+			leftRotate(parent[node]);
+
+			node = left[node];
+		}
+		//other wise it is external node on right side so right rotate
+		else if(node == left[parent[node]] && parent[node] == right[grandParent]){
+			rightRotate(parent[node]);
+
+			node = right[node];
+		}
+
+		//always go to case 5.
+		addCase5(node);
+	}
+
+	/**
+	 * Case 5 of adding to a RBT
+	 * the node we are adding has a parent that is red, and its uncle is black,
+	 * so we rotate the grandparent to balance the sub-tree.
+	 *
+	 * @param node
+	 * The node we are adding to the RBT.
+	 */
+	private void addCase5(int node){
+		int grandParent = parent[parent[node]];
+
+		color[parent[node]] = BLACK;
+		color[grandParent] = RED;
+
+		//perform grandparent rotation to balance tree
+		if(node == left[parent[node]]){
+			rightRotate(grandParent);
+		}
+		else{
+			leftRotate(grandParent);
+		}
+	}
+//END ADDING TO TREE METHODS
+
+	/**
+	 * Remove the node with the specified key from the tree.
+	 *
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 *
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	public V remove(K key) {
+		//find removal position
+		int removeNode = findNode(key);
+
+		if(removeNode == NIL){
+			return null;
+		}
+
+		//value being returned
+		V returnVal = value(removeNode);
+		int spliceNode = removeNode;
+
+		//if the node we are removing is not at the bottom we need to replace with in-order predecessor
+		if(left[removeNode] != NIL && right[removeNode] != NIL){
+			//copy predecessor values to the remove node, then remove the predecessor instead
+			spliceNode = getPred(left[removeNode]);
+			keys[removeNode] = keys[spliceNode];
+			values[removeNode] = values[spliceNode];
+		}
+
+		//the node being spliced out has at most one child, move it up to take its place
+		int fixNode = left[spliceNode] == NIL ? right[spliceNode] : left[spliceNode];
+		replaceChild(spliceNode, fixNode);
+
+		//removing a red node keeps the RBT properties, otherwise go through case checks
+		if(color[spliceNode] == BLACK){
+			if(color[fixNode] == RED)
+				color[fixNode] = BLACK;
+			else
+				removeCase1(fixNode);
+		}
+
+		releaseSlot(spliceNode);
+
+		return returnVal;
+	}
+
+	/**
+	 * Clears a slot that is no longer in the tree and puts it on the free list.
+	 *
+	 * @param slot
+	 * Index of the node that was spliced out of the tree.
+	 */
+	private void releaseSlot(int slot){
+		keys[slot] = null;
+		values[slot] = null;
+		left[slot] = freeSlot;
+		freeSlot = slot;
+	}
+
+	/**
+	 * Puts the child in the place of the node being spliced out of the tree.
+	 * The child's parent is always set, even if it is the null leaf, so the
+	 * removal cases can find the sibling of a null leaf.
+	 *
+	 * @param node
+	 * The node being spliced out of the tree.
+	 * @param child
+	 * The child moving up into its position.
+	 */
+	private void replaceChild(int node, int child){
+		int nodeParent = parent[node];
+		parent[child] = nodeParent;
+
+		if(nodeParent == NIL){
+			root = child;
+		}
+		else if(node == left[nodeParent]){
+			left[nodeParent] = child;
+		}
+		else{
+			right[nodeParent] = child;
+		}
+	}
+
+	/**
+	 * Case 1 of removing from RBT
+	 * if the remove node's parent isn't null, i.e. isn't the root
+	 * the go to case to otherwise make sure the root is black.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase1(int node){
+		if(parent[node] != NIL){
+			//go to case 2 if the node isn't the root
+			removeCase2(node);
+		}
+		else
+			color[node] = BLACK;
+	}
+
+	/**
+	 * Case 2 of removing from a RBT
+	 * if the sibling is red then we rotate to restore the invariant
+	 * 5.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase2(int node){
+		int sibling = getSibling(node);
+
+		if(color[sibling] == RED){
+			color[parent[node]] = RED;
+			color[sibling] = BLACK;
+
+			if(node == left[parent[node]]){
+				leftRotate(parent[node]);
+			}
+			else{
+				rightRotate(parent[node]);
+			}
+		}
+		//always go to case 3
+		removeCase3(node);
+	}
+
+	/**
+	 * Case 3 of removing from a RBT
+	 * If the all nodes around the node are black simply re-color the sibling node
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase3(int node){
+		int sibling = getSibling(node);
+
+		if(color[parent[node]] == BLACK && color[sibling] == BLACK && color[left[sibling]] == BLACK && color[right[sibling]] == BLACK){
+			color[sibling] = RED;
+			removeCase1(parent[node]);
+		}
+		else{
+			removeCase4(node);
+		}
+	}
+
+	/**
+	 * Case 4 of removing from a RBT
+	 * If the sibling of the removal node is black, exchange the color of the parent
+	 * and the sibling.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase4(int node){
+		int sibling = getSibling(node);
+
+		if(color[parent[node]] == RED && color[sibling] == BLACK && color[left[sibling]] == BLACK && color[right[sibling]] == BLACK){
+			color[sibling] = RED;
+			color[parent[node]] = BLACK;
+		}
+		else{
+			removeCase5(node);
+		}
+	}
+
+	/**
+	 * Case5 of removing from a RBT
+	 * If the sibling of the remove node is black
+	 * rotate the parent.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase5(int node){
+		int sibling = getSibling(node);
+
+		//check sibling's color
+		if(color[sibling] == BLACK){
+			//rotate based on the location of the node
+			if(node == left[parent[node]] && color[right[sibling]] == BLACK && color[left[sibling]] == RED){
+				color[sibling] = RED;
+				color[left[sibling]] = BLACK;
+				rightRotate(sibling);
+			}
+			else if(node == right[parent[node]] && color[left[sibling]] == BLACK && color[right[sibling]] == RED){
+				color[sibling] = RED;
+				color[right[sibling]] = BLACK;
+				leftRotate(sibling);
+			}
+		}
+		removeCase6(node);
+	}
+
+	/**
+	 * Case 6 of removing from RBT
+	 * If remove node's sibling is black and
+	 * the child of the sibling is red
+	 * we rotate the parent of the remove node
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase6(int node){
+		int sibling = getSibling(node);
+
+		color[sibling] = color[parent[node]];
+		color[parent[node]] = BLACK;
+
+		if(node == left[parent[node]]){
+			color[right[sibling]] = BLACK;
+			leftRotate(parent[node]);
+		}
+		else{
+			color[left[sibling]] = BLACK;
+			rightRotate(parent[node]);
+		}
+	}
+
+	/**
+	 * Get the in-order predecessor of the node we are removing
+	 * to replace that node.
+	 *
+	 * @param node
+	 * Node that we are getting the predecessor from
+	 * @return
+	 * returns the predecessor
+	 */
+	private int getPred(int node){
+		while(right[node] != NIL)
+			node = right[node];
+		return node;
+	}
+
+//END OF REMOVAL METHODS
+
+	/**
+	 * Left rotates the sub-tree of the node being
+	 * passed in.
+	 *
+	 * @param node
+	 * Node that will be rotated.
+	 * @return
+	 * returns the new sub-tree.
+	 */
+	private int leftRotate(int node){
+		//create temporary fields for replacement later
+		int newRoot = right[node];
+		int nodeParent = parent[node];
+
+		//move the inner sub-tree of the new root over to the old root
+		right[node] = left[newRoot];
+		if(right[node] != NIL)
+			parent[right[node]] = node;
+
+		//replace the old parent's link with the newRoot
+		parent[newRoot] = nodeParent;
+		if(nodeParent == NIL){
+			root = newRoot;
+		}
+		else if(left[nodeParent] == node){
+			left[nodeParent] = newRoot;
+		}
+		else{
+			right[nodeParent] = newRoot;
+		}
+
+		//old root becomes the left child of the newRoot
+		left[newRoot] = node;
+		parent[node] = newRoot;
+
+		return newRoot;
+	}
+
+	/**
+	 * Right rotates the sub-tree of the node being
+	 * passed in.
+	 *
+	 * @param node
+	 * Node that will be rotated.
+	 * @return
+	 * returns the new sub-tree.
+	 */
+	private int rightRotate(int node){
+		//create temporary fields for replacement later
+		int newRoot = left[node];
+		int nodeParent = parent[node];
+
+		//move the inner sub-tree of the new root over to the old root
+		left[node] = right[newRoot];
+		if(left[node] != NIL)
+			parent[left[node]] = node;
+
+		//replace the parents link with the newRoot
+		parent[newRoot] = nodeParent;
+		if(nodeParent == NIL){
+			root = newRoot;
+		}
+		else if(left[nodeParent] == node){
+			left[nodeParent] = newRoot;
+		}
+		else{
+			right[nodeParent] = newRoot;
+		}
+
+		//old root becomes the right child of the newRoot
+		right[newRoot] = node;
+		parent[node] = newRoot;
+
+		return newRoot;
+	}
+
+	/**
+	 * Returns the sibling of the node that is passed in.
+	 * @param node
+	 * Node we are finding the sibling from.
+	 * @return
+	 * Returns the sibling of the node.
+	 */
+	private int getSibling(int node){
+		int nodeParent = parent[node];
+
+		if(node == left[nodeParent]){
+			return right[nodeParent];
+		}
+		else{
+			return left[nodeParent];
+		}
+	}
+
+	/**
+	 * Returns the uncle of the node that is passed in.
+	 * @param node
+	 * Node we are finding the uncle from.
+	 * @return
+	 * Returns the uncle of the node.
+	 */
+	private int getUncle(int node){
+		int grandParent = parent[parent[node]];
+
+		if(grandParent == NIL)
+			return NIL;
+
+		if(parent[node] == left[grandParent])
+			return right[grandParent];
+		else
+			return left[grandParent];
+	}
+
+	/**
+	 * Returns, but doesn't remove the node with the
+	 * key that is passed in to the method.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key with the node that is passed
+	 */
+	public V lookup(K key) {
+		return value(findNode(key));
+	}
+
+	/**
+	 * method that does the heavy lifting of finding the node based on a key,
+	 * walking down from the root with one comparison per level.
+	 * @param key
+	 * Key we want to find with the node that owns that key
+	 * @return
+	 * Returns the index of the node with the key, or NIL if it isn't in the tree
+	 */
+	private int findNode(K key){
+		int current = root;
+
+		while(current != NIL){
+			int cmp = key.compareTo(key(current));
+
+			if(cmp == 0)
+				return current;
+
+			current = cmp < 0 ? left[current] : right[current];
+		}
+
+		return NIL;
+	}
+
+	/**
+	 * Print the tree, one node per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString() {
+		StringBuilder str = new StringBuilder();
+
+		printNode(str, root, 0);
+
+		return str.toString();
+	}
+
+	/**
+	 * Helper method for toPrettyString(), prints the right sub-tree,
+	 * then the node, then the left sub-tree, so the tree reads sideways.
+	 *
+	 * @param str
+	 * The builder the tree is printed to.
+	 * @param node
+	 * The node being printed.
+	 * @param depth
+	 * The depth of the node.
+	 */
+	private void printNode(StringBuilder str, int node, int depth){
+		if(node == NIL)
+			return;
+
+		printNode(str, right[node], depth + 1);
+
+		for(int i = 0; i < depth; i++)
+			str.append("    ");
+		str.append(values[node]).append(" - ").append(color[node] == RED ? "red" : "black").append('\n');
+
+		printNode(str, left[node], depth + 1);
+	}
+
+	/**
+	 * Returns the key stored in a slot.
+	 * @param node
+	 * Index of the node.
+	 * @return
+	 * the key of the node.
+	 */
+	@SuppressWarnings("unchecked")
+	private K key(int node){
+		return (K) keys[node];
+	}
+
+	/**
+	 * Returns the value stored in a slot, null for the null leaf.
+	 * @param node
+	 * Index of the node.
+	 * @return
+	 * the value of the node.
+	 */
+	@SuppressWarnings("unchecked")
+	private V value(int node){
+		return (V) values[node];
+	}
+}
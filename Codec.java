@@ -0,0 +1,69 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Binary encoding of keys and values for tree snapshots
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Writes a key or value of type T to a snapshot and reads it back.
+ * Codecs for the common key types are provided as constants.
+ *
+ * @param <T>
+ * Type being encoded.
+ */
+public interface Codec<T> {
+	public void write(T value, DataOutput out) throws IOException;
+	public T read(DataInput in) throws IOException;
+
+	//4 bytes per value
+	public static final Codec<Integer> INTEGER = new Codec<Integer>(){
+		public void write(Integer value, DataOutput out) throws IOException{
+			out.writeInt(value);
+		}
+
+		public Integer read(DataInput in) throws IOException{
+			return in.readInt();
+		}
+	};
+
+	//8 bytes per value
+	public static final Codec<Long> LONG = new Codec<Long>(){
+		public void write(Long value, DataOutput out) throws IOException{
+			out.writeLong(value);
+		}
+
+		public Long read(DataInput in) throws IOException{
+			return in.readLong();
+		}
+	};
+
+	//length followed by the UTF-8 bytes, with no 64KB limit unlike writeUTF
+	public static final Codec<String> STRING = new Codec<String>(){
+		public void write(String value, DataOutput out) throws IOException{
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		public String read(DataInput in) throws IOException{
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+}
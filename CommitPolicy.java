@@ -0,0 +1,80 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * When the log of a durable Red-Black tree is forced to disk
+ *
+ * Jacob Romero
+ *
+ */
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Decides when DurableRedBlackTree forces its write-ahead log to disk,
+ * trading the latency of add and remove against how many changes a crash
+ * can lose.
+ *
+ * 	-perOperation(), every change waits until it is on disk, nothing is lost
+ * 	-perBatch(n), every n-th change waits for itself and the ones before it,
+ * 	 a crash loses at most the last n - 1 changes
+ * 	-interval(ms), no change waits, the log is forced in the background,
+ * 	 a crash loses at most the changes of the last interval
+ *
+ * In every policy threads that wait at the same time share one force of
+ * the log, so the disk isn't forced once per thread.
+ */
+public final class CommitPolicy {
+	//number of changes per force of the log, 0 if only the timer forces it
+	final int batchSize;
+
+	//time between background forces in milliseconds, 0 for none
+	final long intervalMillis;
+
+	private CommitPolicy(int batchSize, long intervalMillis){
+		this.batchSize = batchSize;
+		this.intervalMillis = intervalMillis;
+	}
+
+	/**
+	 * Every add and remove returns only once its change is on disk.
+	 * @return
+	 * returns the policy.
+	 */
+	public static CommitPolicy perOperation(){
+		return new CommitPolicy(1, 0);
+	}
+
+	/**
+	 * Every add and remove that completes a batch of changes returns only
+	 * once the batch is on disk, the others return right away.
+	 * @param changes
+	 * Number of changes in a batch.
+	 * @return
+	 * returns the policy.
+	 */
+	public static CommitPolicy perBatch(int changes){
+		if(changes < 1)
+			throw new IllegalArgumentException("Batch must hold at least one change, got " + changes);
+
+		return new CommitPolicy(changes, 0);
+	}
+
+	/**
+	 * Add and remove return right away, and a background thread forces
+	 * the log to disk on a fixed interval.
+	 * @param millis
+	 * Time between forces in milliseconds.
+	 * @return
+	 * returns the policy.
+	 */
+	public static CommitPolicy interval(long millis){
+		if(millis < 1)
+			throw new IllegalArgumentException("Interval must be at least 1ms, got " + millis);
+
+		return new CommitPolicy(0, millis);
+	}
+}
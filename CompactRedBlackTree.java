@@ -0,0 +1,465 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Red-Black tree balanced top-down, without parent links
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Red-Black tree whose nodes hold only their key, value, two children and
+ * a boolean color, no parent link, no sub-tree size and no Colors enum
+ * reference. With compressed references a node takes 32 bytes instead of
+ * the 48 of a RedBlackTree node.
+ *
+ * Without parent links the tree can't be fixed up on the way back to the
+ * root, so add and remove rebalance on the way down instead, following
+ * the top-down algorithms described by Julienne Walker. add splits every
+ * node with two red children before passing it, so the new red leaf can
+ * always be fixed by a rotation just above it, and remove pushes a red
+ * node down ahead of itself, so the node it takes out is always red. Both
+ * walk from the root to a leaf once and never go back up.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class CompactRedBlackTree<K extends Comparable<K>, V> implements Tree<K, V>, Iterable<Map.Entry<K, V>> {
+	private Node<K, V> root;
+
+	//stands in above the root during add and remove, reused so they only allocate the new node
+	private final Node<K, V> head = new Node<K, V>(null, null);
+
+	//number of keys in the tree
+	private int count = 0;
+
+	//number of times keys were added or removed or nodes rotated, used to fail iterators fast
+	private int modCount = 0;
+
+	/**
+	 * Adds a key and value to the tree, replacing the value if the key is
+	 * already in it.
+	 * @param key
+	 * The key for the node.
+	 * @param value
+	 * the value for the node.
+	 */
+	public void add(K key, V value){
+		if(key == null)
+			throw new NullPointerException("Tree can't hold a null key");
+
+		if(root == null){
+			root = new Node<K, V>(key, value);
+			root.red = false;
+			count++;
+			modCount++;
+			return;
+		}
+
+		//great-grandparent, grandparent, parent and current node on the way down
+		Node<K, V> great = head;
+		Node<K, V> grand = null;
+		Node<K, V> parent = null;
+		Node<K, V> node = root;
+		head.right = root;
+
+		//side of the parent the node is on, and side of the grandparent the parent is on
+		boolean dir = false;
+		boolean last = false;
+
+		while(true){
+			if(node == null){
+				//add the new key as a red leaf
+				node = new Node<K, V>(key, value);
+				setChild(parent, dir, node);
+				count++;
+				modCount++;
+			}
+			else if(isRed(node.left) && isRed(node.right)){
+				//split a node with two red children by flipping the colors
+				node.red = true;
+				node.left.red = false;
+				node.right.red = false;
+			}
+
+			//a red node under a red parent is fixed by rotating around the grandparent
+			if(isRed(node) && isRed(parent)){
+				boolean side = great.right == grand;
+
+				if(node == child(parent, last))
+					setChild(great, side, rotate(grand, !last));
+				else
+					setChild(great, side, rotateTwice(grand, !last));
+
+				//even an add of a key already in the tree can rotate on the way down
+				modCount++;
+			}
+
+			int cmp = key.compareTo(node.key);
+			if(cmp == 0){
+				node.value = value;
+				break;
+			}
+
+			last = dir;
+			dir = cmp > 0;
+
+			if(grand != null)
+				great = grand;
+
+			grand = parent;
+			parent = node;
+			node = child(node, dir);
+		}
+
+		root = head.right;
+		root.red = false;
+		head.right = null;
+	}
+
+	/**
+	 * Removes the key from the tree.
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	public V remove(K key){
+		if(root == null)
+			return null;
+
+		Node<K, V> grand = null;
+		Node<K, V> parent = null;
+		Node<K, V> node = head;
+		head.right = root;
+
+		//node holding the key, once it is passed
+		Node<K, V> found = null;
+		boolean dir = true;
+
+		//walk down to the in-order predecessor of the key, making sure the node below is red
+		while(child(node, dir) != null){
+			boolean last = dir;
+
+			grand = parent;
+			parent = node;
+			node = child(node, dir);
+
+			int cmp = key.compareTo(node.key);
+			dir = cmp > 0;
+
+			if(cmp == 0)
+				found = node;
+
+			if(isRed(node) || isRed(child(node, dir)))
+				continue;
+
+			if(isRed(child(node, !dir))){
+				//the red child on the other side is rotated up, leaving the node red
+				setChild(parent, last, rotate(node, dir));
+				parent = child(parent, last);
+
+				//even a remove of a missing key can rotate on the way down
+				modCount++;
+			}
+			else{
+				Node<K, V> sibling = child(parent, !last);
+				if(sibling == null)
+					continue;
+
+				if(!isRed(sibling.left) && !isRed(sibling.right)){
+					//both are black with black children, so a color flip makes the node red
+					parent.red = false;
+					sibling.red = true;
+					node.red = true;
+				}
+				else{
+					//borrow a node from the sibling with one or two rotations
+					boolean side = grand.right == parent;
+
+					if(isRed(child(sibling, last)))
+						setChild(grand, side, rotateTwice(parent, last));
+					else
+						setChild(grand, side, rotate(parent, last));
+					modCount++;
+
+					Node<K, V> top = child(grand, side);
+					node.red = true;
+					top.red = true;
+					top.left.red = false;
+					top.right.red = false;
+				}
+			}
+		}
+
+		V returnVal = null;
+
+		if(found != null){
+			returnVal = found.value;
+
+			//move the predecessor's entry into the found node and splice out the predecessor
+			found.key = node.key;
+			found.value = node.value;
+			setChild(parent, parent.right == node, child(node, node.left == null));
+			count--;
+			modCount++;
+		}
+
+		root = head.right;
+		if(root != null)
+			root.red = false;
+		head.right = null;
+
+		return returnVal;
+	}
+
+	/**
+	 * Returns, but doesn't remove the node with the
+	 * key that is passed in to the method.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key with the node that is passed
+	 */
+	public V lookup(K key){
+		Node<K, V> node = root;
+
+		while(node != null){
+			int cmp = key.compareTo(node.key);
+
+			if(cmp == 0)
+				return node.value;
+
+			node = cmp < 0 ? node.left : node.right;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		return count;
+	}
+
+	/**
+	 * Returns an iterator over the entries in ascending key order. With no
+	 * parent links to climb, the path to the next node is kept on a stack.
+	 * @return
+	 * returns the ascending iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> iterator(){
+		return new Iterator<Map.Entry<K, V>>(){
+			//nodes whose key and right sub-tree are still to be returned
+			private final ArrayDeque<Node<K, V>> path = new ArrayDeque<Node<K, V>>();
+			private final int expectedModCount = modCount;
+
+			{
+				pushLeft(root);
+			}
+
+			public boolean hasNext(){
+				return !path.isEmpty();
+			}
+
+			public Map.Entry<K, V> next(){
+				if(modCount != expectedModCount)
+					throw new ConcurrentModificationException();
+				if(path.isEmpty())
+					throw new NoSuchElementException();
+
+				Node<K, V> node = path.pop();
+				pushLeft(node.right);
+				return node;
+			}
+
+			private void pushLeft(Node<K, V> node){
+				for(; node != null; node = node.left)
+					path.push(node);
+			}
+		};
+	}
+
+	/**
+	 * Print the tree, one node per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString(){
+		StringBuilder str = new StringBuilder();
+
+		printNode(str, root, 0);
+
+		return str.toString();
+	}
+
+	/**
+	 * Helper method for toPrettyString(), prints the right sub-tree,
+	 * then the node, then the left sub-tree, so the tree reads sideways.
+	 *
+	 * @param str
+	 * The builder the tree is printed to.
+	 * @param node
+	 * The node being printed.
+	 * @param depth
+	 * The depth of the node.
+	 */
+	private void printNode(StringBuilder str, Node<K, V> node, int depth){
+		if(node == null)
+			return;
+
+		printNode(str, node.right, depth + 1);
+
+		for(int i = 0; i < depth; i++)
+			str.append("    ");
+		str.append(node.value).append(" - ").append(node.red ? "red" : "black").append('\n');
+
+		printNode(str, node.left, depth + 1);
+	}
+
+	/**
+	 * Rotates the sub-tree toward the side, so the child on the other side
+	 * becomes its root. The old root turns red and the new one black.
+	 * @param node
+	 * Root of the sub-tree.
+	 * @param right
+	 * true to rotate right, false to rotate left.
+	 * @return
+	 * returns the new root of the sub-tree.
+	 */
+	private static <K, V> Node<K, V> rotate(Node<K, V> node, boolean right){
+		Node<K, V> pivot = child(node, !right);
+
+		setChild(node, !right, child(pivot, right));
+		setChild(pivot, right, node);
+
+		node.red = true;
+		pivot.red = false;
+
+		return pivot;
+	}
+
+	/**
+	 * Rotates the child on the other side away from the side, then the
+	 * sub-tree toward it, lifting the grandchild in between to the root.
+	 * @param node
+	 * Root of the sub-tree.
+	 * @param right
+	 * true if the final rotation is to the right.
+	 * @return
+	 * returns the new root of the sub-tree.
+	 */
+	private static <K, V> Node<K, V> rotateTwice(Node<K, V> node, boolean right){
+		setChild(node, !right, rotate(child(node, !right), !right));
+
+		return rotate(node, right);
+	}
+
+	/**
+	 * Returns the right child if right is true, else the left.
+	 */
+	private static <K, V> Node<K, V> child(Node<K, V> node, boolean right){
+		return right ? node.right : node.left;
+	}
+
+	/**
+	 * Sets the right child if right is true, else the left.
+	 */
+	private static <K, V> void setChild(Node<K, V> node, boolean right, Node<K, V> child){
+		if(right)
+			node.right = child;
+		else
+			node.left = child;
+	}
+
+	/**
+	 * Checks if a sub-tree has a red root, null leaves are black.
+	 */
+	private static boolean isRed(Node<?, ?> node){
+		return node != null && node.red;
+	}
+
+	/**
+	 * Tree node without a parent link.
+	 *
+	 * Fields include:
+	 * 	-key
+	 * 	-value
+	 *	-left
+	 *	-right
+	 *	-red, new nodes start red
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private static final class Node<K, V> implements Map.Entry<K, V>{
+		K key;
+		V value;
+		Node<K, V> left;
+		Node<K, V> right;
+		boolean red = true;
+
+		/**
+		 * Standard constructor for creating nodes
+		 * @param key
+		 * Key the node will have.
+		 * @param value
+		 * Value the node will have.
+		 */
+		Node(K key, V value){
+			this.key = key;
+			this.value = value;
+		}
+
+		public K getKey(){
+			return key;
+		}
+
+		public V getValue(){
+			return value;
+		}
+
+		public V setValue(V newValue){
+			V oldValue = value;
+			value = newValue;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if(!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode(){
+			return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString(){
+			return key + "=" + value;
+		}
+	}
+}
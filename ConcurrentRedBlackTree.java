@@ -0,0 +1,250 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Thread-safe wrapper around the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.IOException;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Thread-safe Red-Black tree. Writers take the exclusive lock of a
+ * StampedLock, while lookups walk the tree under an optimistic stamp and
+ * only retry under the read lock if a writer got in the way, so readers
+ * never block each other.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class ConcurrentRedBlackTree<K extends Comparable<K>, V> implements Tree<K, V> {
+	//a valid tree with at most 2^31 keys is never deeper than this
+	private static final int MAX_DEPTH = 64;
+
+	private final RedBlackTree<K, V> tree = new RedBlackTree<K, V>(true);
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * Add the key, value pair into the tree under the write lock.
+	 *
+	 * @param key
+	 * Key used to find the insert position.
+	 * @param value
+	 * Value the Node will hold.
+	 */
+	public void add(K key, V value){
+		long stamp = lock.writeLock();
+		try{
+			tree.add(key, value);
+		}
+		finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Remove the node with the specified key from the tree under the write lock.
+	 *
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	public V remove(K key){
+		long stamp = lock.writeLock();
+		try{
+			return tree.remove(key);
+		}
+		finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns, but doesn't remove the value of the key. The tree is first
+	 * walked without locking, and the result is only used if no writer
+	 * held the lock in the meantime, otherwise the walk is redone under
+	 * the read lock.
+	 *
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key, or null if it isn't in the tree
+	 */
+	public V lookup(K key){
+		long stamp = lock.tryOptimisticRead();
+
+		if(stamp != 0L){
+			try{
+				RedBlackTree<K, V>.Node node = optimisticFind(key);
+
+				//read the value before validating so it belongs to the same version
+				V value = node == null ? null : node.value;
+				if(lock.validate(stamp))
+					return value;
+			}
+			//a writer changed the nodes under us, the read lock below sorts it out
+			catch(RuntimeException e){
+			}
+		}
+
+		stamp = lock.readLock();
+		try{
+			return tree.lookup(key);
+		}
+		finally{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Walks down the tree without a lock. Writers may be changing links while
+	 * this runs, so the result is only trusted after the stamp is validated,
+	 * and the walk gives up after MAX_DEPTH steps in case it is sent around
+	 * a loop by a rotation in progress.
+	 *
+	 * @param key
+	 * Key we want to find with the node that owns that key
+	 * @return
+	 * Returns the node with the key, or null if it wasn't found
+	 */
+	private RedBlackTree<K, V>.Node optimisticFind(K key){
+		RedBlackTree<K, V>.Node current = tree.root;
+
+		for(int depth = 0; current != null && depth <= MAX_DEPTH; depth++){
+			K currentKey = current.key;
+
+			//reached a null leaf
+			if(currentKey == null)
+				return null;
+
+			int cmp = key.compareTo(currentKey);
+
+			if(cmp == 0)
+				return current;
+
+			current = cmp < 0 ? current.leftChild : current.rightChild;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		long stamp = lock.tryOptimisticRead();
+		int size = tree.size();
+
+		if(!lock.validate(stamp)){
+			stamp = lock.readLock();
+			try{
+				size = tree.size();
+			}
+			finally{
+				lock.unlockRead(stamp);
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Print the tree under the read lock.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString(){
+		long stamp = lock.readLock();
+		try{
+			return tree.toPrettyString();
+		}
+		finally{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Streams the sub-tree of a key to the output as text under the read
+	 * lock, see RedBlackTree.print(). Writers wait until it is done, so a
+	 * large tree should be printed with a small depth.
+	 *
+	 * @param out
+	 * Where the tree is printed to.
+	 * @param from
+	 * Key whose node is printed at the top, or null for the whole tree.
+	 * @param maxDepth
+	 * Deepest level printed, 0 prints only the top node.
+	 * @throws IOException
+	 * if the output can't be written to.
+	 */
+	public void print(Appendable out, K from, int maxDepth) throws IOException {
+		long stamp = lock.readLock();
+		try{
+			tree.print(out, from, maxDepth);
+		}
+		finally{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Streams the sub-tree of a key to the output as a DOT graph under the
+	 * read lock, see RedBlackTree.exportDot().
+	 *
+	 * @param out
+	 * Where the graph is written to.
+	 * @param from
+	 * Key whose node is the top of the graph, or null for the whole tree.
+	 * @param maxDepth
+	 * Deepest level written, 0 writes only the top node.
+	 * @throws IOException
+	 * if the output can't be written to.
+	 */
+	public void exportDot(Appendable out, K from, int maxDepth) throws IOException {
+		long stamp = lock.readLock();
+		try{
+			tree.exportDot(out, from, maxDepth);
+		}
+		finally{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Streams the sub-tree of a key to the output as JSON under the read
+	 * lock, see RedBlackTree.exportJson().
+	 *
+	 * @param out
+	 * Where the JSON is written to.
+	 * @param from
+	 * Key whose node is the top object, or null for the whole tree.
+	 * @param maxDepth
+	 * Deepest level written, 0 writes only the top node.
+	 * @throws IOException
+	 * if the output can't be written to.
+	 */
+	public void exportJson(Appendable out, K from, int maxDepth) throws IOException {
+		long stamp = lock.readLock();
+		try{
+			tree.exportJson(out, from, maxDepth);
+		}
+		finally{
+			lock.unlockRead(stamp);
+		}
+	}
+}
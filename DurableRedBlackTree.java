@@ -0,0 +1,910 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Red-Black tree that survives crashes through a write-ahead log
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Thread-safe Red-Black tree whose changes survive a crash. Every add and
+ * remove is appended to a write-ahead log before it returns, and the log is
+ * forced to disk as the CommitPolicy says, with threads waiting at the same
+ * time sharing one force of the log (group commit). The keys are held in a
+ * PersistentRedBlackTree, so lookups never take a lock.
+ *
+ * The directory holds snapshot files named snapshot.N, written with the same
+ * format as RedBlackTree.writeTo(), and log files named log.N. A snapshot
+ * holds every change in the logs up to and including log.N. Once a log grows
+ * past the checkpoint size, a new log is started and the version of the tree
+ * at that moment is written to a snapshot in the background, after which the
+ * older snapshots and logs are deleted. Opening the tree loads the newest
+ * snapshot and replays the logs after it, dropping a record torn by a crash
+ * at the end of the last log. A damaged record with whole records after it
+ * can't have been torn by a crash, so opening fails instead of dropping
+ * them.
+ *
+ * Each log record is its length, a CRC32C checksum, then the operation, the
+ * key, and for an add the value, encoded by the codecs.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class DurableRedBlackTree<K extends Comparable<K>, V> implements Tree<K, V>, Closeable {
+	//size a log grows to before a checkpoint is started, unless another is passed in
+	public static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+	//log record operations
+	private static final byte ADD = 1;
+	private static final byte REMOVE = 2;
+
+	//length and checksum in front of every record
+	private static final int RECORD_HEADER = 8;
+
+	private static final String SNAPSHOT = "snapshot.";
+	private static final String LOG = "log.";
+	private static final String TEMP = ".tmp";
+
+	private final Path directory;
+	private final Codec<K> keyCodec;
+	private final Codec<V> valueCodec;
+	private final CommitPolicy policy;
+	private final long checkpointBytes;
+
+	private final PersistentRedBlackTree<K, V> tree = new PersistentRedBlackTree<K, V>();
+
+	//held while a record is appended and the tree changed, so both see changes in the same order
+	private final ReentrantLock lock = new ReentrantLock();
+
+	//records appended since the last time the log was written, guarded by lock
+	private final Snapshot.BlockOutput pending = new Snapshot.BlockOutput();
+	private final DataOutputStream pendingData = new DataOutputStream(pending);
+	private final CRC32C crc = new CRC32C();
+	private long appended;
+	private long logBytes;
+	private boolean closed;
+
+	//guards the fields below, only one thread at a time holds the right to write the log
+	private final Object syncMonitor = new Object();
+	private boolean syncing;
+	private long durable;
+	private IOException failure;
+
+	//only used by the thread holding the right to write the log
+	private final Snapshot.BlockOutput writing = new Snapshot.BlockOutput();
+	private FileChannel log;
+	private long generation;
+
+	//held by the one checkpoint that can run at a time
+	private final Object checkpointMonitor = new Object();
+	private final AtomicBoolean checkpointQueued = new AtomicBoolean();
+
+	//runs interval forces, kept apart from checkpoints so a long snapshot doesn't hold them up
+	private final ScheduledExecutorService flusher;
+
+	//runs checkpoints queued by a full log
+	private final ExecutorService checkpointer;
+
+	/**
+	 * Opens the tree stored in the directory, creating the directory if it
+	 * doesn't exist, with the default checkpoint size.
+	 *
+	 * @param directory
+	 * Directory holding the snapshots and logs.
+	 * @param keyCodec
+	 * Codec used to write and read the keys.
+	 * @param valueCodec
+	 * Codec used to write and read the values.
+	 * @param policy
+	 * When the log is forced to disk.
+	 * @throws IOException
+	 * if the files can't be read or written.
+	 */
+	public DurableRedBlackTree(Path directory, Codec<K> keyCodec, Codec<V> valueCodec, CommitPolicy policy) throws IOException {
+		this(directory, keyCodec, valueCodec, policy, DEFAULT_CHECKPOINT_BYTES);
+	}
+
+	/**
+	 * Opens the tree stored in the directory, creating the directory if it
+	 * doesn't exist. The newest snapshot is loaded and the logs after it are
+	 * replayed.
+	 *
+	 * @param directory
+	 * Directory holding the snapshots and logs.
+	 * @param keyCodec
+	 * Codec used to write and read the keys.
+	 * @param valueCodec
+	 * Codec used to write and read the values.
+	 * @param policy
+	 * When the log is forced to disk.
+	 * @param checkpointBytes
+	 * Size a log grows to before a checkpoint is started.
+	 * @throws IOException
+	 * if the files can't be read or written.
+	 */
+	public DurableRedBlackTree(Path directory, Codec<K> keyCodec, Codec<V> valueCodec, CommitPolicy policy, long checkpointBytes) throws IOException {
+		if(checkpointBytes < 1)
+			throw new IllegalArgumentException("Checkpoint size must be positive, got " + checkpointBytes);
+
+		this.directory = directory;
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.policy = policy;
+		this.checkpointBytes = checkpointBytes;
+
+		Files.createDirectories(directory);
+		recover();
+
+		//the threads are only started once they are first given work
+		flusher = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "durable-tree-sync-"));
+		checkpointer = Executors.newSingleThreadExecutor(task -> daemon(task, "durable-tree-checkpoint-"));
+
+		if(policy.intervalMillis > 0)
+			flusher.scheduleWithFixedDelay(this::backgroundSync, policy.intervalMillis, policy.intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a daemon thread for one of the background executors, named
+	 * after the directory.
+	 */
+	private Thread daemon(Runnable task, String name){
+		Thread thread = new Thread(task, name + directory.getFileName());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 *
+	 * Add the key, value pair into the tree and the log.
+	 * If the key is already in the tree its value is replaced.
+	 *
+	 * @param key
+	 * Key used to find the insert position.
+	 * @param value
+	 * Value the Node will hold.
+	 * @throws UncheckedIOException
+	 * if the log can't be written, the change stays in memory but may be lost.
+	 */
+	public void add(K key, V value){
+		long record;
+		boolean full;
+
+		lock.lock();
+		try{
+			record = append(ADD, key, value);
+			tree.add(key, value);
+			full = logBytes >= checkpointBytes;
+		}
+		finally{
+			lock.unlock();
+		}
+
+		commit(record, full);
+	}
+
+	/**
+	 * Remove the node with the specified key from the tree, logging the removal.
+	 *
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 * @throws UncheckedIOException
+	 * if the log can't be written, the change stays in memory but may be lost.
+	 */
+	public V remove(K key){
+		long record;
+		boolean full;
+		V value;
+
+		lock.lock();
+		try{
+			record = append(REMOVE, key, null);
+			value = tree.remove(key);
+			full = logBytes >= checkpointBytes;
+		}
+		finally{
+			lock.unlock();
+		}
+
+		commit(record, full);
+
+		return value;
+	}
+
+	/**
+	 * Returns, but doesn't remove the value of the key, without taking a lock.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key, or null if it isn't in the tree
+	 */
+	public V lookup(K key){
+		return tree.lookup(key);
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		return tree.size();
+	}
+
+	/**
+	 * Print the tree, one node per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString(){
+		return tree.toPrettyString();
+	}
+
+	/**
+	 * Encodes a record at the end of the pending buffer, must hold the lock.
+	 *
+	 * @param operation
+	 * ADD or REMOVE.
+	 * @param key
+	 * Key being changed.
+	 * @param value
+	 * Value being added, not written for a removal.
+	 * @return
+	 * returns the number of the record, counting from 1 since the tree was opened.
+	 */
+	private long append(byte operation, K key, V value){
+		if(closed)
+			throw new IllegalStateException("Tree is closed");
+
+		int start = pending.size;
+		boolean encoded = false;
+
+		try{
+			//room for the length and checksum, filled in once the record is encoded
+			pendingData.writeLong(0);
+			pendingData.writeByte(operation);
+			keyCodec.write(key, pendingData);
+			if(operation == ADD)
+				valueCodec.write(value, pendingData);
+			encoded = true;
+		}
+		catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+		finally{
+			//a codec that failed partway, with any exception, must not leave half a record in the log
+			if(!encoded)
+				pending.size = start;
+		}
+
+		int length = pending.size - start - RECORD_HEADER;
+		crc.reset();
+		crc.update(pending.buf, start + RECORD_HEADER, length);
+
+		ByteBuffer header = ByteBuffer.wrap(pending.buf, start, RECORD_HEADER);
+		header.putInt(length);
+		header.putInt((int) crc.getValue());
+
+		logBytes += RECORD_HEADER + length;
+
+		return ++appended;
+	}
+
+	/**
+	 * Waits for the record as the commit policy says, and queues a
+	 * checkpoint if the log is full.
+	 *
+	 * @param record
+	 * Number of the record just appended.
+	 * @param full
+	 * true if the log has grown past the checkpoint size.
+	 */
+	private void commit(long record, boolean full){
+		if(policy.batchSize > 0 && record % policy.batchSize == 0)
+			awaitDurable(record);
+
+		if(full && checkpointQueued.compareAndSet(false, true))
+			checkpointer.execute(this::backgroundCheckpoint);
+	}
+
+	/**
+	 * Writes every change made so far to the log and waits until it is on
+	 * disk, whatever the commit policy.
+	 *
+	 * @throws UncheckedIOException
+	 * if the log can't be written.
+	 */
+	public void sync(){
+		long record;
+
+		lock.lock();
+		try{
+			record = appended;
+		}
+		finally{
+			lock.unlock();
+		}
+
+		awaitDurable(record);
+	}
+
+	/**
+	 * Waits until the record is on disk. If no other thread is writing the
+	 * log this thread writes it, taking along the records of every thread
+	 * that appended in the meantime, otherwise it waits for the writer and
+	 * checks again.
+	 *
+	 * @param record
+	 * Number of the record that has to be on disk.
+	 */
+	private void awaitDurable(long record){
+		boolean interrupted = false;
+
+		try{
+			synchronized(syncMonitor){
+				while(true){
+					if(durable >= record)
+						return;
+					if(failure != null)
+						throw new UncheckedIOException(failure);
+					if(!syncing)
+						break;
+
+					try{
+						syncMonitor.wait();
+					}
+					catch(InterruptedException e){
+						interrupted = true;
+					}
+				}
+
+				syncing = true;
+			}
+
+			long written = 0;
+			IOException error = null;
+
+			try{
+				written = writeLog();
+			}
+			catch(IOException e){
+				error = e;
+			}
+
+			releaseSync(written, error);
+		}
+		finally{
+			if(interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Takes the right to write the log, waiting for the thread holding it.
+	 */
+	private void acquireSync(){
+		boolean interrupted = false;
+
+		synchronized(syncMonitor){
+			while(syncing){
+				try{
+					syncMonitor.wait();
+				}
+				catch(InterruptedException e){
+					interrupted = true;
+				}
+			}
+
+			syncing = true;
+		}
+
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Gives up the right to write the log and wakes the waiting threads.
+	 *
+	 * @param written
+	 * Number of the last record now on disk.
+	 * @param error
+	 * The exception writing the log failed with, or null.
+	 */
+	private void releaseSync(long written, IOException error){
+		synchronized(syncMonitor){
+			if(error != null)
+				failure = error;
+			else
+				durable = Math.max(durable, written);
+
+			syncing = false;
+			syncMonitor.notifyAll();
+		}
+
+		if(error != null)
+			throw new UncheckedIOException(error);
+	}
+
+	/**
+	 * Moves the pending records out of the way of the appending threads,
+	 * then writes and forces them to the log, must hold the right to write
+	 * the log.
+	 *
+	 * @return
+	 * returns the number of the last record written.
+	 * @throws IOException
+	 * if the log can't be written.
+	 */
+	private long writeLog() throws IOException {
+		long written;
+
+		lock.lock();
+		try{
+			written = swapPending();
+		}
+		finally{
+			lock.unlock();
+		}
+
+		flushWriting();
+
+		return written;
+	}
+
+	/**
+	 * Swaps the pending buffer with the empty writing buffer, must hold
+	 * the lock and the right to write the log.
+	 *
+	 * @return
+	 * returns the number of the last record in the writing buffer.
+	 */
+	private long swapPending(){
+		byte[] buf = writing.buf;
+		writing.buf = pending.buf;
+		writing.size = pending.size;
+		pending.buf = buf;
+		pending.size = 0;
+
+		return appended;
+	}
+
+	/**
+	 * Writes the writing buffer to the log and forces it to disk.
+	 *
+	 * @throws IOException
+	 * if the log can't be written.
+	 */
+	private void flushWriting() throws IOException {
+		if(writing.size == 0)
+			return;
+
+		ByteBuffer bytes = ByteBuffer.wrap(writing.buf, 0, writing.size);
+		while(bytes.hasRemaining())
+			log.write(bytes);
+
+		log.force(false);
+		writing.size = 0;
+	}
+
+	/**
+	 * Forces the log on the commit interval, run by the flusher thread.
+	 */
+	private void backgroundSync(){
+		try{
+			sync();
+		}
+		//the failure is kept and thrown to the next add or remove that waits
+		catch(UncheckedIOException e){
+		}
+	}
+
+	/**
+	 * Runs a checkpoint queued by a full log, on the checkpoint thread.
+	 */
+	private void backgroundCheckpoint(){
+		checkpointQueued.set(false);
+
+		try{
+			checkpoint();
+		}
+		//the old logs are kept, so the next checkpoint tries again
+		catch(IOException | UncheckedIOException e){
+		}
+	}
+
+	/**
+	 * Starts a new log and writes the version of the tree at that moment to
+	 * a snapshot, then deletes the older snapshots and logs. Only starting
+	 * the new log holds up add and remove, the snapshot is written from the
+	 * persistent version while they carry on.
+	 *
+	 * @throws IOException
+	 * if the log or snapshot can't be written.
+	 */
+	public void checkpoint() throws IOException {
+		synchronized(checkpointMonitor){
+			PersistentRedBlackTree<K, V> version;
+			long covered;
+			long written = 0;
+			IOException error = null;
+
+			acquireSync();
+			try{
+				lock.lock();
+				try{
+					if(closed)
+						throw new IllegalStateException("Tree is closed");
+
+					written = swapPending();
+					version = tree.snapshot();
+					logBytes = 0;
+				}
+				finally{
+					lock.unlock();
+				}
+
+				//the records up to the snapshot go to the old log, later ones to the new log
+				covered = generation;
+
+				try{
+					flushWriting();
+					FileChannel next = openLog(generation + 1);
+					log.close();
+					log = next;
+					generation++;
+				}
+				catch(IOException e){
+					error = e;
+				}
+			}
+			finally{
+				releaseSync(written, error);
+			}
+
+			Path temp = directory.resolve(SNAPSHOT + covered + TEMP);
+			try(FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+				Snapshot.write(Channels.newOutputStream(out), version.size(), version.iterator(), keyCodec, valueCodec);
+				out.force(true);
+			}
+
+			Files.move(temp, directory.resolve(SNAPSHOT + covered), StandardCopyOption.ATOMIC_MOVE);
+			syncDirectory();
+
+			deleteOlder(covered);
+		}
+	}
+
+	/**
+	 * Writes every change to disk and closes the log. The files are left in
+	 * place to be opened again.
+	 *
+	 * @throws IOException
+	 * if the log can't be written or closed.
+	 */
+	public void close() throws IOException {
+		lock.lock();
+		try{
+			if(closed)
+				return;
+			closed = true;
+		}
+		finally{
+			lock.unlock();
+		}
+
+		flusher.shutdown();
+		checkpointer.shutdown();
+
+		try{
+			//a checkpoint that already started is left to finish
+			checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+			flusher.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized(checkpointMonitor){
+			try{
+				sync();
+			}
+			catch(UncheckedIOException e){
+				throw e.getCause();
+			}
+			finally{
+				log.close();
+			}
+		}
+	}
+
+	/**
+	 * Loads the newest snapshot, replays the logs after it and opens the
+	 * last log for appending.
+	 *
+	 * @throws IOException
+	 * if the files can't be read or written.
+	 */
+	private void recover() throws IOException {
+		long snapshot = -1;
+		List<Long> logs = new ArrayList<Long>();
+
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+			for(Path file : files){
+				String name = file.getFileName().toString();
+
+				//left behind by a checkpoint that didn't finish
+				if(name.endsWith(TEMP))
+					Files.delete(file);
+				else if(name.startsWith(SNAPSHOT))
+					snapshot = Math.max(snapshot, generationOf(name, SNAPSHOT));
+				else if(name.startsWith(LOG))
+					logs.add(generationOf(name, LOG));
+			}
+		}
+
+		if(snapshot >= 0){
+			ArrayList<K> keys = new ArrayList<K>();
+			ArrayList<V> values = new ArrayList<V>();
+
+			try(InputStream in = Files.newInputStream(directory.resolve(SNAPSHOT + snapshot))){
+				Snapshot.read(in, keyCodec, valueCodec, keys, values);
+			}
+
+			tree.buildFromSorted(keys, values);
+		}
+
+		Collections.sort(logs);
+		generation = snapshot + 1;
+		long validBytes = 0;
+
+		for(int i = 0; i < logs.size(); i++){
+			long logGeneration = logs.get(i);
+
+			if(logGeneration <= snapshot)
+				continue;
+
+			boolean last = i == logs.size() - 1;
+			validBytes = replay(directory.resolve(LOG + logGeneration), last);
+			generation = logGeneration;
+		}
+
+		//drop a record torn by a crash, then append after the last whole record
+		log = openLog(generation);
+		log.truncate(validBytes);
+		log.position(validBytes);
+		logBytes = validBytes;
+
+		deleteOlder(snapshot);
+	}
+
+	/**
+	 * Applies the records of a log to the tree.
+	 *
+	 * @param file
+	 * The log.
+	 * @param last
+	 * true for the newest log, whose last record may have been torn by a crash.
+	 * @return
+	 * returns the number of bytes taken by whole records.
+	 * @throws IOException
+	 * if the log can't be read, or a log before the last one is damaged.
+	 */
+	private long replay(Path file, boolean last) throws IOException {
+		long size = Files.size(file);
+		long valid = 0;
+		CRC32C check = new CRC32C();
+
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))){
+			while(valid < size){
+				int length;
+				int checksum;
+				byte[] record;
+
+				try{
+					length = in.readInt();
+					checksum = in.readInt();
+
+					if(length < 1 || length > size - valid - RECORD_HEADER)
+						break;
+
+					record = new byte[length];
+					in.readFully(record);
+				}
+				catch(EOFException e){
+					break;
+				}
+
+				check.reset();
+				check.update(record, 0, length);
+				if((int) check.getValue() != checksum)
+					break;
+
+				DataInputStream data = new DataInputStream(new ByteArrayInputStream(record));
+				byte operation = data.readByte();
+				K key = keyCodec.read(data);
+
+				if(operation == ADD)
+					tree.add(key, valueCodec.read(data));
+				else if(operation == REMOVE)
+					tree.remove(key);
+				else
+					throw new IOException("Unknown operation " + operation + " in " + file);
+
+				valid += RECORD_HEADER + length;
+			}
+		}
+
+		if(valid < size && !last)
+			throw new IOException("Damaged record at byte " + valid + " of " + file + ", which isn't the newest log");
+
+		//a crash only tears the end of the log, whole records after the damage mean it is corrupt
+		if(valid < size && recordFollows(file, valid, size))
+			throw new IOException("Damaged record at byte " + valid + " of " + file + ", followed by whole records");
+
+		return valid;
+	}
+
+	/**
+	 * Checks if a whole record with a matching checksum starts anywhere
+	 * after the damaged record at the given position.
+	 *
+	 * @param file
+	 * The log.
+	 * @param damaged
+	 * Position of the damaged record.
+	 * @param size
+	 * Size of the log.
+	 * @return
+	 * returns true if a whole record follows the damage.
+	 * @throws IOException
+	 * if the log can't be read.
+	 */
+	private static boolean recordFollows(Path file, long damaged, long size) throws IOException {
+		if(size - damaged > Integer.MAX_VALUE)
+			throw new IOException("Damaged record at byte " + damaged + " of " + file + ", too far from the end to check");
+
+		ByteBuffer tail;
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			tail = channel.map(FileChannel.MapMode.READ_ONLY, damaged, size - damaged);
+		}
+
+		CRC32C check = new CRC32C();
+		int end = tail.limit();
+
+		for(int offset = 1; offset + RECORD_HEADER < end; offset++){
+			int length = tail.getInt(offset);
+			if(length < 1 || length > end - offset - RECORD_HEADER)
+				continue;
+
+			ByteBuffer record = tail.duplicate();
+			record.limit(offset + RECORD_HEADER + length).position(offset + RECORD_HEADER);
+			check.reset();
+			check.update(record);
+
+			if((int) check.getValue() == tail.getInt(offset + 4))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Opens a log for appending, creating it if needed.
+	 *
+	 * @param logGeneration
+	 * Number of the log.
+	 * @return
+	 * returns the open log.
+	 * @throws IOException
+	 * if the log can't be opened.
+	 */
+	private FileChannel openLog(long logGeneration) throws IOException {
+		Path file = directory.resolve(LOG + logGeneration);
+		boolean created = !Files.exists(file);
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+		channel.position(channel.size());
+		if(created)
+			syncDirectory();
+
+		return channel;
+	}
+
+	/**
+	 * Deletes the snapshots older than the one passed in, and the logs it holds.
+	 *
+	 * @param snapshot
+	 * Generation of the newest snapshot, -1 if there is none.
+	 * @throws IOException
+	 * if the directory can't be read.
+	 */
+	private void deleteOlder(long snapshot) throws IOException {
+		if(snapshot < 0)
+			return;
+
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+			for(Path file : files){
+				String name = file.getFileName().toString();
+
+				if(name.endsWith(TEMP))
+					continue;
+
+				if((name.startsWith(SNAPSHOT) && generationOf(name, SNAPSHOT) < snapshot) || (name.startsWith(LOG) && generationOf(name, LOG) <= snapshot))
+					Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	/**
+	 * Forces the directory itself to disk, so newly created and renamed files
+	 * survive a crash. Not every platform can open a directory, there it is skipped.
+	 */
+	private void syncDirectory(){
+		try(FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)){
+			channel.force(true);
+		}
+		catch(IOException e){
+		}
+	}
+
+	/**
+	 * Reads the generation out of a snapshot or log file name.
+	 *
+	 * @param name
+	 * The file name.
+	 * @param prefix
+	 * SNAPSHOT or LOG.
+	 * @return
+	 * returns the generation.
+	 * @throws IOException
+	 * if the name doesn't end in a number.
+	 */
+	private static long generationOf(String name, String prefix) throws IOException {
+		try{
+			return Long.parseLong(name.substring(prefix.length()));
+		}
+		catch(NumberFormatException e){
+			throw new IOException("Unexpected file in tree directory: " + name);
+		}
+	}
+}
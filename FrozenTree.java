@@ -0,0 +1,317 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Read-only array index frozen from a Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Immutable copy of a RedBlackTree laid out in arrays for reading, made by
+ * RedBlackTree.freeze() and turned back into a tree by thaw().
+ *
+ * The keys used for searching are stored in Eytzinger order, the order a
+ * breadth first walk of a perfectly balanced tree would visit them: the
+ * root at index 1 and the children of index i at 2i and 2i + 1. The top
+ * levels of the implicit tree sit next to each other at the front of the
+ * array and stay in cache, and a search moves to the next index with
+ * arithmetic on the sign of compareTo() instead of a branch. The keys and
+ * values are also kept in sorted order, with the sorted position of each
+ * Eytzinger slot, so a range scan finds its first key with one search and
+ * then reads the sorted arrays straight through.
+ *
+ * add and remove throw UnsupportedOperationException.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class FrozenTree<K extends Comparable<K>, V> implements Tree<K, V>, Iterable<Map.Entry<K, V>> {
+	//number of keys
+	private final int count;
+
+	//keys in Eytzinger order from index 1, index 0 is unused
+	private final K[] search;
+
+	//sorted position of the key at each Eytzinger index
+	private final int[] position;
+
+	//keys and values in ascending key order
+	private final K[] keys;
+	private final Object[] values;
+
+	/**
+	 * Copies the entries into a new index.
+	 * @param count
+	 * Number of entries the iterator will return.
+	 * @param entries
+	 * Entries in strictly ascending key order.
+	 */
+	@SuppressWarnings("unchecked")
+	FrozenTree(int count, Iterator<? extends Map.Entry<K, V>> entries){
+		this.count = count;
+
+		//K erases to Comparable, so a Comparable array can stand in for K[]
+		keys = (K[]) new Comparable<?>[count];
+		values = new Object[count];
+
+		for(int i = 0; i < count; i++){
+			Map.Entry<K, V> entry = entries.next();
+			keys[i] = entry.getKey();
+			values[i] = entry.getValue();
+		}
+
+		search = (K[]) new Comparable<?>[count + 1];
+		position = new int[count + 1];
+		layout(1, 0);
+	}
+
+	/**
+	 * Fills the Eytzinger arrays by walking the implicit tree in order, so
+	 * the sorted keys are handed out left to right.
+	 * @param index
+	 * Eytzinger index of the sub-tree's root.
+	 * @param next
+	 * Sorted position of the next key to place.
+	 * @return
+	 * returns the sorted position after the sub-tree.
+	 */
+	private int layout(int index, int next){
+		if(index > count)
+			return next;
+
+		next = layout(2 * index, next);
+		search[index] = keys[next];
+		position[index] = next;
+
+		return layout(2 * index + 1, next + 1);
+	}
+
+	/**
+	 * Always throws, a frozen tree can't be changed.
+	 */
+	public void add(K key, V value){
+		throw new UnsupportedOperationException("Frozen tree can't be changed, thaw() it first");
+	}
+
+	/**
+	 * Always throws, a frozen tree can't be changed.
+	 */
+	public V remove(K key){
+		throw new UnsupportedOperationException("Frozen tree can't be changed, thaw() it first");
+	}
+
+	/**
+	 * Returns the value of the key without changing anything.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key, or null if it isn't in the tree
+	 */
+	@SuppressWarnings("unchecked")
+	public V lookup(K key){
+		int index = lowerBound(key);
+
+		if(index == 0 || search[index].compareTo(key) != 0)
+			return null;
+
+		return (V) values[position[index]];
+	}
+
+	/**
+	 * Finds the smallest key at least the key.
+	 * @param key
+	 * Key being searched for.
+	 * @return
+	 * returns the key's Eytzinger index, or 0 if every key is smaller.
+	 */
+	private int lowerBound(K key){
+		K[] search = this.search;
+		int count = this.count;
+		int index = 1;
+
+		//go right when the key at the index is smaller, the sign bit of compareTo() is the step
+		while(index <= count)
+			index = 2 * index + (search[index].compareTo(key) >>> 31);
+
+		//undo the right turns taken after the last left turn, and that left turn
+		return index >>> (Integer.numberOfTrailingZeros(~index) + 1);
+	}
+
+	/**
+	 * Returns the sorted position of the smallest key at least the key.
+	 */
+	private int ceilingPosition(K key){
+		int index = lowerBound(key);
+
+		return index == 0 ? count : position[index];
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		return count;
+	}
+
+	/**
+	 * Returns an iterator over the entries in ascending key order.
+	 * @return
+	 * returns the ascending iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> iterator(){
+		return new EntryIterator(0, count);
+	}
+
+	/**
+	 * Returns an iterator over the entries with keys between lo and hi,
+	 * both inclusive, in ascending key order.
+	 * @param lo
+	 * Lowest key of the range.
+	 * @param hi
+	 * Highest key of the range.
+	 * @return
+	 * returns the range iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> range(K lo, K hi){
+		int from = ceilingPosition(lo);
+		int to = from;
+
+		while(to < count && keys[to].compareTo(hi) <= 0)
+			to++;
+
+		return new EntryIterator(from, to);
+	}
+
+	/**
+	 * Passes every key between lo and hi, both inclusive, and its value to
+	 * the action in ascending key order, without creating entries.
+	 * @param lo
+	 * Lowest key of the range.
+	 * @param hi
+	 * Highest key of the range.
+	 * @param action
+	 * Action run for each key and value.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(K lo, K hi, BiConsumer<? super K, ? super V> action){
+		for(int i = ceilingPosition(lo); i < count && keys[i].compareTo(hi) <= 0; i++)
+			action.accept(keys[i], (V) values[i]);
+	}
+
+	/**
+	 * Builds a new mutable tree holding the same entries, with its own null
+	 * leaves, in linear time.
+	 * @return
+	 * returns the new tree.
+	 */
+	public RedBlackTree<K, V> thaw(){
+		return thaw(false, false);
+	}
+
+	/**
+	 * Builds a new mutable tree holding the same entries in linear time.
+	 * @param sharedLeaves
+	 * true to use one shared sentinel for every null leaf.
+	 * @param orderStatistics
+	 * true to keep the number of keys in each sub-tree.
+	 * @return
+	 * returns the new tree.
+	 */
+	public RedBlackTree<K, V> thaw(boolean sharedLeaves, boolean orderStatistics){
+		RedBlackTree<K, V> tree = new RedBlackTree<K, V>(sharedLeaves, orderStatistics);
+
+		tree.buildFromSorted(iterator());
+
+		return tree;
+	}
+
+	/**
+	 * Print the implicit tree, one key per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString(){
+		StringBuilder str = new StringBuilder();
+
+		printNode(str, 1, 0);
+
+		return str.toString();
+	}
+
+	/**
+	 * Helper method for toPrettyString(), prints the right sub-tree,
+	 * then the node, then the left sub-tree, so the tree reads sideways.
+	 *
+	 * @param str
+	 * The builder the tree is printed to.
+	 * @param index
+	 * Eytzinger index of the node being printed.
+	 * @param depth
+	 * The depth of the node.
+	 */
+	private void printNode(StringBuilder str, int index, int depth){
+		if(index > count)
+			return;
+
+		printNode(str, 2 * index + 1, depth + 1);
+
+		for(int i = 0; i < depth; i++)
+			str.append("    ");
+		str.append(values[position[index]]).append('\n');
+
+		printNode(str, 2 * index, depth + 1);
+	}
+
+	/**
+	 * Iterator over a run of the sorted arrays.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+		private int next;
+		private final int end;
+
+		/**
+		 * Creates an iterator over the sorted positions from start up to,
+		 * but not including end.
+		 */
+		EntryIterator(int start, int end){
+			next = start;
+			this.end = end;
+		}
+
+		public boolean hasNext(){
+			return next < end;
+		}
+
+		@SuppressWarnings("unchecked")
+		public Map.Entry<K, V> next(){
+			if(next >= end)
+				throw new NoSuchElementException();
+
+			int i = next++;
+
+			return new AbstractMap.SimpleImmutableEntry<K, V>(keys[i], (V) values[i]);
+		}
+	}
+}
@@ -0,0 +1,679 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Self balancing Red-Black tree specialized for int keys
+ *
+ * Jacob Romero
+ *
+ */
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Red-Black tree with the same add, remove and lookup behavior as
+ * RedBlackTree, but the keys are stored as plain ints and compared
+ * with operators instead of being boxed and compared with compareTo.
+ * All null leaves point to a single shared black sentinel.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class IntRedBlackTree<V> {
+	public Node root = null;
+
+	//shared black sentinel used for every null leaf
+	private final Node nil = new Node(0, null, Colors.black, null);
+
+	/**
+	 *
+	 * Add the key, value pair into the tree, then balance it.
+	 * If the key is already in the tree its value is replaced.
+	 *
+	 * @param key
+	 * Key used to compare the the tree nodes to find the insert position.
+	 *
+	 * @param value
+	 * Value the Node will hold.
+	 */
+	public void add(int key, V value){
+		Node addNode = null;
+
+		//if tree is empty make new node the root.
+		if(root == null){
+			root = addNode = new Node(key, value, Colors.red, null);
+		}
+		else{
+			//walk down to the insertion position
+			Node current = root;
+			Node addPos = null;
+
+			while(current != nil){
+				addPos = current;
+
+				//key is already in the tree, only the value changes
+				if(key == current.key){
+					current.value = value;
+					return;
+				}
+
+				current = key < current.key ? current.leftChild : current.rightChild;
+			}
+
+			addNode = new Node(key, value, Colors.red, addPos);
+
+			//if the key is less it belongs in the left sub-tree
+			if(key < addPos.key){
+				addPos.leftChild = addNode;
+			}
+			//otherwise belongs in the right sub-tree
+			else{
+				addPos.rightChild = addNode;
+			}
+		}
+
+		//go through balance cases
+		addCase1(addNode);
+	}
+
+	/**
+	 * Case 1 of addition to a Red-Black tree
+	 * the parent is null, so the node is the root, color it black for
+	 * 2nd RBT invariant.
+	 *
+	 * @param node
+	 * The node that was added to the tree.
+	 */
+	private void addCase1(Node node){
+		//if node is root color black
+		if(node.parent == null){
+			node.color = Colors.black;
+		}
+		//otherwise check for case 2 of adding to a RBT
+		else{
+			addCase2(node);
+		}
+	}
+
+	/**
+	 * Case 2 of addition to a RBT
+	 * where if the nodes parent is black then RBT invariant 4 is maintained.
+	 *
+	 * @param node
+	 * Node that is being added to the tree.
+	 */
+	private void addCase2(Node node){
+		if(node.parent.color == Colors.black){
+			return;
+		}
+		//if invariant 4 is broken fix with case3
+		else{
+			addCase3(node);
+		}
+	}
+
+	/**
+	 * Case 3 of addition to a RBT
+	 * where if the uncle of the addition node is color red, along with add node's parent
+	 * in which case we color parent, and uncle black, and grand parent red to restore
+	 * invariant 4.
+	 *
+	 * @param node
+	 * Node that is being added to the tree.
+	 */
+	private void addCase3(Node node){
+		Node uncle = getUncle(node);
+
+		if(uncle != null && uncle.color == Colors.red){
+			node.parent.color = Colors.black;
+			uncle.color = Colors.black;
+
+			//get grandparent
+			Node grandParent = getGrandParent(node);
+			//re-color grandparent
+			grandParent.color = Colors.red;
+
+			//check to see if invariants are maintained on the grand parent
+			addCase1(grandParent);
+		}
+		//Check for case 4 if case 3 is not valid
+		else{
+			addCase4(node);
+		}
+	}
+
+	/**
+	 * Case 4 of adding to a RBT
+	 * if the node we are adding is an internal node, then we
+	 * rotate to make it external, and set up for case 5.
+	 *
+	 * @param node
+	 * The node we are adding to the RBT.
+	 */
+	private void addCase4(Node node){
+		Node grandParent = getGrandParent(node);
+
+		//if node we are adding is a left side internal node rotate left to make it an external node
+		if(node == node.parent.rightChild && node.parent == grandParent.leftChild){
+			leftRotate(node.parent);
+
+			node = node.leftChild;
+		}
+		//other wise it is external node on right side so right rotate
+		else if(node == node.parent.leftChild && node.parent == grandParent.rightChild){
+			rightRotate(node.parent);
+
+			node = node.rightChild;
+		}
+
+		//always go to case 5.
+		addCase5(node);
+	}
+
+	/**
+	 * Case 5 of adding to a RBT
+	 * the node we are adding has a parent that is red, and its uncle is black,
+	 * so we rotate the grandparent to balance the sub-tree.
+	 *
+	 * @param node
+	 * The node we are adding to the RBT.
+	 */
+	private void addCase5(Node node){
+		Node grandParent = getGrandParent(node);
+
+		node.parent.color = Colors.black;
+		grandParent.color = Colors.red;
+
+		//perform grandparent rotation to balance tree
+		if(node == node.parent.leftChild){
+			rightRotate(grandParent);
+		}
+		else{
+			leftRotate(grandParent);
+		}
+	}
+//END ADDING TO TREE METHODS
+
+	/**
+	 * Remove the node with the specified key from the tree.
+	 *
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 *
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	public V remove(int key) {
+		//find removal position
+		Node removeNode = findNode(key);
+
+		if(removeNode == null){
+			return null;
+		}
+
+		//value being returned
+		V returnVal = removeNode.value;
+		Node spliceNode = removeNode;
+
+		//if the node we are removing is not at the bottom we need to replace with in-order predecessor
+		if(removeNode.leftChild != nil && removeNode.rightChild != nil){
+			//copy predecessor values to the remove node, then remove the predecessor instead
+			spliceNode = getPred(removeNode.leftChild);
+			removeNode.key = spliceNode.key;
+			removeNode.value = spliceNode.value;
+		}
+
+		//the node being spliced out has at most one child, move it up to take its place
+		Node fixNode = spliceNode.leftChild == nil ? spliceNode.rightChild : spliceNode.leftChild;
+		replaceChild(spliceNode, fixNode);
+
+		//removing a red node keeps the RBT properties, otherwise go through case checks
+		if(spliceNode.color == Colors.black){
+			if(fixNode.color == Colors.red)
+				fixNode.color = Colors.black;
+			else
+				removeCase1(fixNode);
+		}
+
+		//if only the sentinel is left the tree is empty
+		if(root == nil){
+			root = null;
+		}
+
+		return returnVal;
+	}
+
+	/**
+	 * Puts the child in the place of the node being spliced out of the tree.
+	 * The child's parent is always set, even if it is the sentinel, so the
+	 * removal cases can find the sibling of a null leaf.
+	 *
+	 * @param node
+	 * The node being spliced out of the tree.
+	 * @param child
+	 * The child moving up into its position.
+	 */
+	private void replaceChild(Node node, Node child){
+		child.parent = node.parent;
+
+		if(node.parent == null){
+			root = child;
+		}
+		else if(node == node.parent.leftChild){
+			node.parent.leftChild = child;
+		}
+		else{
+			node.parent.rightChild = child;
+		}
+	}
+
+	/**
+	 * Case 1 of removing from RBT
+	 * if the remove node's parent isn't null, i.e. isn't the root
+	 * the go to case to otherwise make sure the root is black.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase1(Node node){
+		if(node.parent != null){
+			//go to case 2 if the node isn't the root
+			removeCase2(node);
+		}
+		else
+			node.color = Colors.black;
+	}
+
+	/**
+	 * Case 2 of removing from a RBT
+	 * if the sibling is red then we rotate to restore the invariant
+	 * 5.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase2(Node node){
+		Node sibling = getSibling(node);
+
+		if(sibling.color == Colors.red){
+			node.parent.color = Colors.red;
+			sibling.color = Colors.black;
+
+			if(node == node.parent.leftChild){
+				leftRotate(node.parent);
+			}
+			else{
+				rightRotate(node.parent);
+			}
+		}
+		//always go to case 3
+		removeCase3(node);
+	}
+
+	/**
+	 * Case 3 of removing from a RBT
+	 * If the all nodes around the node are black simply re-color the sibling node
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase3(Node node){
+		Node sibling = getSibling(node);
+
+		if(node.parent.color == Colors.black && sibling.color == Colors.black && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.black){
+			sibling.color = Colors.red;
+			removeCase1(node.parent);
+		}
+		else{
+			removeCase4(node);
+		}
+	}
+
+	/**
+	 * Case 4 of removing from a RBT
+	 * If the sibling of the removal node is black, exchange the color of the parent
+	 * and the sibling.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase4(Node node){
+		Node sibling = getSibling(node);
+
+		if(node.parent.color == Colors.red && sibling.color == Colors.black && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.black){
+			sibling.color = Colors.red;
+			node.parent.color = Colors.black;
+		}
+		else{
+			removeCase5(node);
+		}
+	}
+
+	/**
+	 * Case5 of removing from a RBT
+	 * If the sibling of the remove node is black
+	 * rotate the parent.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase5(Node node){
+		Node sibling = getSibling(node);
+
+		//check sibling's color
+		if(sibling.color == Colors.black){
+			//rotate based on the location of the node
+			if(node == node.parent.leftChild && sibling.rightChild.color == Colors.black && sibling.leftChild.color == Colors.red){
+				sibling.color = Colors.red;
+				sibling.leftChild.color = Colors.black;
+				rightRotate(sibling);
+			}
+			else if(node == node.parent.rightChild && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.red){
+				sibling.color = Colors.red;
+				sibling.rightChild.color = Colors.black;
+				leftRotate(sibling);
+			}
+		}
+		removeCase6(node);
+	}
+
+	/**
+	 * Case 6 of removing from RBT
+	 * If remove node's sibling is black and
+	 * the child of the sibling is red
+	 * we rotate the parent of the remove node
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase6(Node node){
+		Node sibling = getSibling(node);
+
+		sibling.color = node.parent.color;
+		node.parent.color = Colors.black;
+
+		if(node == node.parent.leftChild){
+			sibling.rightChild.color = Colors.black;
+			leftRotate(node.parent);
+		}
+		else{
+			sibling.leftChild.color = Colors.black;
+			rightRotate(node.parent);
+		}
+	}
+
+	/**
+	 * Get the in-order predecessor of the node we are removing
+	 * to replace that node.
+	 *
+	 * @param node
+	 * Node that we are getting the predecessor from
+	 * @return
+	 * returns the predecessor
+	 */
+	private Node getPred(Node node){
+		while(node.rightChild != nil)
+			node = node.rightChild;
+		return node;
+	}
+
+//END OF REMOVAL METHODS
+
+	/**
+	 * Left rotates the sub-tree of the node being
+	 * passed in.
+	 *
+	 * @param node
+	 * Node that will be rotated.
+	 * @return
+	 * returns the new sub-tree.
+	 */
+	private Node leftRotate(Node node){
+		//create temporary fields for replacement later
+		Node newRoot = node.rightChild;
+
+		//move the inner sub-tree of the new root over to the old root
+		node.rightChild = newRoot.leftChild;
+		if(node.rightChild != nil)
+			node.rightChild.parent = node;
+
+		//replace the old parent's link with the newRoot
+		newRoot.parent = node.parent;
+		if(node.parent == null){
+			root = newRoot;
+		}
+		else if(node.parent.leftChild == node){
+			node.parent.leftChild = newRoot;
+		}
+		else{
+			node.parent.rightChild = newRoot;
+		}
+
+		//old root becomes the left child of the newRoot
+		newRoot.leftChild = node;
+		node.parent = newRoot;
+
+		return newRoot;
+	}
+
+	/**
+	 * Right rotates the sub-tree of the node being
+	 * passed in.
+	 *
+	 * @param node
+	 * Node that will be rotated.
+	 * @return
+	 * returns the new sub-tree.
+	 */
+	private Node rightRotate(Node node){
+		//create temporary fields for replacement later
+		Node newRoot = node.leftChild;
+
+		//move the inner sub-tree of the new root over to the old root
+		node.leftChild = newRoot.rightChild;
+		if(node.leftChild != nil)
+			node.leftChild.parent = node;
+
+		//replace the parents link with the newRoot
+		newRoot.parent = node.parent;
+		if(node.parent == null){
+			root = newRoot;
+		}
+		else if(node.parent.leftChild == node){
+			node.parent.leftChild = newRoot;
+		}
+		else{
+			node.parent.rightChild = newRoot;
+		}
+
+		//old root becomes the right child of the newRoot
+		newRoot.rightChild = node;
+		node.parent = newRoot;
+
+		return newRoot;
+	}
+
+	/**
+	 * Returns the sibling of the node that is passed in.
+	 * @param node
+	 * Node we are finding the sibling from.
+	 * @return
+	 * Returns the sibling of the node.
+	 */
+	private Node getSibling(Node node){
+		if(node == node.parent.leftChild){
+			return node.parent.rightChild;
+		}
+		else{
+			return node.parent.leftChild;
+		}
+	}
+
+	/**
+	 * Returns the grandparent of the node that is passed in.
+	 * @param node
+	 * Node we are finding the grandparent from.
+	 * @return
+	 * Returns the grandparent of the node.
+	 */
+	private Node getGrandParent(Node node){
+		if(node != null && node.parent != null)
+			return node.parent.parent;
+		else
+			return null;
+	}
+
+	/**
+	 * Returns the uncle of the node that is passed in.
+	 * @param node
+	 * Node we are finding the uncle from.
+	 * @return
+	 * Returns the uncle of the node.
+	 */
+	private Node getUncle(Node node){
+		Node grandParent = getGrandParent(node);
+
+		if(grandParent == null)
+			return null;
+
+		if(node.parent == grandParent.leftChild)
+			return grandParent.rightChild;
+		else
+			return grandParent.leftChild;
+	}
+
+	/**
+	 * Returns, but doesn't remove the node with the
+	 * key that is passed in to the method.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key with the node that is passed
+	 */
+	public V lookup(int key) {
+		Node node = findNode(key);
+
+		if(node == null)
+			return null;
+		else
+			return node.value;
+	}
+
+	/**
+	 * method that does the heavy lifting of finding the node based on a key,
+	 * walking down from the root with one comparison per level.
+	 * @param key
+	 * Key we want to find with the node that owns that key
+	 * @return
+	 * Returns the node with the key we wanted to find, or null if it isn't in the tree
+	 */
+	private Node findNode(int key){
+		if(root == null)
+			return null;
+
+		Node current = root;
+
+		while(current != nil){
+			if(key == current.key)
+				return current;
+
+			current = key < current.key ? current.leftChild : current.rightChild;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Print the tree, one node per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString() {
+		StringBuilder str = new StringBuilder();
+
+		if(root != null)
+			printNode(str, root, 0);
+
+		return str.toString();
+	}
+
+	/**
+	 * Helper method for toPrettyString(), prints the right sub-tree,
+	 * then the node, then the left sub-tree, so the tree reads sideways.
+	 *
+	 * @param str
+	 * The builder the tree is printed to.
+	 * @param node
+	 * The node being printed.
+	 * @param depth
+	 * The depth of the node.
+	 */
+	private void printNode(StringBuilder str, Node node, int depth){
+		if(node == nil)
+			return;
+
+		printNode(str, node.rightChild, depth + 1);
+
+		for(int i = 0; i < depth; i++)
+			str.append("    ");
+		str.append(node.key).append(" - ").append(node.color).append('\n');
+
+		printNode(str, node.leftChild, depth + 1);
+	}
+
+	/**
+	 * Enum for the two colors a node can possible have
+	 * @author Jacob Romero
+	 *
+	 */
+	private enum Colors{
+		black,
+		red;
+	}
+
+	/**
+	 * Inner class for tree nodes.
+	 *
+	 * Fields include:
+	 * 	-color
+	 * 	-leftChild
+	 *	-rightChild
+	 *	-parent
+	 *	-key
+	 *	-value
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	class Node{
+		Colors color;
+		Node leftChild = nil;
+		Node rightChild = nil;
+		Node parent;
+		int key;
+		V value;
+
+		/**
+		 * Node that allows you to specify the color and the parent of the
+		 * node being created. Both children start as the sentinel.
+		 * @param addKey
+		 * Key the node will have.
+		 * @param addVal
+		 * Value the node will have.
+		 * @param addCol
+		 * Color the node will be.
+		 * @param addParent
+		 * Parent of the node.
+		 */
+		private Node(int addKey, V addVal, Colors addCol, Node addParent) {
+			key = addKey;
+			value = addVal;
+			color = addCol;
+			parent = addParent;
+		}
+	}
+
+}
@@ -0,0 +1,1002 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Self balancing Red-Black tree kept in a memory-mapped file
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Red-Black tree with long keys and values that lives in a file instead of
+ * on the heap. Every node is a fixed-size 32 byte record holding the same
+ * fields as RedBlackTree.Node, with the links stored as record numbers:
+ *
+ * 	-key, 8 bytes
+ * 	-value, 8 bytes
+ * 	-leftChild, rightChild and parent, 4 bytes each
+ * 	-color, 4 bytes
+ *
+ * The file is mapped into memory in segments of up to 1GB, so a lookup only
+ * touches the pages on its search path and the operating system's page cache
+ * decides what stays in memory. A 64 byte header in front of the records holds
+ * the root, the free list and the number of keys, so opening an existing file
+ * only has to map it. Record 0 is the shared black null leaf, and records
+ * released by remove are linked through their left child and handed out
+ * again by add, the same way as in ArrayRedBlackTree.
+ *
+ * Changes are written to the mapping and reach the disk whenever the
+ * operating system writes the pages back, or when force() or close() is
+ * called. A crash in the middle of an add or remove can leave the file
+ * inconsistent.
+ */
+public class MappedRedBlackTree implements Closeable {
+	//"RBTMAP01" at the start of every file
+	private static final long MAGIC = 0x5242544D41503031L;
+	private static final int VERSION = 1;
+
+	//record number of the shared null leaf
+	private static final int NIL = 0;
+
+	private static final int RED = 1;
+	private static final int BLACK = 0;
+
+	//header fields
+	private static final int HEADER_SIZE = 64;
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_VERSION = 8;
+	private static final int HEADER_RECORD_SIZE = 12;
+	private static final int HEADER_ROOT = 16;
+	private static final int HEADER_NEXT_SLOT = 20;
+	private static final int HEADER_FREE_SLOT = 24;
+	private static final int HEADER_COUNT = 28;
+
+	//record fields
+	private static final int RECORD_SIZE = 32;
+	private static final int KEY = 0;
+	private static final int VALUE = 8;
+	private static final int LEFT = 16;
+	private static final int RIGHT = 20;
+	private static final int PARENT = 24;
+	private static final int COLOR = 28;
+
+	//segments are a multiple of the record size, so no record is ever split between two
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+	private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	//a new file starts with room for 1024 records
+	private static final long INITIAL_LENGTH = HEADER_SIZE + 1024L * RECORD_SIZE;
+
+	private final FileChannel channel;
+	private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+	//length of the file that is mapped
+	private long length;
+
+	//copies of the header fields, written through on every change
+	private int root;
+	private int nextSlot;
+	private int freeSlot;
+	private int count;
+
+	/**
+	 * Opens the tree stored in the file, or creates an empty one if the
+	 * file doesn't exist or is empty.
+	 *
+	 * @param file
+	 * The file holding the tree.
+	 * @throws IOException
+	 * if the file can't be opened, or doesn't hold a tree.
+	 */
+	public MappedRedBlackTree(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+
+		try{
+			long size = channel.size();
+
+			if(size == 0){
+				map(INITIAL_LENGTH);
+
+				segments[0].putLong(HEADER_MAGIC, MAGIC);
+				segments[0].putInt(HEADER_VERSION, VERSION);
+				segments[0].putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+
+				root = NIL;
+				nextSlot = 1;
+				freeSlot = NIL;
+				count = 0;
+				writeHeader();
+			}
+			else{
+				if(size < HEADER_SIZE + RECORD_SIZE)
+					throw new IOException("File is too short to hold a tree: " + file);
+
+				map(size);
+
+				if(segments[0].getLong(HEADER_MAGIC) != MAGIC)
+					throw new IOException("Not a tree file: " + file);
+				if(segments[0].getInt(HEADER_VERSION) != VERSION)
+					throw new IOException("Unsupported tree file version " + segments[0].getInt(HEADER_VERSION));
+				if(segments[0].getInt(HEADER_RECORD_SIZE) != RECORD_SIZE)
+					throw new IOException("Unsupported record size " + segments[0].getInt(HEADER_RECORD_SIZE));
+
+				root = segments[0].getInt(HEADER_ROOT);
+				nextSlot = segments[0].getInt(HEADER_NEXT_SLOT);
+				freeSlot = segments[0].getInt(HEADER_FREE_SLOT);
+				count = segments[0].getInt(HEADER_COUNT);
+
+				if(nextSlot < 1 || nextSlot > capacity() || root < 0 || root >= nextSlot || freeSlot < 0 || freeSlot >= nextSlot)
+					throw new IOException("Corrupt tree file header: " + file);
+			}
+		}
+		catch(IOException | RuntimeException e){
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 *
+	 * Add the key, value pair into the tree, then balance it.
+	 * If the key is already in the tree its value is replaced.
+	 *
+	 * @param key
+	 * Key used to compare the the tree nodes to find the insert position.
+	 *
+	 * @param value
+	 * Value the Node will hold.
+	 */
+	public void add(long key, long value){
+		//walk down to the insertion position
+		int current = root;
+		int addPos = NIL;
+		long currentKey = 0;
+
+		while(current != NIL){
+			addPos = current;
+			currentKey = key(current);
+
+			//key is already in the tree, only the value changes
+			if(key == currentKey){
+				setLong(current, VALUE, value);
+				return;
+			}
+
+			current = key < currentKey ? left(current) : right(current);
+		}
+
+		int addNode = newSlot(key, value, addPos);
+
+		//if tree is empty make new node the root.
+		if(addPos == NIL){
+			setRoot(addNode);
+		}
+		//if the key is less it belongs in the left sub-tree
+		else if(key < currentKey){
+			setLeft(addPos, addNode);
+		}
+		//otherwise belongs in the right sub-tree
+		else{
+			setRight(addPos, addNode);
+		}
+
+		count++;
+		segments[0].putInt(HEADER_COUNT, count);
+
+		//go through balance cases
+		addCase1(addNode);
+	}
+
+	/**
+	 * Takes a record from the free list, or the next unused record, and
+	 * fills it in as a red node with two null leaves.
+	 *
+	 * @param key
+	 * Key the node will have.
+	 * @param value
+	 * Value the node will have.
+	 * @param addParent
+	 * Parent of the node.
+	 * @return
+	 * returns the record number of the new node.
+	 */
+	private int newSlot(long key, long value, int addParent){
+		int slot;
+
+		if(freeSlot != NIL){
+			slot = freeSlot;
+			freeSlot = left(slot);
+		}
+		else{
+			if(nextSlot == capacity())
+				grow();
+			slot = nextSlot++;
+		}
+
+		setLong(slot, KEY, key);
+		setLong(slot, VALUE, value);
+		setLeft(slot, NIL);
+		setRight(slot, NIL);
+		setParent(slot, addParent);
+		setColor(slot, RED);
+
+		segments[0].putInt(HEADER_NEXT_SLOT, nextSlot);
+		segments[0].putInt(HEADER_FREE_SLOT, freeSlot);
+
+		return slot;
+	}
+
+	/**
+	 * Makes the file longer, doubling the number of records it can hold
+	 * until it is a segment long, then adding a segment at a time.
+	 */
+	private void grow(){
+		long records = capacity();
+		long newRecords = Math.min(Integer.MAX_VALUE, records + Math.min(records, SEGMENT_SIZE / RECORD_SIZE));
+
+		if(newRecords == records)
+			throw new IllegalStateException("Tree file can't hold more than " + records + " records");
+
+		try{
+			map(HEADER_SIZE + newRecords * RECORD_SIZE);
+		}
+		catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Maps the file up to the new length, extending the file if it is shorter.
+	 * Only the last segment that was mapped and the new segments are remapped.
+	 *
+	 * @param newLength
+	 * Length of the file to map.
+	 * @throws IOException
+	 * if the file can't be mapped.
+	 */
+	private void map(long newLength) throws IOException {
+		int segmentCount = (int) ((newLength + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		MappedByteBuffer[] mapped = Arrays.copyOf(segments, segmentCount);
+
+		for(int i = Math.max(0, segments.length - 1); i < segmentCount; i++){
+			long start = (long) i << SEGMENT_SHIFT;
+			mapped[i] = channel.map(MapMode.READ_WRITE, start, Math.min(SEGMENT_SIZE, newLength - start));
+		}
+
+		segments = mapped;
+		length = newLength;
+	}
+
+	/**
+	 * Returns the number of records the mapped part of the file can hold.
+	 * @return
+	 * the number of records, including the null leaf.
+	 */
+	private int capacity(){
+		return (int) Math.min(Integer.MAX_VALUE, (length - HEADER_SIZE) / RECORD_SIZE);
+	}
+
+	/**
+	 * Case 1 of addition to a Red-Black tree
+	 * the parent is null, so the node is the root, color it black for
+	 * 2nd RBT invariant.
+	 *
+	 * @param node
+	 * The node that was added to the tree.
+	 */
+	private void addCase1(int node){
+		//if node is root color black
+		if(parent(node) == NIL){
+			setColor(node, BLACK);
+		}
+		//otherwise check for case 2 of adding to a RBT
+		else{
+			addCase2(node);
+		}
+	}
+
+	/**
+	 * Case 2 of addition to a RBT
+	 * where if the nodes parent is black then RBT invariant 4 is maintained.
+	 *
+	 * @param node
+	 * Node that is being added to the tree.
+	 */
+	private void addCase2(int node){
+		if(color(parent(node)) == BLACK){
+			return;
+		}
+		//if invariant 4 is broken fix with case3
+		else{
+			addCase3(node);
+		}
+	}
+
+	/**
+	 * Case 3 of addition to a RBT
+	 * where if the uncle of the addition node is color red, along with add node's parent
+	 * in which case we color parent, and uncle black, and grand parent red to restore
+	 * invariant 4.
+	 *
+	 * @param node
+	 * Node that is being added to the tree.
+	 */
+	private void addCase3(int node){
+		int uncle = getUncle(node);
+
+		if(color(uncle) == RED){
+			setColor(parent(node), BLACK);
+			setColor(uncle, BLACK);
+
+			//get grandparent
+			int grandParent = parent(parent(node));
+			//re-color grandparent
+			setColor(grandParent, RED);
+
+			//check to see if invariants are maintained on the grand parent
+			addCase1(grandParent);
+		}
+		//Check for case 4 if case 3 is not valid
+		else{
+			addCase4(node);
+		}
+	}
+
+	/**
+	 * Case 4 of adding to a RBT
+	 * if the node we are adding is an internal node, then we
+	 * rotate to make it external, and set up for case 5.
+	 *
+	 * @param node
+	 * The node we are adding to the RBT.
+	 */
+	private void addCase4(int node){
+		int nodeParent = parent(node);
+		int grandParent = parent(nodeParent);
+
+		//if node we are adding is a left side internal node rotate left to make it an external node
+		if(node == right(nodeParent) && nodeParent == left(grandParent)){
+			leftRotate(nodeParent);
+
+			node = left(node);
+		}
+		//other wise it is external node on right side so right rotate
+		else if(node == left(nodeParent) && nodeParent == right(grandParent)){
+			rightRotate(nodeParent);
+
+			node = right(node);
+		}
+
+		//always go to case 5.
+		addCase5(node);
+	}
+
+	/**
+	 * Case 5 of adding to a RBT
+	 * the node we are adding has a parent that is red, and its uncle is black,
+	 * so we rotate the grandparent to balance the sub-tree.
+	 *
+	 * @param node
+	 * The node we are adding to the RBT.
+	 */
+	private void addCase5(int node){
+		int nodeParent = parent(node);
+		int grandParent = parent(nodeParent);
+
+		setColor(nodeParent, BLACK);
+		setColor(grandParent, RED);
+
+		//perform grandparent rotation to balance tree
+		if(node == left(nodeParent)){
+			rightRotate(grandParent);
+		}
+		else{
+			leftRotate(grandParent);
+		}
+	}
+//END ADDING TO TREE METHODS
+
+	/**
+	 * Remove the node with the specified key from the tree.
+	 *
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 *
+	 * @return
+	 * returns true if the key was in the tree and removed.
+	 */
+	public boolean remove(long key) {
+		//find removal position
+		int removeNode = findNode(key);
+
+		if(removeNode == NIL){
+			return false;
+		}
+
+		int spliceNode = removeNode;
+
+		//if the node we are removing is not at the bottom we need to replace with in-order predecessor
+		if(left(removeNode) != NIL && right(removeNode) != NIL){
+			//copy predecessor values to the remove node, then remove the predecessor instead
+			spliceNode = getPred(left(removeNode));
+			setLong(removeNode, KEY, key(spliceNode));
+			setLong(removeNode, VALUE, value(spliceNode));
+		}
+
+		//the node being spliced out has at most one child, move it up to take its place
+		int fixNode = left(spliceNode) == NIL ? right(spliceNode) : left(spliceNode);
+		replaceChild(spliceNode, fixNode);
+
+		//removing a red node keeps the RBT properties, otherwise go through case checks
+		if(color(spliceNode) == BLACK){
+			if(color(fixNode) == RED)
+				setColor(fixNode, BLACK);
+			else
+				removeCase1(fixNode);
+		}
+
+		releaseSlot(spliceNode);
+		count--;
+		segments[0].putInt(HEADER_COUNT, count);
+
+		return true;
+	}
+
+	/**
+	 * Puts a record that is no longer in the tree on the free list.
+	 *
+	 * @param slot
+	 * Record number of the node that was spliced out of the tree.
+	 */
+	private void releaseSlot(int slot){
+		setLeft(slot, freeSlot);
+		freeSlot = slot;
+		segments[0].putInt(HEADER_FREE_SLOT, freeSlot);
+	}
+
+	/**
+	 * Puts the child in the place of the node being spliced out of the tree.
+	 * The child's parent is always set, even if it is the null leaf, so the
+	 * removal cases can find the sibling of a null leaf.
+	 *
+	 * @param node
+	 * The node being spliced out of the tree.
+	 * @param child
+	 * The child moving up into its position.
+	 */
+	private void replaceChild(int node, int child){
+		int nodeParent = parent(node);
+		setParent(child, nodeParent);
+
+		if(nodeParent == NIL){
+			setRoot(child);
+		}
+		else if(node == left(nodeParent)){
+			setLeft(nodeParent, child);
+		}
+		else{
+			setRight(nodeParent, child);
+		}
+	}
+
+	/**
+	 * Case 1 of removing from RBT
+	 * if the remove node's parent isn't null, i.e. isn't the root
+	 * the go to case to otherwise make sure the root is black.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase1(int node){
+		if(parent(node) != NIL){
+			//go to case 2 if the node isn't the root
+			removeCase2(node);
+		}
+		else
+			setColor(node, BLACK);
+	}
+
+	/**
+	 * Case 2 of removing from a RBT
+	 * if the sibling is red then we rotate to restore the invariant
+	 * 5.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase2(int node){
+		int sibling = getSibling(node);
+
+		if(color(sibling) == RED){
+			setColor(parent(node), RED);
+			setColor(sibling, BLACK);
+
+			if(node == left(parent(node))){
+				leftRotate(parent(node));
+			}
+			else{
+				rightRotate(parent(node));
+			}
+		}
+		//always go to case 3
+		removeCase3(node);
+	}
+
+	/**
+	 * Case 3 of removing from a RBT
+	 * If the all nodes around the node are black simply re-color the sibling node
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase3(int node){
+		int sibling = getSibling(node);
+
+		if(color(parent(node)) == BLACK && color(sibling) == BLACK && color(left(sibling)) == BLACK && color(right(sibling)) == BLACK){
+			setColor(sibling, RED);
+			removeCase1(parent(node));
+		}
+		else{
+			removeCase4(node);
+		}
+	}
+
+	/**
+	 * Case 4 of removing from a RBT
+	 * If the sibling of the removal node is black, exchange the color of the parent
+	 * and the sibling.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase4(int node){
+		int sibling = getSibling(node);
+
+		if(color(parent(node)) == RED && color(sibling) == BLACK && color(left(sibling)) == BLACK && color(right(sibling)) == BLACK){
+			setColor(sibling, RED);
+			setColor(parent(node), BLACK);
+		}
+		else{
+			removeCase5(node);
+		}
+	}
+
+	/**
+	 * Case5 of removing from a RBT
+	 * If the sibling of the remove node is black
+	 * rotate the parent.
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase5(int node){
+		int sibling = getSibling(node);
+
+		//check sibling's color
+		if(color(sibling) == BLACK){
+			//rotate based on the location of the node
+			if(node == left(parent(node)) && color(right(sibling)) == BLACK && color(left(sibling)) == RED){
+				setColor(sibling, RED);
+				setColor(left(sibling), BLACK);
+				rightRotate(sibling);
+			}
+			else if(node == right(parent(node)) && color(left(sibling)) == BLACK && color(right(sibling)) == RED){
+				setColor(sibling, RED);
+				setColor(right(sibling), BLACK);
+				leftRotate(sibling);
+			}
+		}
+		removeCase6(node);
+	}
+
+	/**
+	 * Case 6 of removing from RBT
+	 * If remove node's sibling is black and
+	 * the child of the sibling is red
+	 * we rotate the parent of the remove node
+	 *
+	 * @param node
+	 * The node being removed from the RBT.
+	 */
+	private void removeCase6(int node){
+		int sibling = getSibling(node);
+		int nodeParent = parent(node);
+
+		setColor(sibling, color(nodeParent));
+		setColor(nodeParent, BLACK);
+
+		if(node == left(nodeParent)){
+			setColor(right(sibling), BLACK);
+			leftRotate(nodeParent);
+		}
+		else{
+			setColor(left(sibling), BLACK);
+			rightRotate(nodeParent);
+		}
+	}
+
+	/**
+	 * Get the in-order predecessor of the node we are removing
+	 * to replace that node.
+	 *
+	 * @param node
+	 * Node that we are getting the predecessor from
+	 * @return
+	 * returns the predecessor
+	 */
+	private int getPred(int node){
+		while(right(node) != NIL)
+			node = right(node);
+		return node;
+	}
+
+//END OF REMOVAL METHODS
+
+	/**
+	 * Left rotates the sub-tree of the node being
+	 * passed in.
+	 *
+	 * @param node
+	 * Node that will be rotated.
+	 * @return
+	 * returns the new sub-tree.
+	 */
+	private int leftRotate(int node){
+		//create temporary fields for replacement later
+		int newRoot = right(node);
+		int nodeParent = parent(node);
+		int inner = left(newRoot);
+
+		//move the inner sub-tree of the new root over to the old root
+		setRight(node, inner);
+		if(inner != NIL)
+			setParent(inner, node);
+
+		//replace the old parent's link with the newRoot
+		setParent(newRoot, nodeParent);
+		if(nodeParent == NIL){
+			setRoot(newRoot);
+		}
+		else if(left(nodeParent) == node){
+			setLeft(nodeParent, newRoot);
+		}
+		else{
+			setRight(nodeParent, newRoot);
+		}
+
+		//old root becomes the left child of the newRoot
+		setLeft(newRoot, node);
+		setParent(node, newRoot);
+
+		return newRoot;
+	}
+
+	/**
+	 * Right rotates the sub-tree of the node being
+	 * passed in.
+	 *
+	 * @param node
+	 * Node that will be rotated.
+	 * @return
+	 * returns the new sub-tree.
+	 */
+	private int rightRotate(int node){
+		//create temporary fields for replacement later
+		int newRoot = left(node);
+		int nodeParent = parent(node);
+		int inner = right(newRoot);
+
+		//move the inner sub-tree of the new root over to the old root
+		setLeft(node, inner);
+		if(inner != NIL)
+			setParent(inner, node);
+
+		//replace the parents link with the newRoot
+		setParent(newRoot, nodeParent);
+		if(nodeParent == NIL){
+			setRoot(newRoot);
+		}
+		else if(left(nodeParent) == node){
+			setLeft(nodeParent, newRoot);
+		}
+		else{
+			setRight(nodeParent, newRoot);
+		}
+
+		//old root becomes the right child of the newRoot
+		setRight(newRoot, node);
+		setParent(node, newRoot);
+
+		return newRoot;
+	}
+
+	/**
+	 * Returns the sibling of the node that is passed in.
+	 * @param node
+	 * Node we are finding the sibling from.
+	 * @return
+	 * Returns the sibling of the node.
+	 */
+	private int getSibling(int node){
+		int nodeParent = parent(node);
+
+		if(node == left(nodeParent)){
+			return right(nodeParent);
+		}
+		else{
+			return left(nodeParent);
+		}
+	}
+
+	/**
+	 * Returns the uncle of the node that is passed in.
+	 * @param node
+	 * Node we are finding the uncle from.
+	 * @return
+	 * Returns the uncle of the node.
+	 */
+	private int getUncle(int node){
+		int nodeParent = parent(node);
+		int grandParent = parent(nodeParent);
+
+		if(grandParent == NIL)
+			return NIL;
+
+		if(nodeParent == left(grandParent))
+			return right(grandParent);
+		else
+			return left(grandParent);
+	}
+
+	/**
+	 * Returns, but doesn't remove the value of the key.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @param missing
+	 * Value returned if the key isn't in the tree.
+	 * @return
+	 * Returns the value of the key, or missing if it isn't in the tree
+	 */
+	public long lookup(long key, long missing) {
+		int node = findNode(key);
+
+		return node == NIL ? missing : value(node);
+	}
+
+	/**
+	 * Checks if the key is in the tree.
+	 * @param key
+	 * The key being searched for.
+	 * @return
+	 * returns true if the key is in the tree.
+	 */
+	public boolean contains(long key){
+		return findNode(key) != NIL;
+	}
+
+	/**
+	 * method that does the heavy lifting of finding the node based on a key,
+	 * walking down from the root.
+	 * @param key
+	 * Key we want to find with the node that owns that key
+	 * @return
+	 * Returns the record number of the node with the key, or NIL if it isn't in the tree
+	 */
+	private int findNode(long key){
+		int current = root;
+
+		while(current != NIL){
+			long currentKey = key(current);
+
+			if(key == currentKey)
+				return current;
+
+			current = key < currentKey ? left(current) : right(current);
+		}
+
+		return NIL;
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		return count;
+	}
+
+	/**
+	 * Writes every change made so far to the disk.
+	 */
+	public void force(){
+		for(MappedByteBuffer segment : segments)
+			segment.force();
+	}
+
+	/**
+	 * Writes every change to the disk and closes the file. The tree can't
+	 * be used afterwards.
+	 *
+	 * @throws IOException
+	 * if the file can't be closed.
+	 */
+	public void close() throws IOException {
+		force();
+		segments = new MappedByteBuffer[0];
+		channel.close();
+	}
+
+	/**
+	 * Print the tree, one node per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString() {
+		StringBuilder str = new StringBuilder();
+
+		printNode(str, root, 0);
+
+		return str.toString();
+	}
+
+	/**
+	 * Helper method for toPrettyString(), prints the right sub-tree,
+	 * then the node, then the left sub-tree, so the tree reads sideways.
+	 *
+	 * @param str
+	 * The builder the tree is printed to.
+	 * @param node
+	 * The node being printed.
+	 * @param depth
+	 * The depth of the node.
+	 */
+	private void printNode(StringBuilder str, int node, int depth){
+		if(node == NIL)
+			return;
+
+		printNode(str, right(node), depth + 1);
+
+		for(int i = 0; i < depth; i++)
+			str.append("    ");
+		str.append(value(node)).append(" - ").append(color(node) == RED ? "red" : "black").append('\n');
+
+		printNode(str, left(node), depth + 1);
+	}
+
+	/**
+	 * Makes the node the root, in memory and in the header.
+	 * @param node
+	 * Record number of the new root.
+	 */
+	private void setRoot(int node){
+		root = node;
+		segments[0].putInt(HEADER_ROOT, node);
+	}
+
+	/**
+	 * Writes all the header fields that change.
+	 */
+	private void writeHeader(){
+		segments[0].putInt(HEADER_ROOT, root);
+		segments[0].putInt(HEADER_NEXT_SLOT, nextSlot);
+		segments[0].putInt(HEADER_FREE_SLOT, freeSlot);
+		segments[0].putInt(HEADER_COUNT, count);
+	}
+
+	//record field accessors
+
+	private long key(int node){
+		return getLong(node, KEY);
+	}
+
+	private long value(int node){
+		return getLong(node, VALUE);
+	}
+
+	private int left(int node){
+		return getInt(node, LEFT);
+	}
+
+	private int right(int node){
+		return getInt(node, RIGHT);
+	}
+
+	private int parent(int node){
+		return getInt(node, PARENT);
+	}
+
+	private int color(int node){
+		return getInt(node, COLOR);
+	}
+
+	private void setLeft(int node, int child){
+		setInt(node, LEFT, child);
+	}
+
+	private void setRight(int node, int child){
+		setInt(node, RIGHT, child);
+	}
+
+	private void setParent(int node, int nodeParent){
+		setInt(node, PARENT, nodeParent);
+	}
+
+	private void setColor(int node, int nodeColor){
+		setInt(node, COLOR, nodeColor);
+	}
+
+	/**
+	 * Reads a long field of a record from the segment holding it.
+	 * @param node
+	 * Record number.
+	 * @param field
+	 * Offset of the field in the record.
+	 * @return
+	 * the value of the field.
+	 */
+	private long getLong(int node, int field){
+		long position = HEADER_SIZE + (long) node * RECORD_SIZE + field;
+		return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Reads an int field of a record from the segment holding it.
+	 * @param node
+	 * Record number.
+	 * @param field
+	 * Offset of the field in the record.
+	 * @return
+	 * the value of the field.
+	 */
+	private int getInt(int node, int field){
+		long position = HEADER_SIZE + (long) node * RECORD_SIZE + field;
+		return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Writes a long field of a record.
+	 * @param node
+	 * Record number.
+	 * @param field
+	 * Offset of the field in the record.
+	 * @param value
+	 * New value of the field.
+	 */
+	private void setLong(int node, int field, long value){
+		long position = HEADER_SIZE + (long) node * RECORD_SIZE + field;
+		segments[(int) (position >>> SEGMENT_SHIFT)].putLong((int) (position & SEGMENT_MASK), value);
+	}
+
+	/**
+	 * Writes an int field of a record.
+	 * @param node
+	 * Record number.
+	 * @param field
+	 * Offset of the field in the record.
+	 * @param value
+	 * New value of the field.
+	 */
+	private void setInt(int node, int field, int value){
+		long position = HEADER_SIZE + (long) node * RECORD_SIZE + field;
+		segments[(int) (position >>> SEGMENT_SHIFT)].putInt((int) (position & SEGMENT_MASK), value);
+	}
+}
@@ -0,0 +1,578 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Persistent, path-copying Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Red-Black tree whose nodes are never changed once they are created.
+ * add and remove copy only the nodes on the path to the key and share
+ * every untouched sub-tree with the previous version, so snapshot() can
+ * hand out the current version in O(1) time. Readers of a snapshot, or of
+ * the live tree, never take a lock, while writers are serialized.
+ *
+ * The balancing follows Okasaki's insert and Kahrs' delete for
+ * functional Red-Black trees.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class PersistentRedBlackTree<K extends Comparable<K>, V> implements Tree<K, V>, Iterable<Map.Entry<K, V>> {
+	//current version, replaced as a whole by every write
+	private volatile Node<K, V> root;
+
+	/**
+	 * Creates an empty tree.
+	 */
+	public PersistentRedBlackTree(){
+		this(null);
+	}
+
+	/**
+	 * Creates a tree sharing the nodes of another version.
+	 * @param root
+	 * Root of the version, null for an empty tree.
+	 */
+	private PersistentRedBlackTree(Node<K, V> root){
+		this.root = root;
+	}
+
+	/**
+	 * Returns the current version of the tree. The snapshot never sees later
+	 * changes to this tree, and changes made to the snapshot copy their own
+	 * paths without affecting this tree.
+	 * @return
+	 * returns a tree sharing all nodes with this one.
+	 */
+	public PersistentRedBlackTree<K, V> snapshot(){
+		return new PersistentRedBlackTree<K, V>(root);
+	}
+
+	/**
+	 *
+	 * Add the key, value pair into a new version of the tree.
+	 * If the key is already in the tree its value is replaced.
+	 *
+	 * @param key
+	 * Key used to compare the the tree nodes to find the insert position.
+	 *
+	 * @param value
+	 * Value the Node will hold.
+	 */
+	public synchronized void add(K key, V value){
+		root = blacken(insert(root, key, value));
+	}
+
+	/**
+	 * Helper method for add(), copies the path down to the key and
+	 * balances each copied black node on the way back up.
+	 *
+	 * @param node
+	 * Root of the sub-tree the key goes in.
+	 * @param key
+	 * Key being added.
+	 * @param value
+	 * Value the Node will hold.
+	 * @return
+	 * returns the root of the new sub-tree.
+	 */
+	private Node<K, V> insert(Node<K, V> node, K key, V value){
+		if(node == null)
+			return new Node<K, V>(true, null, key, value, null);
+
+		int cmp = key.compareTo(node.key);
+
+		if(cmp < 0){
+			Node<K, V> left = insert(node.left, key, value);
+			return node.red ? new Node<K, V>(true, left, node.key, node.value, node.right) : balance(left, node.key, node.value, node.right);
+		}
+		else if(cmp > 0){
+			Node<K, V> right = insert(node.right, key, value);
+			return node.red ? new Node<K, V>(true, node.left, node.key, node.value, right) : balance(node.left, node.key, node.value, right);
+		}
+
+		//key is already in the tree, only the value changes
+		return new Node<K, V>(node.red, node.left, key, value, node.right);
+	}
+
+	/**
+	 * Builds a black node from the key and sub-trees, fixing a red node
+	 * with a red child below it by rotating the three of them into a red
+	 * node with two black children.
+	 *
+	 * @param left
+	 * Left sub-tree.
+	 * @param key
+	 * Key of the node.
+	 * @param value
+	 * Value of the node.
+	 * @param right
+	 * Right sub-tree.
+	 * @return
+	 * returns the balanced sub-tree.
+	 */
+	private Node<K, V> balance(Node<K, V> left, K key, V value, Node<K, V> right){
+		if(isRed(left) && isRed(right))
+			return new Node<K, V>(true, blacken(left), key, value, blacken(right));
+
+		if(isRed(left)){
+			if(isRed(left.left))
+				return new Node<K, V>(true, blacken(left.left), left.key, left.value, new Node<K, V>(false, left.right, key, value, right));
+			if(isRed(left.right))
+				return new Node<K, V>(true, new Node<K, V>(false, left.left, left.key, left.value, left.right.left), left.right.key, left.right.value, new Node<K, V>(false, left.right.right, key, value, right));
+		}
+
+		if(isRed(right)){
+			if(isRed(right.right))
+				return new Node<K, V>(true, new Node<K, V>(false, left, key, value, right.left), right.key, right.value, blacken(right.right));
+			if(isRed(right.left))
+				return new Node<K, V>(true, new Node<K, V>(false, left, key, value, right.left.left), right.left.key, right.left.value, new Node<K, V>(false, right.left.right, right.key, right.value, right.right));
+		}
+
+		return new Node<K, V>(false, left, key, value, right);
+	}
+//END ADDING TO TREE METHODS
+
+	/**
+	 * Remove the node with the specified key from a new version of the tree.
+	 *
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 *
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	public synchronized V remove(K key){
+		Node<K, V> node = findNode(root, key);
+
+		if(node == null)
+			return null;
+
+		root = blacken(delete(root, key));
+
+		return node.value;
+	}
+
+	/**
+	 * Helper method for remove(), copies the path down to the key, which
+	 * must be in the sub-tree, and restores the black height on the way up.
+	 *
+	 * @param node
+	 * Root of the sub-tree holding the key.
+	 * @param key
+	 * Key being removed.
+	 * @return
+	 * returns the root of the new sub-tree, which is one black node
+	 * shorter if the old root was black.
+	 */
+	private Node<K, V> delete(Node<K, V> node, K key){
+		int cmp = key.compareTo(node.key);
+
+		if(cmp < 0){
+			//removing from a black sub-tree makes it shorter, so rebalance
+			if(isBlack(node.left))
+				return balanceLeft(delete(node.left, key), node.key, node.value, node.right);
+			return new Node<K, V>(true, delete(node.left, key), node.key, node.value, node.right);
+		}
+		else if(cmp > 0){
+			if(isBlack(node.right))
+				return balanceRight(node.left, node.key, node.value, delete(node.right, key));
+			return new Node<K, V>(true, node.left, node.key, node.value, delete(node.right, key));
+		}
+
+		return fuse(node.left, node.right);
+	}
+
+	/**
+	 * Builds a node whose left sub-tree is one black node shorter than
+	 * its right sub-tree, restoring equal black heights.
+	 *
+	 * @param left
+	 * Left sub-tree, one black node short.
+	 * @param key
+	 * Key of the node.
+	 * @param value
+	 * Value of the node.
+	 * @param right
+	 * Right sub-tree.
+	 * @return
+	 * returns the balanced sub-tree.
+	 */
+	private Node<K, V> balanceLeft(Node<K, V> left, K key, V value, Node<K, V> right){
+		if(isRed(left))
+			return new Node<K, V>(true, blacken(left), key, value, right);
+
+		if(isBlack(right))
+			return balance(left, key, value, redden(right));
+
+		//right is red with a black left child
+		return new Node<K, V>(true, new Node<K, V>(false, left, key, value, right.left.left), right.left.key, right.left.value, balance(right.left.right, right.key, right.value, redden(right.right)));
+	}
+
+	/**
+	 * Builds a node whose right sub-tree is one black node shorter than
+	 * its left sub-tree, restoring equal black heights.
+	 *
+	 * @param left
+	 * Left sub-tree.
+	 * @param key
+	 * Key of the node.
+	 * @param value
+	 * Value of the node.
+	 * @param right
+	 * Right sub-tree, one black node short.
+	 * @return
+	 * returns the balanced sub-tree.
+	 */
+	private Node<K, V> balanceRight(Node<K, V> left, K key, V value, Node<K, V> right){
+		if(isRed(right))
+			return new Node<K, V>(true, left, key, value, blacken(right));
+
+		if(isBlack(left))
+			return balance(redden(left), key, value, right);
+
+		//left is red with a black right child
+		return new Node<K, V>(true, balance(redden(left.left), left.key, left.value, left.right.left), left.right.key, left.right.value, new Node<K, V>(false, left.right.right, key, value, right));
+	}
+
+	/**
+	 * Joins the two sub-trees of a removed node into one, every key of
+	 * the left being smaller than every key of the right.
+	 *
+	 * @param left
+	 * Left sub-tree of the removed node.
+	 * @param right
+	 * Right sub-tree of the removed node.
+	 * @return
+	 * returns the joined sub-tree.
+	 */
+	private Node<K, V> fuse(Node<K, V> left, Node<K, V> right){
+		if(left == null)
+			return right;
+		if(right == null)
+			return left;
+
+		if(left.red && right.red){
+			Node<K, V> middle = fuse(left.right, right.left);
+			if(isRed(middle))
+				return new Node<K, V>(true, new Node<K, V>(true, left.left, left.key, left.value, middle.left), middle.key, middle.value, new Node<K, V>(true, middle.right, right.key, right.value, right.right));
+			return new Node<K, V>(true, left.left, left.key, left.value, new Node<K, V>(true, middle, right.key, right.value, right.right));
+		}
+
+		if(!left.red && !right.red){
+			Node<K, V> middle = fuse(left.right, right.left);
+			if(isRed(middle))
+				return new Node<K, V>(true, new Node<K, V>(false, left.left, left.key, left.value, middle.left), middle.key, middle.value, new Node<K, V>(false, middle.right, right.key, right.value, right.right));
+			return balanceLeft(left.left, left.key, left.value, new Node<K, V>(false, middle, right.key, right.value, right.right));
+		}
+
+		if(right.red)
+			return new Node<K, V>(true, fuse(left, right.left), right.key, right.value, right.right);
+
+		return new Node<K, V>(true, left.left, left.key, left.value, fuse(left.right, right));
+	}
+//END OF REMOVAL METHODS
+
+	/**
+	 * Returns, but doesn't remove the node with the
+	 * key that is passed in to the method.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key with the node that is passed
+	 */
+	public V lookup(K key){
+		Node<K, V> node = findNode(root, key);
+
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * method that does the heavy lifting of finding the node based on a key,
+	 * walking down from the root with one comparison per level.
+	 * @param node
+	 * Root of the version being searched.
+	 * @param key
+	 * Key we want to find with the node that owns that key
+	 * @return
+	 * Returns the node with the key we wanted to find, or null if it isn't in the tree
+	 */
+	private Node<K, V> findNode(Node<K, V> node, K key){
+		while(node != null){
+			int cmp = key.compareTo(node.key);
+
+			if(cmp == 0)
+				return node;
+
+			node = cmp < 0 ? node.left : node.right;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Replaces the contents of the tree with the passed in keys and values,
+	 * building the new version directly in linear time instead of adding
+	 * them one by one.
+	 * @param keys
+	 * Keys in strictly ascending order.
+	 * @param values
+	 * Values for the keys, at the same positions.
+	 */
+	public synchronized void buildFromSorted(List<? extends K> keys, List<? extends V> values){
+		if(keys.size() != values.size())
+			throw new IllegalArgumentException("Got " + keys.size() + " keys but " + values.size() + " values");
+
+		for(int i = 1; i < keys.size(); i++){
+			if(keys.get(i - 1).compareTo(keys.get(i)) >= 0)
+				throw new IllegalArgumentException("Keys are not in strictly ascending order at index " + i);
+		}
+
+		//every level is full except the deepest one, whose nodes are colored red
+		int redLevel = 31 - Integer.numberOfLeadingZeros(keys.size() + 1);
+
+		root = buildFromSorted(keys, values, 0, keys.size() - 1, 0, redLevel);
+	}
+
+	/**
+	 * Helper method for buildFromSorted(), builds the sub-tree holding
+	 * the keys between lo and hi around the middle key.
+	 * @param keys
+	 * Keys in strictly ascending order.
+	 * @param values
+	 * Values for the keys, at the same positions.
+	 * @param lo
+	 * Index of the first key of the sub-tree.
+	 * @param hi
+	 * Index of the last key of the sub-tree.
+	 * @param level
+	 * Depth of the sub-tree's root.
+	 * @param redLevel
+	 * Depth of the nodes that are colored red.
+	 * @return
+	 * returns the root of the sub-tree, or null if it is empty.
+	 */
+	private Node<K, V> buildFromSorted(List<? extends K> keys, List<? extends V> values, int lo, int hi, int level, int redLevel){
+		if(lo > hi)
+			return null;
+
+		int mid = (lo + hi) >>> 1;
+		Node<K, V> left = buildFromSorted(keys, values, lo, mid - 1, level + 1, redLevel);
+		Node<K, V> right = buildFromSorted(keys, values, mid + 1, hi, level + 1, redLevel);
+
+		return new Node<K, V>(level == redLevel, left, keys.get(mid), values.get(mid), right);
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		return size(root);
+	}
+
+	/**
+	 * Returns an iterator over the entries of the current version in
+	 * ascending key order. Later changes to the tree are not seen by it.
+	 * @return
+	 * returns the ascending iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> iterator(){
+		final Node<K, V> version = root;
+
+		return new Iterator<Map.Entry<K, V>>(){
+			//nodes whose key and right sub-tree are still to be returned
+			private final ArrayDeque<Node<K, V>> path = new ArrayDeque<Node<K, V>>();
+
+			{
+				pushLeft(version);
+			}
+
+			public boolean hasNext(){
+				return !path.isEmpty();
+			}
+
+			public Map.Entry<K, V> next(){
+				if(path.isEmpty())
+					throw new NoSuchElementException();
+
+				Node<K, V> node = path.pop();
+				pushLeft(node.right);
+				return node;
+			}
+
+			private void pushLeft(Node<K, V> node){
+				for(; node != null; node = node.left)
+					path.push(node);
+			}
+		};
+	}
+
+	/**
+	 * Print the tree, one node per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString(){
+		StringBuilder str = new StringBuilder();
+
+		printNode(str, root, 0);
+
+		return str.toString();
+	}
+
+	/**
+	 * Helper method for toPrettyString(), prints the right sub-tree,
+	 * then the node, then the left sub-tree, so the tree reads sideways.
+	 *
+	 * @param str
+	 * The builder the tree is printed to.
+	 * @param node
+	 * The node being printed.
+	 * @param depth
+	 * The depth of the node.
+	 */
+	private void printNode(StringBuilder str, Node<K, V> node, int depth){
+		if(node == null)
+			return;
+
+		printNode(str, node.right, depth + 1);
+
+		for(int i = 0; i < depth; i++)
+			str.append("    ");
+		str.append(node.value).append(" - ").append(node.red ? "red" : "black").append('\n');
+
+		printNode(str, node.left, depth + 1);
+	}
+
+	/**
+	 * Checks if a sub-tree has a red root, null leaves are black.
+	 */
+	private static boolean isRed(Node<?, ?> node){
+		return node != null && node.red;
+	}
+
+	/**
+	 * Checks if a sub-tree has a black root that is not a null leaf.
+	 */
+	private static boolean isBlack(Node<?, ?> node){
+		return node != null && !node.red;
+	}
+
+	/**
+	 * Returns the number of keys in a sub-tree.
+	 */
+	private static int size(Node<?, ?> node){
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Returns the sub-tree with a black root, copying the root if it was red.
+	 */
+	private static <K, V> Node<K, V> blacken(Node<K, V> node){
+		return isRed(node) ? new Node<K, V>(false, node.left, node.key, node.value, node.right) : node;
+	}
+
+	/**
+	 * Returns a red copy of a black root.
+	 */
+	private static <K, V> Node<K, V> redden(Node<K, V> node){
+		return new Node<K, V>(true, node.left, node.key, node.value, node.right);
+	}
+
+	/**
+	 * Immutable tree node. Fields are final so a version published through
+	 * the volatile root is fully visible to readers on other threads.
+	 *
+	 * Fields include:
+	 * 	-red
+	 * 	-left
+	 *	-right
+	 *	-key
+	 *	-value
+	 *	-size, the number of keys in the sub-tree
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private static final class Node<K, V> implements Map.Entry<K, V>{
+		final boolean red;
+		final Node<K, V> left;
+		final Node<K, V> right;
+		final K key;
+		final V value;
+		final int size;
+
+		/**
+		 * Creates a node over two existing sub-trees.
+		 * @param red
+		 * true if the node is red.
+		 * @param left
+		 * Left sub-tree.
+		 * @param key
+		 * Key the node will have.
+		 * @param value
+		 * Value the node will have.
+		 * @param right
+		 * Right sub-tree.
+		 */
+		Node(boolean red, Node<K, V> left, K key, V value, Node<K, V> right){
+			this.red = red;
+			this.left = left;
+			this.key = key;
+			this.value = value;
+			this.right = right;
+			size = size(left) + size(right) + 1;
+		}
+
+		public K getKey(){
+			return key;
+		}
+
+		public V getValue(){
+			return value;
+		}
+
+		public V setValue(V newValue){
+			throw new UnsupportedOperationException("Persistent tree nodes can't be changed");
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if(!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode(){
+			return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString(){
+			return key + "=" + value;
+		}
+	}
+}
@@ -14,9 +14,33 @@
  */
 
 //Imports for functionality later on
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 
@@ -31,13 +55,122 @@ import java.util.List;
  * @param <V>
  * Any type V that will be the value of tree nodes.
  */
-public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
+public class RedBlackTree<K extends Comparable<K>, V> implements Tree<K, V>, Iterable<Map.Entry<K, V>>
 {
+	//trees with fewer keys than this between them are combined on the calling thread
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
+	
 	public Node root = null;
+	
+	//shared black sentinel used for every null leaf, or null if each node gets its own leaves
+	private final Node nil;
+	
+	//true if every node keeps the number of keys in its sub-tree
+	final boolean orderStatistics;
+	
+	//function combining values into the aggregate of a sub-tree, and its identity, or null if there is none
+	private final BinaryOperator<V> combine;
+	private final V identity;
+	
+	//true if something is cached in every node that changes with its sub-tree
+	private final boolean augmented;
+	
+	//number of keys in the tree
+	private int count = 0;
+	
+	//number of times keys were added or removed, used to fail iterators fast
+	int modCount = 0;
+	
+	/**
+	 * Creates an empty tree where every node is given its own
+	 * null black leaves.
+	 */
+	public RedBlackTree(){
+		this(false);
+	}
+	
+	/**
+	 * Creates an empty tree, optionally pointing all null leaves at a
+	 * single shared black sentinel instead of allocating two leaf nodes
+	 * for every key.
+	 * 
+	 * @param sharedLeaves
+	 * true to use a single sentinel for all null leaves.
+	 */
+	public RedBlackTree(boolean sharedLeaves){
+		this(sharedLeaves, false);
+	}
+	
+	/**
+	 * Creates an empty tree, optionally keeping the size of every sub-tree
+	 * in its root node so rank(), select() and countRange() run in log(n) time.
+	 * 
+	 * @param sharedLeaves
+	 * true to use a single sentinel for all null leaves.
+	 * @param orderStatistics
+	 * true to keep sub-tree sizes up to date on every change.
+	 */
+	public RedBlackTree(boolean sharedLeaves, boolean orderStatistics){
+		nil = sharedLeaves ? new Node(null, null, (Node) null) : null;
+		this.orderStatistics = orderStatistics;
+		identity = null;
+		combine = null;
+		augmented = orderStatistics;
+	}
+	
+	/**
+	 * Creates an empty tree where every node keeps the aggregate of the
+	 * values in its sub-tree, so aggregate() answers for any key range in
+	 * log(n) time. The values are combined in ascending key order, so the
+	 * function only has to be associative, with the identity as its
+	 * neutral value, such as 0 and Integer::sum, or Integer.MAX_VALUE and
+	 * Math::min.
+	 * 
+	 * @param sharedLeaves
+	 * true to use a single sentinel for all null leaves.
+	 * @param orderStatistics
+	 * true to keep sub-tree sizes up to date on every change.
+	 * @param identity
+	 * Aggregate of no values.
+	 * @param combine
+	 * Associative function combining two aggregates.
+	 */
+	public RedBlackTree(boolean sharedLeaves, boolean orderStatistics, V identity, BinaryOperator<V> combine){
+		if(combine == null)
+			throw new IllegalArgumentException("Combine function can't be null");
+		
+		nil = sharedLeaves ? new Node(null, null, (Node) null) : null;
+		this.orderStatistics = orderStatistics;
+		this.identity = identity;
+		this.combine = combine;
+		augmented = true;
+	}
+	
+	/**
+	 * Creates an empty tree that uses the passed in sentinel for its null
+	 * leaves, for trees split off from another.
+	 * 
+	 * @param nil
+	 * Sentinel of the tree being split, or null if it has none.
+	 * @param orderStatistics
+	 * true to keep sub-tree sizes up to date on every change.
+	 * @param identity
+	 * Aggregate of no values.
+	 * @param combine
+	 * Function combining two aggregates, or null to keep none.
+	 */
+	private RedBlackTree(Node nil, boolean orderStatistics, V identity, BinaryOperator<V> combine){
+		this.nil = nil;
+		this.orderStatistics = orderStatistics;
+		this.identity = identity;
+		this.combine = combine;
+		augmented = orderStatistics || combine != null;
+	}
 
 	/**
 	 * 
 	 * Add the key, value pair into the tree, then balance it.
+	 * If the key is already in the tree its value is replaced.
 	 * 
 	 * @param key
 	 * Key used to compare the the tree nodes to find the insert position.
@@ -46,6 +179,27 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * Value the Node will hold.
 	 */
 	public void add(K key, V value){
+		TreeMetrics.OperationEvent event = TreeMetrics.ENABLED ? TreeMetrics.begin("add") : null;
+		insert(root, key, value);
+		
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.end(event, count);
+	}
+	
+	/**
+	 * Does the work of add(Key, Value), walking down from the passed in
+	 * node instead of the root.
+	 * 
+	 * @param start
+	 * Node whose sub-tree holds the insert position of the key.
+	 * @param key
+	 * Key being added.
+	 * @param value
+	 * Value the Node will hold.
+	 * @return
+	 * returns the node that now holds the key.
+	 */
+	private Node insert(Node start, K key, V value){
 		Node addNode = null;
 		
 		//if tree is empty make new node the root.
@@ -59,20 +213,44 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 			addNode = root;
 		}
 		else{
-			//find the insertion position
-			Node addPos = addPos(key, root);
+			//walk down to the insertion position, comparing once per level
+			Node current = start;
+			Node addPos = null;
+			int cmp = 0;
+			int depth = 0;
+			
+			while(!isLeaf(current)){
+				addPos = current;
+				cmp = key.compareTo(current.key);
+				depth++;
+				
+				//key is already in the tree, only the value changes
+				if(cmp == 0){
+					if(TreeMetrics.ENABLED)
+						TreeMetrics.descent(depth);
+					
+					current.value = value;
+					if(combine != null)
+						updatePath(current);
+					
+					return current;
+				}
+				
+				current = cmp < 0 ? current.leftChild : current.rightChild;
+			}
+			
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.descent(depth);
+			
+			addNode = new Node(key, value, Colors.red, addPos);
 			
-			//if the key is less or equal it belongs in the left sub-tree
-			if(key.compareTo(addPos.key) <= 0){
-				addNode = addPos.leftChild = new Node(key, value, Colors.red, addPos);
-				addNode.leftChild = addLeaf(addNode);
-				addNode.rightChild = addLeaf(addNode);
+			//if the key is less it belongs in the left sub-tree
+			if(cmp < 0){
+				addPos.leftChild = addNode;
 			}
 			//otherwise belongs in the right sub-tree
-			else if(key.compareTo(addPos.key) > 0){
-				addNode = addPos.rightChild = new Node(key, value, Colors.red, addPos);
-				addNode.leftChild = addLeaf(addNode);
-				addNode.rightChild = addLeaf(addNode);
+			else{
+				addPos.rightChild = addNode;
 			}
 			
 			//add null leaves
@@ -80,29 +258,18 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 			addNode.rightChild = addLeaf(addNode);
 		}
 		
+		addNode.size = 1;
+		count++;
+		modCount++;
+		
+		//every sub-tree on the path now holds one more key
+		if(augmented)
+			updatePath(addNode);
+		
 		//go through balance cases
 		addCase1(addNode);
-	}
-	
-	/**
-	 * Finds the appropriate position to add the key from the add(Key, Value) method.
-	 * 
-	 * @param key
-	 * Key used to search for insertion position.
-	 * 
-	 * @param current
-	 * The node, that you are comparing to.
-	 * 
-	 * @return
-	 * returns the appropriate position to add the node.
-	 */
-	private Node addPos(K key, Node current){
-		if(current.rightChild != null && current.rightChild.key != null && key.compareTo(current.key) > 0)
-			return addPos(key, current.rightChild);
-		else if(current.leftChild != null && current.leftChild.key != null && key.compareTo(current.key) <= 0)
-			return addPos(key, current.leftChild);
 		
-		return current;
+		return addNode;
 	}
 	
 	/**
@@ -116,6 +283,9 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	private void addCase1(Node node){
 		//if node is root color black
 		if(node.parent == null){
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.addCase(1);
+			
 			node.color = Colors.black;
 		}
 		//otherwise check for case 2 of adding to a RBT
@@ -133,6 +303,9 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 */
 	private void addCase2(Node node){
 		if(node.parent.color == Colors.black){
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.addCase(2);
+			
 			return;
 		}
 		//if invariant 4 is broken fix with case3
@@ -154,6 +327,11 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 		Node uncle = getUncle(node);
 		
 		if(uncle != null && uncle.key != null && uncle.color == Colors.red){
+			if(TreeMetrics.ENABLED){
+				TreeMetrics.addCase(3);
+				TreeMetrics.addRecolor();
+			}
+			
 			node.parent.color = Colors.black;
 			uncle.color = Colors.black;
 			
@@ -184,12 +362,18 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 
 		//if node we are adding is a left side internal node rotate left to make it an external node
 		if(node == node.parent.rightChild && node.parent == grandParent.leftChild){
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.addCase(4);
+			
 			leftRotate(node.parent);
 			
 			node = node.leftChild;	
 		}
 		//other wise it is external node on right side so right rotate
-		else if(node == node.parent.leftChild && node.parent == grandParent.rightChild){			
+		else if(node == node.parent.leftChild && node.parent == grandParent.rightChild){
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.addCase(4);
+			
 			rightRotate(node.parent);
 
 			node = node.rightChild;
@@ -209,6 +393,9 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 */
 	private void addCase5(Node node){
 		Node grandParent = getGrandParent(node);
+		
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.addCase(5);
 
 		node.parent.color = Colors.black;
 		grandParent.color = Colors.red;
@@ -233,78 +420,116 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * returns value of the node with the specified key that was removed.
 	 */
 	public V remove(K key) {
+		TreeMetrics.OperationEvent event = TreeMetrics.ENABLED ? TreeMetrics.begin("remove") : null;
+		V returnVal = delete(key);
+		
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.end(event, count);
+		
+		return returnVal;
+	}
+	
+	/**
+	 * Does the work of remove(Key).
+	 * 
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	private V delete(K key){
 		//if tree is empty return nothing
 		if(root == null){
 			return null;
 		}
-		//otherwise check if the node we want is root, otherwise return null
-		else if(root.leftChild.key == null && root.rightChild.key == null){
-			if(key.compareTo(root.key) == 0)
-				return root.value;
+		
+		//find removal position
+		Node removeNode = findNode(key);
+		
+		if(removeNode == null){
+			return null;
+		}
+		
+		//value being returned
+		V returnVal = removeNode.value;
+		deleteNode(removeNode);
+		
+		return returnVal;
+	}
+	
+	/**
+	 * Does the work of remove(Key) once the node holding the key is found.
+	 * 
+	 * @param removeNode
+	 * The node holding the key being removed.
+	 * @return
+	 * returns a node that is still in the tree next to where the key was,
+	 * or null if the tree is now empty.
+	 */
+	Node deleteNode(Node removeNode){
+		Node spliceNode = removeNode;
+		
+		//if the node we are removing is not at the bottom we need to replace with in-order predecessor
+		if(!isLeaf(removeNode.leftChild) && !isLeaf(removeNode.rightChild)){
+			//copy predecessor values to the remove node, then remove the predecessor instead
+			spliceNode = getPred(removeNode.leftChild);
+			removeNode.key = spliceNode.key;
+			removeNode.value = spliceNode.value;
+		}
+		
+		//the node being spliced out has at most one child, move it up to take its place
+		Node fixNode = isLeaf(spliceNode.leftChild) ? spliceNode.rightChild : spliceNode.leftChild;
+		Node spliceParent = spliceNode.parent;
+		replaceChild(spliceNode, fixNode);
+		count--;
+		modCount++;
+		
+		//every sub-tree on the path now holds one less key
+		if(augmented)
+			updatePath(spliceParent);
+		
+		//removing a red node keeps the RBT properties, otherwise go through case checks
+		if(spliceNode.color == Colors.black){
+			if(fixNode.color == Colors.red)
+				fixNode.color = Colors.black;
 			else
-				return null;
+				removeCase1(fixNode, spliceParent);
+		}
+		
+		//if only a null leaf is left the tree is empty
+		if(isLeaf(root)){
+			root = null;
+		}
+		
+		//the remove node stays in the tree if its predecessor was spliced out instead
+		if(spliceNode != removeNode)
+			return removeNode;
+		
+		return spliceParent != null ? spliceParent : root;
+	}
+	
+	/**
+	 * Puts the child in the place of the node being spliced out of the tree.
+	 * A null leaf's parent is left alone, the removal cases are handed the
+	 * parent instead, so a shared sentinel is never written.
+	 * 
+	 * @param node
+	 * The node being spliced out of the tree.
+	 * @param child
+	 * The child moving up into its position.
+	 */
+	private void replaceChild(Node node, Node child){
+		if(!isLeaf(child))
+			child.parent = node.parent;
+		
+		if(node.parent == null){
+			root = child;
+		}
+		else if(node == node.parent.leftChild){
+			node.parent.leftChild = child;
 		}
 		else{
-			//find removal position
-			Node removeNode = removePos(key, root);
-			
-			if(removeNode == null){
-				return null;
-			}
-			
-			Node fixNode = removeNode;
-			
-			//value being returned
-			V returnVal = removeNode.value;
-			Node pred;
-			
-			//if the node we are removing is not a leaf we need to replace with in-order predecessor
-			if(removeNode.leftChild.key != null && removeNode.rightChild.key != null){
-				//copy predecessor values to the remove node
-				pred = getPred(removeNode.leftChild);
-				fixNode = pred;
-				removeNode.key = pred.key;
-				removeNode.value = pred.value;
-				
-				//make the predecessor a leaf
-				pred.leftChild = null;
-				pred.rightChild = null;
-				pred.key = null;
-				pred.value = null;
-				pred.color = Colors.black;
-			}
-			//otherwise for the next to cases, we simply move the child up to remove nodes parent
-			else if(removeNode.leftChild.key != null){
-				removeNode.key = removeNode.leftChild.key;
-				removeNode.value = removeNode.leftChild.value;
-				removeNode.color = removeNode.leftChild.color;
-				removeNode.rightChild = removeNode.leftChild.rightChild;
-				removeNode.leftChild = removeNode.leftChild.leftChild;
-			}
-			else if(removeNode.rightChild.key != null){
-				removeNode.key = removeNode.rightChild.key;
-				removeNode.value = removeNode.rightChild.value;
-				removeNode.color = removeNode.rightChild.color;
-				removeNode.rightChild = removeNode.rightChild.rightChild;
-				removeNode.leftChild = removeNode.rightChild.leftChild;
-			}
-			//lastly if the remove node is a leaf, remove values, and make it a null leaf
-			else{
-				//if the leave we are removing is red, then the RBT properties are maintained, nothing to do.
-				if(removeNode.color == Colors.red)
-					fixNode = root;
-				
-				removeNode.key = null;
-				removeNode.value = null;
-				removeNode.leftChild = null;
-				removeNode.rightChild = null;
-				removeNode.color = Colors.black;
-			}
-			
-			//go through case checks
-			removeCase1(fixNode);
-			
-			return returnVal;
+			node.parent.rightChild = child;
 		}
 	}
 	
@@ -315,14 +540,22 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * 
 	 * @param node
 	 * The node being removed from the RBT.
+	 * @param parent
+	 * The node's parent, passed in since a null leaf doesn't know it.
 	 */
-	private void removeCase1(Node node){
-		if(node.parent != null){
+	private void removeCase1(Node node, Node parent){
+		if(parent != null){
 			//go to case 2 if the node isn't the root
-			removeCase2(node);
+			removeCase2(node, parent);
+		}
+		else{
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.removeCase(1);
+			
+			//a null leaf left at the root is already black
+			if(!isLeaf(node))
+				node.color = Colors.black;
 		}
-		else
-			node.color = Colors.black;
 	}
 	
 	/**
@@ -332,23 +565,28 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * 
 	 * @param node
 	 * The node being removed from the RBT.
+	 * @param parent
+	 * The node's parent.
 	 */
-	private void removeCase2(Node node){
-		Node sibling = getSibling(node);
+	private void removeCase2(Node node, Node parent){
+		Node sibling = getSibling(node, parent);
 		
 		if(sibling.color == Colors.red){
-			node.parent.color = Colors.red;
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.removeCase(2);
+			
+			parent.color = Colors.red;
 			sibling.color = Colors.black;
 			
-			if(node == node.parent.leftChild){
-				leftRotate(node.parent);
+			if(node == parent.leftChild){
+				leftRotate(parent);
 			}
 			else{
-				rightRotate(node.parent);
+				rightRotate(parent);
 			}
 		}
 		//always go to case 3
-		removeCase3(node);
+		removeCase3(node, parent);
 	}
 	
 	/**
@@ -357,16 +595,23 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 *  
 	 * @param node
 	 * The node being removed from the RBT.
+	 * @param parent
+	 * The node's parent.
 	 */
-	private void removeCase3(Node node){
-		Node sibling = getSibling(node);
+	private void removeCase3(Node node, Node parent){
+		Node sibling = getSibling(node, parent);
 
-		if(node.parent.color == Colors.black && sibling.color == Colors.black && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.black){
+		if(parent.color == Colors.black && sibling.color == Colors.black && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.black){
+			if(TreeMetrics.ENABLED){
+				TreeMetrics.removeCase(3);
+				TreeMetrics.removeRecolor();
+			}
+			
 			sibling.color = Colors.red;
-			removeCase1(node.parent);
+			removeCase1(parent, parent.parent);
 		}
 		else{
-			removeCase4(node);
+			removeCase4(node, parent);
 		}
 	}
 	
@@ -377,16 +622,21 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * 
 	 * @param node
 	 * The node being removed from the RBT.
+	 * @param parent
+	 * The node's parent.
 	 */
-	private void removeCase4(Node node){
-		Node sibling = getSibling(node);
+	private void removeCase4(Node node, Node parent){
+		Node sibling = getSibling(node, parent);
 
-		if(node.parent.color == Colors.red && sibling.color == Colors.black && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.black){
+		if(parent.color == Colors.red && sibling.color == Colors.black && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.black){
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.removeCase(4);
+			
 			sibling.color = Colors.red;
-			node.parent.color = Colors.black;
+			parent.color = Colors.black;
 		}
 		else{
-			removeCase5(node);
+			removeCase5(node, parent);
 		}
 	}
 	
@@ -397,25 +647,33 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 *
 	 * @param node
 	 * The node being removed from the RBT.
+	 * @param parent
+	 * The node's parent.
 	 */
-	private void removeCase5(Node node){
-		Node sibling = getSibling(node);
+	private void removeCase5(Node node, Node parent){
+		Node sibling = getSibling(node, parent);
 		
 		//check sibling's color
 		if(sibling.color == Colors.black){
 			//rotate based on the location of the node
-			if(node == node.parent.leftChild && sibling.rightChild.color == Colors.black && sibling.leftChild.color == Colors.red){
+			if(node == parent.leftChild && sibling.rightChild.color == Colors.black && sibling.leftChild.color == Colors.red){
+				if(TreeMetrics.ENABLED)
+					TreeMetrics.removeCase(5);
+				
 				sibling.color = Colors.red;
 				sibling.leftChild.color = Colors.black;
 				rightRotate(sibling);
 			}
-			else if(node == node.parent.rightChild && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.red){
+			else if(node == parent.rightChild && sibling.leftChild.color == Colors.black && sibling.rightChild.color == Colors.red){
+				if(TreeMetrics.ENABLED)
+					TreeMetrics.removeCase(5);
+				
 				sibling.color = Colors.red;
 				sibling.rightChild.color = Colors.black;
 				leftRotate(sibling);
 			}
 		}
-		removeCase6(node);
+		removeCase6(node, parent);
 	}
 	
 	/**
@@ -426,44 +684,26 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * 
 	 * @param node
 	 * The node being removed from the RBT.
+	 * @param parent
+	 * The node's parent.
 	 */
-	private void removeCase6(Node node){
-		Node sibling = getSibling(node);
+	private void removeCase6(Node node, Node parent){
+		Node sibling = getSibling(node, parent);
 		
-		sibling.color = node.parent.color;
-		node.parent.color = Colors.black;
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.removeCase(6);
 		
-		if(node == node.parent.leftChild){
+		sibling.color = parent.color;
+		parent.color = Colors.black;
+		
+		if(node == parent.leftChild){
 			sibling.rightChild.color = Colors.black;
-			leftRotate(node.parent);
+			leftRotate(parent);
 		}
 		else{
 			sibling.leftChild.color = Colors.black;
-			rightRotate(node.parent);
-		}
-	}
-	
-	/**
-	 * Get the removal position of the passed in key.
-	 * 
-	 * @param key
-	 * Key that is to be removed from the tree
-	 * @param current
-	 * The node we are searching from
-	 * @return
-	 * Returns the position to remove the node from
-	 */
-	private Node removePos(K key, Node current){
-		if(current.rightChild.key != null && key.compareTo(current.key) > 0){
-			return removePos(key, current.rightChild);
-		}
-		else if(current.leftChild.key != null && key.compareTo(current.key) < 0){
-			return removePos(key, current.leftChild);
-		}
-		else if(current.leftChild.key == null && current.rightChild.key == null && current.key != key){
-			return null;
+			rightRotate(parent);
 		}
-		return current;
 	}
 	
 	/**
@@ -476,8 +716,8 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * returns the predecessor
 	 */
 	private Node getPred(Node node){
-		if(node.rightChild.key != null)
-			return getPred(node.rightChild);
+		while(!isLeaf(node.rightChild))
+			node = node.rightChild;
 		return node;
 	}
 	
@@ -493,28 +733,37 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * returns the new sub-tree.
 	 */
 	private Node leftRotate(Node node){
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.leftRotation();
+		
 		//create temporary fields for replacement later
-		Node tmpChild = node.rightChild.leftChild;	
 		Node newRoot = node.rightChild;
 		
-		//add new data to the new root of the sub-tree
-		newRoot.leftChild = node;
-		newRoot.leftChild.rightChild = tmpChild;
-		
-		//change parent of the now newRoot
-		newRoot.parent = newRoot.leftChild.parent;
-		newRoot.rightChild.parent = newRoot;
+		//move the inner sub-tree of the new root over to the old root
+		node.rightChild = newRoot.leftChild;
+		if(!isLeaf(node.rightChild))
+			node.rightChild.parent = node;
 		
 		//replace the old parent's link with the newRoot
-		if(newRoot.parent == null){
+		newRoot.parent = node.parent;
+		if(node.parent == null){
 			root = newRoot;
-			newRoot.leftChild.parent = newRoot; 
 		}
-		else if(newRoot.parent.leftChild == newRoot.leftChild){
-			newRoot.parent.leftChild = newRoot;
+		else if(node.parent.leftChild == node){
+			node.parent.leftChild = newRoot;
 		}
 		else{
-			newRoot.parent.rightChild = newRoot;
+			node.parent.rightChild = newRoot;
+		}
+		
+		//old root becomes the left child of the newRoot
+		newRoot.leftChild = node;
+		node.parent = newRoot;
+		
+		//only the two rotated nodes have different sub-trees now
+		if(augmented){
+			update(node);
+			update(newRoot);
 		}
 		
 		return newRoot;
@@ -530,45 +779,96 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * returns the new sub-tree.
 	 */
 	private Node rightRotate(Node node){
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.rightRotation();
+		
 		//create temporary fields for replacement later
-		Node tmpChild = node.leftChild.rightChild;		
 		Node newRoot = node.leftChild;
 		
-		//add new data to the new root of the sub-tree
-		newRoot.rightChild = node;
-		newRoot.rightChild.leftChild = tmpChild;
-		//change parent of the now newRoot
-		newRoot.parent = newRoot.rightChild.parent;
-		newRoot.rightChild.parent = newRoot;
+		//move the inner sub-tree of the new root over to the old root
+		node.leftChild = newRoot.rightChild;
+		if(!isLeaf(node.leftChild))
+			node.leftChild.parent = node;
 		
 		//replace the parents link with the newRoot
-		if(newRoot.parent == null){
+		newRoot.parent = node.parent;
+		if(node.parent == null){
 			root = newRoot;
-			newRoot.rightChild.parent = newRoot; 
 		}
-		else if(newRoot.parent.leftChild == newRoot.rightChild){
-			newRoot.parent.leftChild = newRoot;
+		else if(node.parent.leftChild == node){
+			node.parent.leftChild = newRoot;
 		}
 		else{
-			newRoot.parent.rightChild = newRoot;
+			node.parent.rightChild = newRoot;
+		}
+		
+		//old root becomes the right child of the newRoot
+		newRoot.rightChild = node;
+		node.parent = newRoot;
+		
+		//only the two rotated nodes have different sub-trees now
+		if(augmented){
+			update(node);
+			update(newRoot);
 		}
 		
 		return newRoot;
 	}
 	
+	/**
+	 * Recomputes the size of the sub-tree rooted at the node, and its
+	 * aggregate if the tree keeps one, from its children.
+	 * 
+	 * @param node
+	 * Node whose children or value may have changed.
+	 */
+	private void update(Node node){
+		node.size = node.leftChild.size + node.rightChild.size + 1;
+		
+		if(combine != null)
+			node.aggregate = combine.apply(combine.apply(aggregateOf(node.leftChild), node.value), aggregateOf(node.rightChild));
+	}
+	
+	/**
+	 * Returns the aggregate of a sub-tree, the identity for a null leaf.
+	 * @param node
+	 * Root of the sub-tree.
+	 * @return
+	 * returns the aggregate of its values.
+	 */
+	private V aggregateOf(Node node){
+		return isLeaf(node) ? identity : node.aggregate;
+	}
+	
+	/**
+	 * Recomputes the sub-tree sizes from the node up to the root,
+	 * used after a key is added or spliced out below the node.
+	 * 
+	 * @param node
+	 * Lowest node whose sub-tree changed, may be null.
+	 */
+	private void updatePath(Node node){
+		while(node != null){
+			update(node);
+			node = node.parent;
+		}
+	}
+	
 	/**
 	 * Returns the sibling of the node that is passed in.
 	 * @param node
 	 * Node we are finding the sibling from.
+	 * @param parent
+	 * The node's parent.
 	 * @return
 	 * Returns the sibling of the node.
 	 */
-	private Node getSibling(Node node){
-		if(node == node.parent.leftChild){
-			return node.parent.rightChild;
+	private Node getSibling(Node node, Node parent){
+		if(node == parent.leftChild){
+			return parent.rightChild;
 		}
 		else{
-			return node.parent.leftChild;
+			return parent.leftChild;
 		}
 	}
 	
@@ -615,161 +915,2332 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 * Returns the value of the key with the node that is passed
 	 */
 	public V lookup(K key) {
-		if(root == null)
+		TreeMetrics.OperationEvent event = TreeMetrics.ENABLED ? TreeMetrics.begin("lookup") : null;
+		Node node = findNode(key);
+		
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.end(event, count);
+		
+		if(node == null)
 			return null;
 		else
-			return find(key, root);
+			return node.value;
 	}
 	
 	/**
-	 * method that does the heavy lifting of finding the node based on a key
+	 * method that does the heavy lifting of finding the node based on a key,
+	 * walking down from the root with one comparison per level.
 	 * @param key
 	 * Key we want to find with the node that owns that key
-	 * @param current
-	 * Node we want to start searching from
 	 * @return
-	 * Returns value at the node with the key we wanted to find
+	 * Returns the node with the key we wanted to find, or null if it isn't in the tree
 	 */
-	private V find(K key, Node current){
-		if(current.key == key)
-			return current.value;
-		else if(current.key.compareTo(key) > 0)
-			find(key, current.rightChild);
-		else
-			find(key, current.leftChild);
-		return null;
+	Node findNode(K key){
+		return findNode(root, key);
 	}
 	
 	/**
-	 * Add a null black leaf to the passed
-	 * in node.
-	 * @param parent
-	 * The node we want to add to the null leaf to
+	 * Finds the node with the key, walking down from the passed in node
+	 * instead of the root.
+	 * @param start
+	 * Node whose sub-tree holds the key if it is in the tree, may be null.
+	 * @param key
+	 * Key we want to find with the node that owns that key
 	 * @return
-	 * returns the node that is created
+	 * Returns the node with the key we wanted to find, or null if it isn't in the tree
 	 */
-	private Node addLeaf(Node parent){
-		//simply create new node and return it
-		return new Node(null, null, parent);
+	private Node findNode(Node start, K key){
+		if(start == null)
+			return null;
+		
+		Node current = start;
+		int depth = 0;
+		
+		while(!isLeaf(current)){
+			int cmp = key.compareTo(current.key);
+			depth++;
+			
+			if(cmp == 0)
+				break;
+			
+			current = cmp < 0 ? current.leftChild : current.rightChild;
+		}
+		
+		if(TreeMetrics.ENABLED)
+			TreeMetrics.descent(depth);
+		
+		return isLeaf(current) ? null : current;
 	}
 	
 	/**
-	 * Print the tree in its pyramid structure
-	 * @return
-	 * return a string of the pyramid structure of the tree
+	 * Adds all the key, value pairs in the batch. The batch is sorted first,
+	 * then each key is inserted starting from where the previous one went,
+	 * only climbing as far up the tree as its key requires. A batch at least
+	 * as large as the tree is merged with it and rebuilt in linear time instead.
+	 * 
+	 * @param batch
+	 * The keys and values being added, replacing values of keys already in the tree.
 	 */
-	public String toPrettyString() {
-        int maxLevel = maxLevel(root);
-
-        return printLevel(Collections.singletonList(root), 1, maxLevel);
-    }
+	public void addAll(Map<? extends K, ? extends V> batch){
+		List<Map.Entry<? extends K, ? extends V>> entries = new ArrayList<Map.Entry<? extends K, ? extends V>>(batch.entrySet());
+		entries.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+		
+		if(entries.size() >= count){
+			mergeAndRebuild(entries);
+			return;
+		}
+		
+		Node finger = null;
+		
+		for(Map.Entry<? extends K, ? extends V> entry : entries){
+			K key = entry.getKey();
+			finger = insert(fingerStart(finger, key), key, entry.getValue());
+		}
+	}
 	
 	/**
-	 * Helper method for toPrettyString(), does the heavy lifting
-	 * by recursively calling itself to print the tree level by level.
+	 * Removes all the keys in the batch. The batch is sorted first, then
+	 * each key is searched for starting from where the previous one was,
+	 * only climbing as far up the tree as its key requires. A batch at least
+	 * as large as the tree is filtered out of it and the tree is rebuilt in
+	 * linear time instead.
 	 * 
-	 * @param nodes
-	 * A list of type Node that contains the nodes on that level.
-	 * @param level
-	 * The current level we are working on.
-	 * @param maxLevel
-	 * The depth of the tree.
-	 * @return
-	 * A string print out of the current level is concatenated.
-	 */
-    private String printLevel(List<Node> nodes, int level, int maxLevel) {
-    	String str = "";
-    	
-        if (nodes.isEmpty() || isAllNull(nodes))
-            return "";
-
-        List<Node> newNodes = new ArrayList<Node>();
-        
-        int floor = maxLevel - level;
-        int firstSpaces = (int) Math.pow(2, (floor));
-        int betweenSpaces = (int) Math.pow(2, (floor + 1)) - 1;
-
-        str = str.concat(printWhitespaces(firstSpaces));
-        
-        //put all child nodes into a new list
-        for (Node node : nodes){
-            if (node != null){
-                str = str.concat(node.value + " - " + node.color);
-                newNodes.add(node.leftChild);
-                newNodes.add(node.rightChild);
-            } 
-            //if the node is null, then print some white space to allow for gaps in the tree
-            else{
-                newNodes.add(null);
-                newNodes.add(null);
-                str = str.concat("\t  ");
-            }
-            
-            //print white space between nodes
-            str = str.concat(printWhitespaces(betweenSpaces));
-        }   
-        
-        //white space to separate levels of the tree
-        str = str.concat("\n\n\n");
-        
-        //print next level of the tree
-        str = str.concat(printLevel(newNodes, level + 1, maxLevel));
-        
-        return str;
-    }
-    
-    /**
-     * Helper method to printLevel() that prints whitespace and returns it as a string.
-     * 
-     * @param count
-     * The number of spaces we want to make a string out of.
-     * @return
-     * The string of whitespace to be returned. 
-     */
-    private String printWhitespaces(int count) {
-    	String str = "";
-    	
-        for (int i = 0; i < count * 3; i++)
-        	str = str.concat(" ");
-        
-        return str;
-    }
-
-    /**
-     * Checks if any elements in the list are not null
-     * returns true if at least 1 is not, false otherwise.
-     * 
-     * @param list
-     * List that is being check for any non-null elements.
-     * @return
-     * returns true if at least 1 is not, false otherwise.
-     */
-    private boolean isAllNull(List<Node> list) {
-    	//check if at least one element in the list is not null
-        for (Node node : list) {
-            if (node != null)
-                return false;
-        }
-
-        return true;
-    }
+	 * @param batch
+	 * The keys being removed.
+	 * @return
+	 * returns the number of keys that were in the tree and removed.
+	 */
+	public int removeAll(Collection<? extends K> batch){
+		List<K> keys = new ArrayList<K>(batch);
+		Collections.sort(keys);
+		
+		if(keys.size() >= count)
+			return filterAndRebuild(keys);
+		
+		int removed = 0;
+		Node finger = null;
+		
+		for(K key : keys){
+			Node node = findNode(fingerStart(finger, key), key);
+			
+			if(node != null){
+				finger = deleteNode(node);
+				removed++;
+			}
+		}
+		
+		return removed;
+	}
 	
 	/**
-	 * Finds the largest depth of the tree using 
-	 * Depth first traversal
+	 * Returns a new finger, a cursor that remembers the last node it
+	 * found, added or removed next to. Each search made through it starts
+	 * from that node and only climbs as far as the key requires, so keys
+	 * close to the last one are found in O(log d) time, where d is the
+	 * number of keys between them, instead of O(log n).
+	 * 
 	 * @return
-	 * returns number of levels the tree has
+	 * returns a finger that starts at the root.
 	 */
-	public int maxLevel(Node node) {
-        if (node == null)
-            return 0;
-
-        return Math.max(maxLevel(node.leftChild), maxLevel(node.rightChild)) + 1;
-    }
-
+	public Finger finger(){
+		return new Finger();
+	}
+	
 	/**
-	 * Enum for the two colors a node can possible have
-	 * @author Jacob Romero
+	 * Finds the node to start searching for a key from, given a finger node
+	 * that is in the tree. Climbs from the finger until it reaches a node whose
+	 * sub-tree must hold the key, so keys close to the finger need only a short climb.
+	 * 
+	 * @param finger
+	 * A node in the tree near the key, or null to start from the root.
+	 * @param key
+	 * Key being searched for.
+	 * @return
+	 * returns the node to start walking down from.
+	 */
+	private Node fingerStart(Node finger, K key){
+		if(finger == null)
+			return root;
+		
+		int cmp = key.compareTo(finger.key);
+		
+		if(cmp == 0)
+			return finger;
+		
+		Node node = finger;
+		
+		//stop below the first parent that bounds the node's sub-tree on the key's side
+		while(node.parent != null){
+			Node parent = node.parent;
+			
+			if(cmp > 0 && node == parent.leftChild && key.compareTo(parent.key) < 0)
+				break;
+			if(cmp < 0 && node == parent.rightChild && key.compareTo(parent.key) > 0)
+				break;
+			
+			node = parent;
+		}
+		
+		return node;
+	}
+	
+	/**
+	 * Helper method for addAll(), merges the sorted batch with the keys
+	 * in the tree and rebuilds the tree from the result.
+	 * 
+	 * @param entries
+	 * The batch in ascending key order.
+	 */
+	private void mergeAndRebuild(List<Map.Entry<? extends K, ? extends V>> entries){
+		List<K> keys = new ArrayList<K>(count + entries.size());
+		List<V> values = new ArrayList<V>(count + entries.size());
+		Node node = firstNode();
+		
+		for(Map.Entry<? extends K, ? extends V> entry : entries){
+			//copy over tree keys smaller than the batch key
+			int cmp = -1;
+			while(node != null && (cmp = node.key.compareTo(entry.getKey())) < 0){
+				keys.add(node.key);
+				values.add(node.value);
+				node = successor(node);
+			}
+			
+			//a batch key already in the tree replaces its value
+			if(node != null && cmp == 0)
+				node = successor(node);
+			
+			keys.add(entry.getKey());
+			values.add(entry.getValue());
+		}
+		
+		for(; node != null; node = successor(node)){
+			keys.add(node.key);
+			values.add(node.value);
+		}
+		
+		buildFromSorted(keys, values);
+	}
+	
+	/**
+	 * Helper method for removeAll(), rebuilds the tree from the keys
+	 * that are not in the sorted batch.
+	 * 
+	 * @param batch
+	 * The keys being removed in ascending order.
+	 * @return
+	 * returns the number of keys that were removed.
+	 */
+	private int filterAndRebuild(List<K> batch){
+		List<K> keys = new ArrayList<K>(count);
+		List<V> values = new ArrayList<V>(count);
+		int i = 0;
+		
+		for(Node node = firstNode(); node != null; node = successor(node)){
+			//skip batch keys smaller than the tree key
+			while(i < batch.size() && batch.get(i).compareTo(node.key) < 0)
+				i++;
+			
+			if(i < batch.size() && batch.get(i).compareTo(node.key) == 0)
+				continue;
+			
+			keys.add(node.key);
+			values.add(node.value);
+		}
+		
+		int removed = count - keys.size();
+		buildFromSorted(keys, values);
+		
+		return removed;
+	}
+	
+	/**
+	 * Replaces the contents of the tree with the passed in keys and values,
+	 * building the tree directly in linear time instead of adding them one
+	 * by one.
+	 * @param keys
+	 * Keys in strictly ascending order.
+	 * @param values
+	 * Values for the keys, at the same positions.
+	 */
+	public void buildFromSorted(K[] keys, V[] values){
+		if(keys.length != values.length)
+			throw new IllegalArgumentException("Got " + keys.length + " keys but " + values.length + " values");
+		
+		buildFromSorted(Arrays.asList(keys), Arrays.asList(values));
+	}
+	
+	/**
+	 * Replaces the contents of the tree with the entries of the iterator,
+	 * building the tree directly in linear time instead of adding them one
+	 * by one.
+	 * @param entries
+	 * Entries in strictly ascending key order.
+	 */
+	public void buildFromSorted(Iterator<? extends Map.Entry<? extends K, ? extends V>> entries){
+		List<K> keys = new ArrayList<K>();
+		List<V> values = new ArrayList<V>();
+		
+		while(entries.hasNext()){
+			Map.Entry<? extends K, ? extends V> entry = entries.next();
+			keys.add(entry.getKey());
+			values.add(entry.getValue());
+		}
+		
+		buildFromSorted(keys, values);
+	}
+	
+	/**
+	 * Replaces the contents of the tree with the entries of the stream,
+	 * building the tree directly in linear time instead of adding them one
+	 * by one.
+	 * @param entries
+	 * Entries in strictly ascending key order.
+	 */
+	public void buildFromSorted(Stream<? extends Map.Entry<? extends K, ? extends V>> entries){
+		buildFromSorted(entries.iterator());
+	}
+
+	/**
+	 * Copies the tree into a read-only index laid out in arrays, which
+	 * answers lookups and range scans without following node links. The
+	 * tree itself is left as it is, and FrozenTree.thaw() builds a new one
+	 * from the index in linear time.
+	 * @return
+	 * returns the frozen copy.
+	 */
+	public FrozenTree<K, V> freeze(){
+		return new FrozenTree<K, V>(count, iterator());
+	}
+
+	/**
+	 * Checks the keys are sorted, then builds the tree from them.
+	 * @param keys
+	 * Keys in strictly ascending order.
+	 * @param values
+	 * Values for the keys, at the same positions.
+	 */
+	private void buildFromSorted(List<K> keys, List<V> values){
+		for(int i = 1; i < keys.size(); i++){
+			if(keys.get(i - 1).compareTo(keys.get(i)) >= 0)
+				throw new IllegalArgumentException("Keys are not in strictly ascending order at index " + i);
+		}
+		
+		int size = keys.size();
+		
+		//every level is full except the deepest one, whose nodes are colored red
+		int redLevel = 31 - Integer.numberOfLeadingZeros(size + 1);
+		
+		root = size == 0 ? null : buildFromSorted(keys, values, 0, size - 1, 0, redLevel, null);
+		count = size;
+		modCount++;
+	}
+	
+	/**
+	 * Helper method for buildFromSorted(), builds the sub-tree holding
+	 * the keys between lo and hi around the middle key.
+	 * @param keys
+	 * Keys in strictly ascending order.
+	 * @param values
+	 * Values for the keys, at the same positions.
+	 * @param lo
+	 * Index of the first key of the sub-tree.
+	 * @param hi
+	 * Index of the last key of the sub-tree.
+	 * @param level
+	 * Depth of the sub-tree's root.
+	 * @param redLevel
+	 * Depth of the nodes that are colored red.
+	 * @param parent
+	 * Parent of the sub-tree's root.
+	 * @return
+	 * returns the root of the sub-tree, or a null leaf if it is empty.
+	 */
+	private Node buildFromSorted(List<K> keys, List<V> values, int lo, int hi, int level, int redLevel, Node parent){
+		if(lo > hi)
+			return addLeaf(parent);
+		
+		int mid = (lo + hi) >>> 1;
+		Node node = new Node(keys.get(mid), values.get(mid), level == redLevel ? Colors.red : Colors.black, parent);
+		
+		node.leftChild = buildFromSorted(keys, values, lo, mid - 1, level + 1, redLevel, node);
+		node.rightChild = buildFromSorted(keys, values, mid + 1, hi, level + 1, redLevel, node);
+		update(node);
+		
+		return node;
+	}
+	
+	/**
+	 * Writes the entries of the tree to the stream in ascending key order,
+	 * in the format read back by readFrom(). The stream is flushed but not closed.
+	 * @param out
+	 * Stream the snapshot is written to.
+	 * @param keyCodec
+	 * Codec used to write the keys.
+	 * @param valueCodec
+	 * Codec used to write the values.
+	 * @throws IOException
+	 * if the stream can't be written to.
+	 */
+	public void writeTo(OutputStream out, Codec<? super K> keyCodec, Codec<? super V> valueCodec) throws IOException {
+		Snapshot.write(out, count, iterator(), keyCodec, valueCodec);
+	}
+	
+	/**
+	 * Writes the entries of the tree to the channel, the same way as
+	 * writeTo(OutputStream). The channel is not closed.
+	 * @param channel
+	 * Channel the snapshot is written to.
+	 * @param keyCodec
+	 * Codec used to write the keys.
+	 * @param valueCodec
+	 * Codec used to write the values.
+	 * @throws IOException
+	 * if the channel can't be written to.
+	 */
+	public void writeTo(WritableByteChannel channel, Codec<? super K> keyCodec, Codec<? super V> valueCodec) throws IOException {
+		writeTo(Channels.newOutputStream(channel), keyCodec, valueCodec);
+	}
+	
+	/**
+	 * Replaces the contents of the tree with a snapshot written by writeTo().
+	 * The entries are already sorted, so the tree is built directly in linear
+	 * time with no balancing. The stream is read ahead in large chunks, and
+	 * is not closed.
+	 * @param in
+	 * Stream the snapshot is read from.
+	 * @param keyCodec
+	 * Codec used to read the keys.
+	 * @param valueCodec
+	 * Codec used to read the values.
+	 * @throws IOException
+	 * if the stream can't be read, or doesn't hold a valid snapshot.
+	 */
+	public void readFrom(InputStream in, Codec<? extends K> keyCodec, Codec<? extends V> valueCodec) throws IOException {
+		ArrayList<K> keys = new ArrayList<K>();
+		ArrayList<V> values = new ArrayList<V>();
+		
+		Snapshot.read(in, keyCodec, valueCodec, keys, values);
+		buildFromSorted(keys, values);
+	}
+	
+	/**
+	 * Replaces the contents of the tree with a snapshot read from the
+	 * channel, the same way as readFrom(InputStream). The channel is not closed.
+	 * @param channel
+	 * Channel the snapshot is read from.
+	 * @param keyCodec
+	 * Codec used to read the keys.
+	 * @param valueCodec
+	 * Codec used to read the values.
+	 * @throws IOException
+	 * if the channel can't be read, or doesn't hold a valid snapshot.
+	 */
+	public void readFrom(ReadableByteChannel channel, Codec<? extends K> keyCodec, Codec<? extends V> valueCodec) throws IOException {
+		readFrom(Channels.newInputStream(channel), keyCodec, valueCodec);
+	}
+	
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		return count;
+	}
+	
+	/**
+	 * Returns the number of keys in the tree that are less than the
+	 * passed in key, which is also the index the key has, or would have,
+	 * in sorted order.
+	 * @param key
+	 * The key being ranked, does not need to be in the tree.
+	 * @return
+	 * returns the number of smaller keys.
+	 */
+	public int rank(K key){
+		checkOrderStatistics();
+		
+		return rank(key, false);
+	}
+	
+	/**
+	 * Returns the key at the passed in index in sorted order.
+	 * @param index
+	 * Index of the key, starting at 0 for the smallest key.
+	 * @return
+	 * returns the key with exactly index smaller keys.
+	 */
+	public K select(int index){
+		checkOrderStatistics();
+		
+		if(index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+		
+		Node current = root;
+		
+		//skip whole left sub-trees until the index lands on a node
+		while(true){
+			int leftSize = current.leftChild.size;
+			
+			if(index < leftSize){
+				current = current.leftChild;
+			}
+			else if(index > leftSize){
+				index -= leftSize + 1;
+				current = current.rightChild;
+			}
+			else{
+				return current.key;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of keys between lo and hi, both inclusive.
+	 * @param lo
+	 * Lowest key of the range.
+	 * @param hi
+	 * Highest key of the range.
+	 * @return
+	 * returns the number of keys in the range, 0 if lo is greater than hi.
+	 */
+	public int countRange(K lo, K hi){
+		checkOrderStatistics();
+		
+		if(lo.compareTo(hi) > 0)
+			return 0;
+		
+		return rank(hi, true) - rank(lo, false);
+	}
+	
+	/**
+	 * Counts the keys less than, or optionally equal to, the passed in key
+	 * with one walk down the tree.
+	 * @param key
+	 * The key being ranked.
+	 * @param inclusive
+	 * true to also count the key itself if it is in the tree.
+	 * @return
+	 * returns the number of keys before the key.
+	 */
+	int rank(K key, boolean inclusive){
+		int rank = 0;
+		Node current = root;
+		
+		while(current != null && !isLeaf(current)){
+			int cmp = key.compareTo(current.key);
+			
+			if(cmp < 0){
+				current = current.leftChild;
+			}
+			else if(cmp > 0){
+				rank += current.leftChild.size + 1;
+				current = current.rightChild;
+			}
+			else{
+				return rank + current.leftChild.size + (inclusive ? 1 : 0);
+			}
+		}
+		
+		return rank;
+	}
+	
+	/**
+	 * Combines the values of the keys between lo and hi, both included, in
+	 * ascending key order, from the aggregates cached in the nodes.
+	 * Only the two paths down to lo and hi are walked, so it takes log(n)
+	 * time however many keys are in the range.
+	 * @param lo
+	 * Smallest key of the range.
+	 * @param hi
+	 * Largest key of the range.
+	 * @return
+	 * returns the aggregate of the values, or the identity if the range is empty.
+	 */
+	public V aggregate(K lo, K hi){
+		if(combine == null)
+			throw new UnsupportedOperationException("Tree was created without an aggregate");
+		
+		if(root == null || lo.compareTo(hi) > 0)
+			return identity;
+		
+		//walk down to the first node inside the range, where the paths to lo and hi part
+		Node node = root;
+		while(!isLeaf(node)){
+			if(hi.compareTo(node.key) < 0)
+				node = node.leftChild;
+			else if(lo.compareTo(node.key) > 0)
+				node = node.rightChild;
+			else
+				break;
+		}
+		
+		if(isLeaf(node))
+			return identity;
+		
+		//keys of the left sub-tree that are at least lo
+		V left = identity;
+		for(Node current = node.leftChild; !isLeaf(current);){
+			if(lo.compareTo(current.key) <= 0){
+				left = combine.apply(combine.apply(current.value, aggregateOf(current.rightChild)), left);
+				current = current.leftChild;
+			}
+			else{
+				current = current.rightChild;
+			}
+		}
+		
+		//keys of the right sub-tree that are at most hi
+		V right = identity;
+		for(Node current = node.rightChild; !isLeaf(current);){
+			if(hi.compareTo(current.key) >= 0){
+				right = combine.apply(right, combine.apply(aggregateOf(current.leftChild), current.value));
+				current = current.rightChild;
+			}
+			else{
+				current = current.leftChild;
+			}
+		}
+		
+		return combine.apply(combine.apply(left, node.value), right);
+	}
+	
+	/**
+	 * Throws an exception if the tree was created without sub-tree sizes.
+	 */
+	private void checkOrderStatistics(){
+		if(!orderStatistics)
+			throw new UnsupportedOperationException("Tree was created without order statistics");
+	}
+	
+	/**
+	 * Returns an iterator over the entries of the tree in ascending key order.
+	 * The nodes themselves are the entries, so nothing is allocated per element.
+	 * @return
+	 * returns the ascending iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> iterator(){
+		return new EntryIterator(firstNode(), null, false);
+	}
+	
+	/**
+	 * Returns an iterator over the entries of the tree in descending key order.
+	 * @return
+	 * returns the descending iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> descendingIterator(){
+		return new EntryIterator(lastNode(), null, true);
+	}
+	
+	/**
+	 * Returns an iterator over the entries with keys between lo and hi,
+	 * both inclusive, in ascending key order.
+	 * @param lo
+	 * Lowest key of the range.
+	 * @param hi
+	 * Highest key of the range.
+	 * @return
+	 * returns the range iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> range(K lo, K hi){
+		return new EntryIterator(ceilingNode(lo), hi, false);
+	}
+	
+	/**
+	 * Returns an iterator over the entries with keys between hi and lo,
+	 * both inclusive, in descending key order.
+	 * @param hi
+	 * Highest key of the range.
+	 * @param lo
+	 * Lowest key of the range.
+	 * @return
+	 * returns the range iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> descendingRange(K hi, K lo){
+		return new EntryIterator(floorNode(hi), lo, true);
+	}
+	
+	/**
+	 * Returns the node with the smallest key.
+	 * @return
+	 * returns the first node, or null if the tree is empty.
+	 */
+	Node firstNode(){
+		if(root == null)
+			return null;
+		
+		Node node = root;
+		while(!isLeaf(node.leftChild))
+			node = node.leftChild;
+		return node;
+	}
+	
+	/**
+	 * Returns the node with the largest key.
+	 * @return
+	 * returns the last node, or null if the tree is empty.
+	 */
+	Node lastNode(){
+		if(root == null)
+			return null;
+		
+		return getPred(root);
+	}
+	
+	/**
+	 * Returns the node with the smallest key greater than or equal to the key.
+	 * @param key
+	 * Key being searched for.
+	 * @return
+	 * returns the node, or null if every key is smaller.
+	 */
+	Node ceilingNode(K key){
+		Node best = null;
+		Node current = root;
+		
+		while(current != null && !isLeaf(current)){
+			int cmp = key.compareTo(current.key);
+			
+			if(cmp == 0)
+				return current;
+			
+			//a larger key is a candidate, keep looking for a smaller one on the left
+			if(cmp < 0){
+				best = current;
+				current = current.leftChild;
+			}
+			else{
+				current = current.rightChild;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Returns the node with the largest key less than or equal to the key.
+	 * @param key
+	 * Key being searched for.
+	 * @return
+	 * returns the node, or null if every key is larger.
+	 */
+	Node floorNode(K key){
+		Node best = null;
+		Node current = root;
+		
+		while(current != null && !isLeaf(current)){
+			int cmp = key.compareTo(current.key);
+			
+			if(cmp == 0)
+				return current;
+			
+			//a smaller key is a candidate, keep looking for a larger one on the right
+			if(cmp > 0){
+				best = current;
+				current = current.rightChild;
+			}
+			else{
+				current = current.leftChild;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Returns the node with the smallest key strictly greater than the key.
+	 * @param key
+	 * Key being searched for.
+	 * @return
+	 * returns the node, or null if no key is larger.
+	 */
+	Node higherNode(K key){
+		Node best = null;
+		Node current = root;
+		
+		while(current != null && !isLeaf(current)){
+			//a larger key is a candidate, keep looking for a smaller one on the left
+			if(key.compareTo(current.key) < 0){
+				best = current;
+				current = current.leftChild;
+			}
+			else{
+				current = current.rightChild;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Returns the node with the largest key strictly less than the key.
+	 * @param key
+	 * Key being searched for.
+	 * @return
+	 * returns the node, or null if no key is smaller.
+	 */
+	Node lowerNode(K key){
+		Node best = null;
+		Node current = root;
+		
+		while(current != null && !isLeaf(current)){
+			//a smaller key is a candidate, keep looking for a larger one on the right
+			if(key.compareTo(current.key) > 0){
+				best = current;
+				current = current.rightChild;
+			}
+			else{
+				current = current.leftChild;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Returns the in-order successor of the node by following the
+	 * child and parent links, without a stack.
+	 * @param node
+	 * Node we are finding the successor of.
+	 * @return
+	 * returns the next node, or null if the node has the largest key.
+	 */
+	Node successor(Node node){
+		//the next key is the smallest one in the right sub-tree
+		if(!isLeaf(node.rightChild)){
+			node = node.rightChild;
+			while(!isLeaf(node.leftChild))
+				node = node.leftChild;
+			return node;
+		}
+		
+		//otherwise climb until we come up from a left sub-tree
+		Node parent = node.parent;
+		while(parent != null && node == parent.rightChild){
+			node = parent;
+			parent = parent.parent;
+		}
+		return parent;
+	}
+	
+	/**
+	 * Returns the in-order predecessor of the node by following the
+	 * child and parent links, without a stack.
+	 * @param node
+	 * Node we are finding the predecessor of.
+	 * @return
+	 * returns the previous node, or null if the node has the smallest key.
+	 */
+	Node predecessor(Node node){
+		//the previous key is the largest one in the left sub-tree
+		if(!isLeaf(node.leftChild))
+			return getPred(node.leftChild);
+		
+		//otherwise climb until we come up from a right sub-tree
+		Node parent = node.parent;
+		while(parent != null && node == parent.leftChild){
+			node = parent;
+			parent = parent.parent;
+		}
+		return parent;
+	}
+	
+	/**
+	 * Checks if the node holds the largest key, climbing only while it is a
+	 * right child, so for most nodes it stops after a step or two.
+	 * @param node
+	 * Node in the tree.
+	 * @return
+	 * returns true if no key is larger.
+	 */
+	private boolean isLast(Node node){
+		if(!isLeaf(node.rightChild))
+			return false;
+		
+		while(node.parent != null && node == node.parent.rightChild)
+			node = node.parent;
+		
+		return node.parent == null;
+	}
+	
+	/**
+	 * Cursor over the tree for workloads where each key is close to the
+	 * one before, such as time ordered keys or scans that step to the next
+	 * key. It remembers the last node it reached and starts every search
+	 * from there, climbing through the parents only until it reaches a
+	 * node whose sub-tree must hold the key. While the finger sits on the
+	 * largest key, adding a larger key attaches it right below without
+	 * climbing, so appends only pay for balancing, which is amortized O(1),
+	 * plus the sub-tree sizes if the tree keeps order statistics.
+	 * 
+	 * A finger is only used by one thread. If the tree is changed other
+	 * than through this finger, its next search starts from the root again.
+	 * 
+	 * @author Jacob Romero
+	 *
+	 */
+	public class Finger{
+		//last node reached, null to start from the root
+		private Node node;
+		
+		//true if the node is known to hold the largest key
+		private boolean last;
+		
+		private int expectedModCount = modCount;
+		
+		private Finger(){
+		}
+		
+		/**
+		 * Returns, but doesn't remove the value of the key, moving the finger
+		 * to it if it is in the tree.
+		 * @param key
+		 * The key used to search the tree for the node
+		 * @return
+		 * Returns the value of the key, or null if it isn't in the tree
+		 */
+		public V lookup(K key){
+			validate();
+			
+			Node found = findNode(fingerStart(node, key), key);
+			if(found == null)
+				return null;
+			
+			if(found != node){
+				node = found;
+				last = false;
+			}
+			
+			return found.value;
+		}
+		
+		/**
+		 * Add the key, value pair into the tree, moving the finger to it.
+		 * If the key is already in the tree its value is replaced.
+		 * 
+		 * @param key
+		 * Key used to find the insert position.
+		 * @param value
+		 * Value the Node will hold.
+		 */
+		public void add(K key, V value){
+			validate();
+			
+			//a key larger than the largest goes right below it
+			if(last && key.compareTo(node.key) > 0){
+				node = insert(node, key, value);
+			}
+			else{
+				node = insert(fingerStart(node, key), key, value);
+				last = isLast(node);
+			}
+			
+			expectedModCount = modCount;
+		}
+		
+		/**
+		 * Remove the node with the specified key from the tree, moving the
+		 * finger to a node next to it.
+		 * 
+		 * @param key
+		 * the key we want to find and remove from the tree.
+		 * @return
+		 * returns value of the node with the specified key that was removed.
+		 */
+		public V remove(K key){
+			validate();
+			
+			Node found = findNode(fingerStart(node, key), key);
+			if(found == null)
+				return null;
+			
+			V value = found.value;
+			node = deleteNode(found);
+			last = node != null && isLast(node);
+			expectedModCount = modCount;
+			
+			return value;
+		}
+		
+		/**
+		 * Returns the key the finger is on.
+		 * @return
+		 * returns the key, or null if the finger is at the root.
+		 */
+		public K key(){
+			validate();
+			
+			return node == null ? null : node.key;
+		}
+		
+		/**
+		 * Sends the finger back to the root if the tree was changed other
+		 * than through it, since its node may no longer be in the tree.
+		 */
+		private void validate(){
+			if(expectedModCount != modCount){
+				node = null;
+				last = false;
+				expectedModCount = modCount;
+			}
+		}
+	}
+	
+	/**
+	 * Iterator that walks from node to node through the successor or
+	 * predecessor links, stopping after an optional bound key.
+	 * Throws ConcurrentModificationException if keys are added or
+	 * removed while it is being used.
+	 * 
+	 * @author Jacob Romero
+	 *
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<K, V>>{
+		Node next;
+		final K bound;
+		final boolean descending;
+		final int expectedModCount = modCount;
+		
+		/**
+		 * Creates an iterator starting at the first node.
+		 * @param first
+		 * First node to return, or null for an empty iterator.
+		 * @param bound
+		 * Last key to return, or null to run to the end of the tree.
+		 * @param descending
+		 * true to walk from larger to smaller keys.
+		 */
+		EntryIterator(Node first, K bound, boolean descending){
+			this.bound = bound;
+			this.descending = descending;
+			next = inBound(first) ? first : null;
+		}
+		
+		public boolean hasNext(){
+			return next != null;
+		}
+		
+		public Map.Entry<K, V> next(){
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if(next == null)
+				throw new NoSuchElementException();
+			
+			Node node = next;
+			Node following = descending ? predecessor(node) : successor(node);
+			next = inBound(following) ? following : null;
+			
+			return node;
+		}
+		
+		/**
+		 * Checks that the node has not gone past the bound key.
+		 * @param node
+		 * Node being checked, may be null.
+		 * @return
+		 * returns true if the node should be returned.
+		 */
+		private boolean inBound(Node node){
+			if(node == null || bound == null)
+				return node != null;
+			
+			int cmp = node.key.compareTo(bound);
+			return descending ? cmp >= 0 : cmp <= 0;
+		}
+	}
+	
+	/**
+	 * Returns a spliterator over the entries in ascending key order that
+	 * splits at sub-tree roots. With order statistics every split knows
+	 * its exact size and reports SIZED and SUBSIZED, otherwise sizes are
+	 * estimated by halving and only the unsplit spliterator is SIZED.
+	 * @return
+	 * returns the spliterator.
+	 */
+	public Spliterator<Map.Entry<K, V>> spliterator(){
+		return new EntrySpliterator(null, null, 0, -1, modCount);
+	}
+	
+	/**
+	 * Returns a stream of the entries in ascending key order,
+	 * which can be made parallel.
+	 * @return
+	 * returns the stream.
+	 */
+	public Stream<Map.Entry<K, V>> stream(){
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	/**
+	 * Calls the action on every key and value, splitting the tree at its
+	 * sub-tree roots into tasks for the common fork/join pool. The entries
+	 * are visited in no particular order.
+	 * @param action
+	 * Called with each key and value, possibly from several threads at once.
+	 */
+	public void parallelForEach(BiConsumer<? super K, ? super V> action){
+		int expectedModCount = modCount;
+		
+		if(root != null)
+			ForkJoinPool.commonPool().invoke(new ForEachTask(root, parallelSplits(), action));
+		
+		if(modCount != expectedModCount)
+			throw new ConcurrentModificationException();
+	}
+	
+	/**
+	 * Maps every key and value to a result and combines the results in key
+	 * order, splitting the tree at its sub-tree roots into tasks for the common
+	 * fork/join pool.
+	 * @param identity
+	 * Result for an empty tree, which must not change a result it is combined with.
+	 * @param mapper
+	 * Maps a key and value to a result.
+	 * @param combiner
+	 * Combines two results, must be associative.
+	 * @return
+	 * returns the combined result of all the entries.
+	 */
+	public <R> R parallelReduce(R identity, BiFunction<? super K, ? super V, ? extends R> mapper, BinaryOperator<R> combiner){
+		int expectedModCount = modCount;
+		R result = identity;
+		
+		if(root != null)
+			result = ForkJoinPool.commonPool().invoke(new ReduceTask<R>(root, parallelSplits(), identity, mapper, combiner));
+		
+		if(modCount != expectedModCount)
+			throw new ConcurrentModificationException();
+		
+		return result;
+	}
+	
+	/**
+	 * Number of levels to split the tree at before walking sub-trees on
+	 * one thread, giving about 16 tasks for every thread of the pool.
+	 * @return
+	 * returns the number of levels.
+	 */
+	private int parallelSplits(){
+		return 32 - Integer.numberOfLeadingZeros(ForkJoinPool.getCommonPoolParallelism()) + 4;
+	}
+	
+	/**
+	 * Returns the number of keys less than the node's key by adding up
+	 * the left sub-trees on the way to the root, needs order statistics.
+	 * @param node
+	 * Node being ranked, null for the end of the tree.
+	 * @return
+	 * returns the index of the node in sorted order.
+	 */
+	private int rankOf(Node node){
+		if(node == null)
+			return count;
+		
+		int rank = node.leftChild.size;
+		
+		for(Node parent = node.parent; parent != null; node = parent, parent = parent.parent){
+			if(node == parent.rightChild)
+				rank += parent.leftChild.size + 1;
+		}
+		
+		return rank;
+	}
+	
+	/**
+	 * Spliterator over the nodes from current up to, but not including,
+	 * fence. Splitting hands the nodes before a sub-tree root to a new
+	 * spliterator, the same way java.util.TreeMap splits its entries.
+	 * 
+	 * @author Jacob Romero
+	 *
+	 */
+	private class EntrySpliterator implements Spliterator<Map.Entry<K, V>>{
+		Node current;
+		Node fence;
+		//0 for the whole tree, 1 after giving away a left part, -1 for a left part
+		int side;
+		int est;
+		int expectedModCount;
+		
+		/**
+		 * Creates a spliterator over part of the tree.
+		 * @param current
+		 * First node, null to start at the first node of the tree.
+		 * @param fence
+		 * Node after the last one, null for the end of the tree.
+		 * @param side
+		 * Which part of a split this is.
+		 * @param est
+		 * Size estimate, -1 if not yet known.
+		 * @param expectedModCount
+		 * modCount of the tree when the spliterator was made.
+		 */
+		EntrySpliterator(Node current, Node fence, int side, int est, int expectedModCount){
+			this.current = current;
+			this.fence = fence;
+			this.side = side;
+			this.est = est;
+			this.expectedModCount = expectedModCount;
+		}
+		
+		/**
+		 * Finds the first node and the size the first time they are needed.
+		 * @return
+		 * returns the size estimate.
+		 */
+		private int getEstimate(){
+			if(est < 0){
+				current = firstNode();
+				est = count;
+			}
+			return est;
+		}
+		
+		public Spliterator<Map.Entry<K, V>> trySplit(){
+			if(est < 0)
+				getEstimate();
+			
+			Node e = current;
+			Node f = fence;
+			Node s;
+			
+			//pick the sub-tree root that halves what is left
+			if(e == null || e == f)
+				s = null;
+			else if(side == 0)
+				s = root;
+			else if(side > 0)
+				s = e.rightChild;
+			else if(f != null)
+				s = f.leftChild;
+			else
+				s = null;
+			
+			if(s != null && !isLeaf(s) && s != e && s != f && e.key.compareTo(s.key) < 0){
+				side = 1;
+				current = s;
+				
+				int prefixSize;
+				if(orderStatistics){
+					prefixSize = rankOf(s) - rankOf(e);
+					est = rankOf(f) - rankOf(s);
+				}
+				else{
+					prefixSize = est >>>= 1;
+				}
+				
+				return new EntrySpliterator(e, s, -1, prefixSize, expectedModCount);
+			}
+			
+			return null;
+		}
+		
+		public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action){
+			if(est < 0)
+				getEstimate();
+			
+			Node e = current;
+			if(e == null || e == fence)
+				return false;
+			
+			current = successor(e);
+			action.accept(e);
+			
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			return true;
+		}
+		
+		public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action){
+			if(est < 0)
+				getEstimate();
+			
+			Node f = fence;
+			Node e = current;
+			current = f;
+			
+			for(; e != null && e != f; e = successor(e))
+				action.accept(e);
+			
+			if(modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+		
+		public long estimateSize(){
+			return getEstimate();
+		}
+		
+		public int characteristics(){
+			//without order statistics a split only guesses half, so only the whole tree knows its size
+			int sized = side == 0 || orderStatistics ? Spliterator.SIZED : 0;
+			if(orderStatistics)
+				sized |= Spliterator.SUBSIZED;
+			
+			return sized | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.ORDERED | Spliterator.NONNULL;
+		}
+		
+		public Comparator<? super Map.Entry<K, V>> getComparator(){
+			return Map.Entry.comparingByKey();
+		}
+	}
+	
+	/**
+	 * Fork/join task for parallelForEach(), forks the left sub-tree
+	 * and does the node and right sub-tree itself.
+	 * 
+	 * @author Jacob Romero
+	 *
+	 */
+	private class ForEachTask extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+		
+		final Node node;
+		final int splits;
+		final BiConsumer<? super K, ? super V> action;
+		
+		ForEachTask(Node node, int splits, BiConsumer<? super K, ? super V> action){
+			this.node = node;
+			this.splits = splits;
+			this.action = action;
+		}
+		
+		protected void compute(){
+			if(splits == 0){
+				visit(node);
+				return;
+			}
+			
+			ForEachTask left = null;
+			if(!isLeaf(node.leftChild)){
+				left = new ForEachTask(node.leftChild, splits - 1, action);
+				left.fork();
+			}
+			
+			action.accept(node.key, node.value);
+			
+			if(!isLeaf(node.rightChild))
+				new ForEachTask(node.rightChild, splits - 1, action).compute();
+			
+			if(left != null)
+				left.join();
+		}
+		
+		/**
+		 * Walks the rest of the sub-tree on this thread.
+		 * @param current
+		 * Root of the sub-tree.
+		 */
+		private void visit(Node current){
+			if(isLeaf(current))
+				return;
+			
+			visit(current.leftChild);
+			action.accept(current.key, current.value);
+			visit(current.rightChild);
+		}
+	}
+	
+	/**
+	 * Fork/join task for parallelReduce(), forks the left sub-tree, maps
+	 * the node and reduces the right sub-tree itself, then combines the
+	 * three in key order.
+	 * 
+	 * @author Jacob Romero
+	 *
+	 */
+	private class ReduceTask<R> extends RecursiveTask<R>{
+		private static final long serialVersionUID = 1L;
+		
+		final Node node;
+		final int splits;
+		final R identity;
+		final BiFunction<? super K, ? super V, ? extends R> mapper;
+		final BinaryOperator<R> combiner;
+		
+		ReduceTask(Node node, int splits, R identity, BiFunction<? super K, ? super V, ? extends R> mapper, BinaryOperator<R> combiner){
+			this.node = node;
+			this.splits = splits;
+			this.identity = identity;
+			this.mapper = mapper;
+			this.combiner = combiner;
+		}
+		
+		protected R compute(){
+			if(splits == 0)
+				return reduce(node);
+			
+			ReduceTask<R> left = null;
+			if(!isLeaf(node.leftChild)){
+				left = new ReduceTask<R>(node.leftChild, splits - 1, identity, mapper, combiner);
+				left.fork();
+			}
+			
+			R result = mapper.apply(node.key, node.value);
+			
+			if(!isLeaf(node.rightChild))
+				result = combiner.apply(result, new ReduceTask<R>(node.rightChild, splits - 1, identity, mapper, combiner).compute());
+			
+			if(left != null)
+				result = combiner.apply(left.join(), result);
+			
+			return result;
+		}
+		
+		/**
+		 * Reduces the rest of the sub-tree on this thread.
+		 * @param current
+		 * Root of the sub-tree.
+		 * @return
+		 * returns the combined result of the sub-tree.
+		 */
+		private R reduce(Node current){
+			if(isLeaf(current))
+				return identity;
+			
+			R result = mapper.apply(current.key, current.value);
+			
+			if(!isLeaf(current.leftChild))
+				result = combiner.apply(reduce(current.leftChild), result);
+			if(!isLeaf(current.rightChild))
+				result = combiner.apply(result, reduce(current.rightChild));
+			
+			return result;
+		}
+	}
+	
+	/**
+	 * Moves every key greater than or equal to the passed in key into a new
+	 * tree, which is returned, while this tree keeps the smaller keys. The
+	 * tree is cut along the path to the key and the pieces joined back
+	 * together, so this takes log(n) time. Needs order statistics to know how
+	 * many keys end up on each side.
+	 *
+	 * With shared leaves the new tree uses the same sentinel as this one,
+	 * which is safe since the sentinel is never written, so the two trees can
+	 * be changed from different threads.
+	 *
+	 * @param key
+	 * Smallest key of the new tree.
+	 * @return
+	 * returns a tree holding the keys from the passed in key up.
+	 */
+	public RedBlackTree<K, V> split(K key){
+		checkOrderStatistics();
+
+		RedBlackTree<K, V> right = new RedBlackTree<K, V>(nil, true, identity, combine);
+
+		if(root == null)
+			return right;
+
+		Split split = split(new Part(root, blackHeight(root)), key);
+		Part greater = split.equal == null ? split.greater : join(new Part(null, 0), split.equal, split.greater);
+
+		setRoot(split.less.root);
+		right.setRoot(greater.root);
+
+		return right;
+	}
+
+	/**
+	 * Appends the key and every key of the right tree to this tree, leaving
+	 * the right tree empty. The two trees are hung off the new key's node at
+	 * the depth where their black heights match, so this takes log(n) time.
+	 *
+	 * @param key
+	 * Key greater than every key of this tree and less than every key of the right tree.
+	 * @param value
+	 * Value the key's node will hold.
+	 * @param right
+	 * Tree whose keys are appended, created with the same order statistics setting.
+	 */
+	public void join(K key, V value, RedBlackTree<K, V> right){
+		checkJoin(right);
+
+		if(root != null && lastNode().key.compareTo(key) >= 0)
+			throw new IllegalArgumentException("Join key is not greater than every key of the left tree");
+		if(right.root != null && right.firstNode().key.compareTo(key) <= 0)
+			throw new IllegalArgumentException("Join key is not less than every key of the right tree");
+
+		Part joined = join(new Part(root, blackHeight(root)), new Node(key, value), new Part(right.root, blackHeight(right.root)));
+
+		count += right.count + 1;
+		setRoot(joined.root);
+		right.clear();
+	}
+
+	/**
+	 * Appends every key of the right tree to this tree, leaving the right
+	 * tree empty, in log(n) time.
+	 *
+	 * @param right
+	 * Tree whose keys are all greater than the keys of this tree, created
+	 * with the same order statistics setting.
+	 */
+	public void join(RedBlackTree<K, V> right){
+		checkJoin(right);
+
+		if(root != null && right.root != null && lastNode().key.compareTo(right.firstNode().key) >= 0)
+			throw new IllegalArgumentException("Keys of the right tree are not all greater than the keys of the left tree");
+
+		Part joined = join(new Part(root, blackHeight(root)), new Part(right.root, blackHeight(right.root)));
+
+		count += right.count;
+		setRoot(joined.root);
+		right.clear();
+	}
+
+	/**
+	 * Removes every key between lo and hi, both inclusive, by splitting the
+	 * range out of the tree and joining what is left, in log(n) time. Needs
+	 * order statistics.
+	 *
+	 * @param lo
+	 * Lowest key of the range.
+	 * @param hi
+	 * Highest key of the range.
+	 * @return
+	 * returns the number of keys removed.
+	 */
+	public int removeRange(K lo, K hi){
+		checkOrderStatistics();
+
+		if(root == null || lo.compareTo(hi) > 0)
+			return 0;
+
+		int before = count;
+		Split low = split(new Part(root, blackHeight(root)), lo);
+		Split high = split(low.greater, hi);
+
+		setRoot(join(low.less, high.greater).root);
+
+		return before - count;
+	}
+
+	/**
+	 * Adds every key of the other tree to this one, replacing the values of
+	 * keys in both. This tree is split around the root of the other and the
+	 * halves are combined with its sub-trees, forking the two sides off to the
+	 * common fork/join pool, so a small tree is merged into a big one in
+	 * O(m log(n/m)) time. Needs order statistics, and the other tree must not
+	 * change while this runs.
+	 *
+	 * @param other
+	 * Tree whose keys are added, left unchanged.
+	 */
+	public void union(RedBlackTree<K, V> other){
+		combine(SetOperation.union, other);
+	}
+
+	/**
+	 * Removes every key that is not also in the other tree, keeping the
+	 * values of this tree, the same way union() works. Needs order statistics.
+	 *
+	 * @param other
+	 * Tree whose keys are kept, left unchanged.
+	 */
+	public void intersection(RedBlackTree<K, V> other){
+		combine(SetOperation.intersection, other);
+	}
+
+	/**
+	 * Removes every key that is in the other tree, the same way union()
+	 * works. Needs order statistics.
+	 *
+	 * @param other
+	 * Tree whose keys are removed, left unchanged.
+	 */
+	public void difference(RedBlackTree<K, V> other){
+		combine(SetOperation.difference, other);
+	}
+
+	/**
+	 * Does the work of union(), intersection() and difference().
+	 * @param operation
+	 * The set operation being done.
+	 * @param other
+	 * The other tree, which is only read.
+	 */
+	private void combine(SetOperation operation, RedBlackTree<K, V> other){
+		checkOrderStatistics();
+
+		//the walk below takes this tree apart, so it can't read it at the same time
+		if(other == this){
+			if(operation == SetOperation.difference){
+				clear();
+			}
+			return;
+		}
+
+		Part tree = new Part(root, blackHeight(root));
+		int splits = count + other.count < PARALLEL_THRESHOLD ? 0 : parallelSplits();
+
+		if(splits == 0)
+			tree = combine(operation, tree, other.root, 0);
+		else
+			tree = ForkJoinPool.commonPool().invoke(new SetTask(operation, tree, other.root, splits));
+
+		setRoot(tree.root);
+	}
+
+	/**
+	 * Helper method for combine(), splits the part around the other
+	 * sub-tree's root, combines the halves with its two sub-trees and joins
+	 * the results back together.
+	 * @param operation
+	 * The set operation being done.
+	 * @param tree
+	 * Part of this tree, taken apart by the call.
+	 * @param other
+	 * Sub-tree of the other tree, or a null leaf.
+	 * @param splits
+	 * Number of levels left to fork the two sides off as separate tasks.
+	 * @return
+	 * returns the combined part.
+	 */
+	private Part combine(SetOperation operation, Part tree, Node other, int splits){
+		if(other == null || other.key == null)
+			return operation == SetOperation.intersection ? new Part(null, 0) : tree;
+
+		if(tree.root == null){
+			if(operation != SetOperation.union)
+				return tree;
+
+			Node copy = copy(other, null);
+			return new Part(copy, blackHeight(copy));
+		}
+
+		Split split = split(tree, other.key);
+		Part less;
+		Part greater;
+
+		if(splits > 0){
+			SetTask task = new SetTask(operation, split.less, other.leftChild, splits - 1);
+			task.fork();
+			greater = combine(operation, split.greater, other.rightChild, splits - 1);
+			less = task.join();
+		}
+		else{
+			less = combine(operation, split.less, other.leftChild, 0);
+			greater = combine(operation, split.greater, other.rightChild, 0);
+		}
+
+		Node equal = split.equal;
+
+		if(operation == SetOperation.union){
+			if(equal == null)
+				equal = new Node(other.key, other.value);
+			else
+				equal.value = other.value;
+		}
+		else if(operation == SetOperation.difference){
+			equal = null;
+		}
+
+		return equal == null ? join(less, greater) : join(less, equal, greater);
+	}
+
+	/**
+	 * Copies a sub-tree of another tree, keeping its shape and colors.
+	 * @param other
+	 * Root of the sub-tree being copied.
+	 * @param parent
+	 * Parent of the copy.
+	 * @return
+	 * returns the root of the copy, or a null leaf if the sub-tree is empty.
+	 */
+	private Node copy(Node other, Node parent){
+		if(other.key == null)
+			return addLeaf(parent);
+
+		Node node = new Node(other.key, other.value, other.color, parent);
+		node.leftChild = copy(other.leftChild, node);
+		node.rightChild = copy(other.rightChild, node);
+		update(node);
+
+		return node;
+	}
+
+	/**
+	 * Cuts a part into the keys less than the key, the node holding the key
+	 * if there is one, and the keys greater than it. The sub-trees hanging
+	 * off the path to the key are joined together from the bottom up.
+	 * @param tree
+	 * The part being split, taken apart by the call.
+	 * @param key
+	 * Key to split around.
+	 * @return
+	 * returns the three pieces.
+	 */
+	private Split split(Part tree, K key){
+		Node node = tree.root;
+
+		if(node == null)
+			return new Split(new Part(null, 0), null, new Part(null, 0));
+
+		int childHeight = tree.height - (node.color == Colors.black ? 1 : 0);
+		Part left = new Part(detach(node.leftChild), childHeight);
+		Part right = new Part(detach(node.rightChild), childHeight);
+
+		int cmp = key.compareTo(node.key);
+
+		if(cmp == 0)
+			return new Split(left, node, right);
+
+		Split split;
+
+		//the node and the sub-tree on the other side go with the matching half
+		if(cmp < 0){
+			split = split(left, key);
+			split.greater = join(split.greater, node, right);
+		}
+		else{
+			split = split(right, key);
+			split.less = join(left, node, split.less);
+		}
+
+		return split;
+	}
+
+	/**
+	 * Cuts the node with the largest key off a part, which must not be empty.
+	 * @param tree
+	 * The part being split, taken apart by the call.
+	 * @return
+	 * returns the last node as the equal piece and the rest as the lesser piece.
+	 */
+	private Split splitLast(Part tree){
+		Node node = tree.root;
+		int childHeight = tree.height - (node.color == Colors.black ? 1 : 0);
+		Part left = new Part(detach(node.leftChild), childHeight);
+
+		if(isLeaf(node.rightChild))
+			return new Split(left, node, null);
+
+		Split split = splitLast(new Part(detach(node.rightChild), childHeight));
+		split.less = join(left, node, split.less);
+
+		return split;
+	}
+
+	/**
+	 * Joins two parts where every key of the left is less than every key of
+	 * the right, using the last node of the left as the middle node.
+	 * @param left
+	 * The part with the smaller keys.
+	 * @param right
+	 * The part with the greater keys.
+	 * @return
+	 * returns the joined part.
+	 */
+	private Part join(Part left, Part right){
+		if(left.root == null)
+			return right;
+		if(right.root == null)
+			return left;
+
+		Split split = splitLast(left);
+		return join(split.less, split.equal, right);
+	}
+
+	/**
+	 * Joins two parts and a middle node, where the node's key is between the
+	 * keys of the two parts. If one part is taller, the middle node goes in
+	 * red on its inner spine at the first black node as tall as the other
+	 * part, taking that node and the other part as its children, and any red
+	 * violation is fixed the same way as after an add. The work is only in
+	 * proportion to the difference in black heights.
+	 *
+	 * Rotations at the top of a part also point root at it while this runs,
+	 * so callers set root once they are done.
+	 * @param left
+	 * The part with the smaller keys.
+	 * @param pivot
+	 * The middle node, its old links are ignored.
+	 * @param right
+	 * The part with the greater keys.
+	 * @return
+	 * returns the joined part.
+	 */
+	private Part join(Part left, Node pivot, Part right){
+		Node leftRoot = left.root;
+		Node rightRoot = right.root;
+		int leftHeight = left.height;
+		int rightHeight = right.height;
+
+		//a red root can be made black, adding one to its black height
+		if(leftRoot != null && leftRoot.color == Colors.red){
+			leftRoot.color = Colors.black;
+			leftHeight++;
+		}
+		if(rightRoot != null && rightRoot.color == Colors.red){
+			rightRoot.color = Colors.black;
+			rightHeight++;
+		}
+
+		pivot.parent = null;
+
+		//equal heights, the middle node becomes the new black root
+		if(leftHeight == rightHeight){
+			pivot.color = Colors.black;
+			setChildren(pivot, leftRoot, rightRoot);
+
+			if(augmented)
+				update(pivot);
+
+			return new Part(pivot, leftHeight + 1);
+		}
+
+		Node parent = null;
+		int height;
+
+		if(leftHeight > rightHeight){
+			//walk down the right spine of the left part to a black node as tall as the right part
+			Node current = leftRoot;
+			height = leftHeight;
+
+			while(height > rightHeight || current.color == Colors.red){
+				if(current.color == Colors.black)
+					height--;
+
+				parent = current;
+				current = current.rightChild;
+			}
+
+			setChildren(pivot, isLeaf(current) ? null : current, rightRoot);
+			parent.rightChild = pivot;
+		}
+		else{
+			//walk down the left spine of the right part to a black node as tall as the left part
+			Node current = rightRoot;
+			height = rightHeight;
+
+			while(height > leftHeight || current.color == Colors.red){
+				if(current.color == Colors.black)
+					height--;
+
+				parent = current;
+				current = current.leftChild;
+			}
+
+			setChildren(pivot, leftRoot, isLeaf(current) ? null : current);
+			parent.leftChild = pivot;
+		}
+
+		pivot.parent = parent;
+		pivot.color = Colors.red;
+
+		//every sub-tree above the middle node now holds its keys as well
+		if(augmented){
+			update(pivot);
+			updatePath(parent);
+		}
+
+		//go through balance cases
+		addCase1(pivot);
+
+		//climb to the new top, counting the black nodes on the way
+		Node top = pivot;
+		for(Node node = pivot; node != null; node = node.parent){
+			if(node.color == Colors.black)
+				height++;
+			top = node;
+		}
+
+		return new Part(top, height);
+	}
+
+	/**
+	 * Hangs two sub-trees off a node, giving it null leaves where they are empty.
+	 * @param node
+	 * The new parent.
+	 * @param left
+	 * New left sub-tree, or null if it is empty.
+	 * @param right
+	 * New right sub-tree, or null if it is empty.
+	 */
+	private void setChildren(Node node, Node left, Node right){
+		node.leftChild = left != null ? left : addLeaf(node);
+		node.rightChild = right != null ? right : addLeaf(node);
+
+		if(left != null)
+			left.parent = node;
+		if(right != null)
+			right.parent = node;
+	}
+
+	/**
+	 * Cuts a sub-tree loose from its parent.
+	 * @param node
+	 * Root of the sub-tree.
+	 * @return
+	 * returns the node, or null if it is a null leaf.
+	 */
+	private Node detach(Node node){
+		if(isLeaf(node))
+			return null;
+
+		node.parent = null;
+		return node;
+	}
+
+	/**
+	 * Returns the number of black nodes on the way down from the node to a
+	 * null leaf, not counting the leaf.
+	 * @param node
+	 * Root of a sub-tree, may be null.
+	 * @return
+	 * returns the black height of the sub-tree.
+	 */
+	private int blackHeight(Node node){
+		int height = 0;
+
+		for(; node != null && !isLeaf(node); node = node.leftChild){
+			if(node.color == Colors.black)
+				height++;
+		}
+
+		return height;
+	}
+
+	/**
+	 * Makes the node the root of the tree after it was split or joined,
+	 * recounting the keys if the tree keeps sub-tree sizes.
+	 * @param node
+	 * The new root, or null if the tree is now empty.
+	 */
+	private void setRoot(Node node){
+		root = node;
+
+		if(node != null){
+			node.parent = null;
+			node.color = Colors.black;
+		}
+
+		if(orderStatistics)
+			count = node == null ? 0 : node.size;
+		modCount++;
+	}
+
+	/**
+	 * Empties the tree.
+	 */
+	private void clear(){
+		root = null;
+		count = 0;
+		modCount++;
+	}
+
+	/**
+	 * Throws an exception if the tree can't be joined onto this one.
+	 * @param right
+	 * The tree being joined.
+	 */
+	private void checkJoin(RedBlackTree<K, V> right){
+		if(right == this)
+			throw new IllegalArgumentException("Can't join a tree to itself");
+		if(right.orderStatistics != orderStatistics)
+			throw new IllegalArgumentException("Trees must both keep order statistics or neither");
+		if(right.combine != combine)
+			throw new IllegalArgumentException("Trees must keep the same aggregate or neither");
+	}
+
+	/**
+	 * A sub-tree cut loose while trees are split and joined, along with
+	 * its black height.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class Part{
+		//root of the sub-tree, null if it is empty
+		final Node root;
+		final int height;
+
+		Part(Node root, int height){
+			this.root = root;
+			this.height = height;
+		}
+	}
+
+	/**
+	 * The pieces a part is split into around a key.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class Split{
+		Part less;
+		//node holding the key, or null if it isn't in the part
+		Node equal;
+		Part greater;
+
+		Split(Part less, Node equal, Part greater){
+			this.less = less;
+			this.equal = equal;
+			this.greater = greater;
+		}
+	}
+
+	/**
+	 * Set operations done by combine().
+	 */
+	private enum SetOperation{
+		union,
+		intersection,
+		difference;
+	}
+
+	/**
+	 * Fork/join task for combine(), combines a part of this tree with
+	 * a sub-tree of the other.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class SetTask extends RecursiveTask<Part>{
+		private static final long serialVersionUID = 1L;
+
+		final SetOperation operation;
+		final Part tree;
+		final Node other;
+		final int splits;
+
+		SetTask(SetOperation operation, Part tree, Node other, int splits){
+			this.operation = operation;
+			this.tree = tree;
+			this.other = other;
+			this.splits = splits;
+		}
+
+		protected Part compute(){
+			return combine(operation, tree, other, splits);
+		}
+	}
+
+	/**
+	 * Add a null black leaf to the passed
+	 * in node, or hand out the shared sentinel.
+	 * @param parent
+	 * The node we want to add to the null leaf to
+	 * @return
+	 * returns the node that is created
+	 */
+	private Node addLeaf(Node parent){
+		//hand out the shared sentinel if there is one
+		if(nil != null)
+			return nil;
+		
+		//otherwise simply create new node and return it
+		return new Node(null, null, parent);
+	}
+	
+	/**
+	 * Checks if the node is a null leaf, either the shared sentinel or
+	 * a leaf created for a single node. The parent of a null leaf is only
+	 * meaningful while a removal is being balanced.
+	 * @param node
+	 * The node being checked.
+	 * @return
+	 * returns true if the node holds no key.
+	 */
+	private boolean isLeaf(Node node){
+		return node.key == null;
+	}
+	
+	/**
+	 * Print the tree sideways, one node per line in order, indented by depth,
+	 * so the right sub-tree is above its parent and the left one below.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString() {
+		StringBuilder str = new StringBuilder();
+
+		try{
+			print(str);
+		}
+		//a StringBuilder never throws
+		catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+
+		return str.toString();
+	}
+	
+	/**
+	 * Streams the same text as toPrettyString() to the output, without
+	 * building it in memory first. Only real nodes are visited, so it takes
+	 * time linear in the size of the tree.
+	 * 
+	 * @param out
+	 * Where the tree is printed to.
+	 * @throws IOException
+	 * if the output can't be written to.
+	 */
+	public void print(Appendable out) throws IOException {
+		print(out, null, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Streams the sub-tree of a key to the output as text, stopping at a
+	 * depth. Each sub-tree below the depth is printed as a single line of
+	 * "...", with the number of keys in it when the tree keeps order statistics.
+	 * 
+	 * @param out
+	 * Where the tree is printed to.
+	 * @param from
+	 * Key whose node is printed at the top, or null for the whole tree.
+	 * @param maxDepth
+	 * Deepest level printed, 0 prints only the top node.
+	 * @throws IOException
+	 * if the output can't be written to.
+	 * @throws NoSuchElementException
+	 * if the key isn't in the tree.
+	 */
+	public void print(Appendable out, K from, int maxDepth) throws IOException {
+		render(out, from, maxDepth, RenderFormat.text);
+	}
+	
+	/**
+	 * Streams the sub-tree of a key to the output as a Graphviz DOT graph,
+	 * stopping at a depth. Each sub-tree below the depth becomes a single
+	 * "..." node.
+	 * 
+	 * @param out
+	 * Where the graph is written to.
+	 * @param from
+	 * Key whose node is the top of the graph, or null for the whole tree.
+	 * @param maxDepth
+	 * Deepest level written, 0 writes only the top node.
+	 * @throws IOException
+	 * if the output can't be written to.
+	 * @throws NoSuchElementException
+	 * if the key isn't in the tree.
+	 */
+	public void exportDot(Appendable out, K from, int maxDepth) throws IOException {
+		render(out, from, maxDepth, RenderFormat.dot);
+	}
+	
+	/**
+	 * Streams the sub-tree of a key to the output as nested JSON objects
+	 * holding key, value, color, left and right, stopping at a depth. Each
+	 * sub-tree below the depth becomes {"truncated": n}, where n is the
+	 * number of keys in it, or -1 if the tree doesn't keep order statistics.
+	 * Keys and values are written as strings.
+	 * 
+	 * @param out
+	 * Where the JSON is written to.
+	 * @param from
+	 * Key whose node is the top object, or null for the whole tree.
+	 * @param maxDepth
+	 * Deepest level written, 0 writes only the top node.
+	 * @throws IOException
+	 * if the output can't be written to.
+	 * @throws NoSuchElementException
+	 * if the key isn't in the tree.
+	 */
+	public void exportJson(Appendable out, K from, int maxDepth) throws IOException {
+		render(out, from, maxDepth, RenderFormat.json);
+	}
+	
+	/**
+	 * Helper method for print(), exportDot() and exportJson(), finds the
+	 * top node and writes the parts around the nodes.
+	 */
+	private void render(Appendable out, K from, int maxDepth, RenderFormat format) throws IOException {
+		if(maxDepth < 0)
+			throw new IllegalArgumentException("Depth can't be negative, got " + maxDepth);
+		
+		Node top = root;
+		if(from != null){
+			top = findNode(from);
+			if(top == null)
+				throw new NoSuchElementException("Key " + from + " isn't in the tree");
+		}
+		
+		switch(format){
+		case text:
+			printNode(out, top, 0, maxDepth);
+			break;
+		case dot:
+			out.append("digraph tree {\n\tnode [style=filled, fontcolor=white];\n");
+			dotNode(out, top, 0, maxDepth, new int[1]);
+			out.append("}\n");
+			break;
+		case json:
+			jsonNode(out, top, 0, maxDepth);
+			out.append('\n');
+			break;
+		}
+	}
+	
+	/**
+	 * Helper method for print(), prints the right sub-tree, then the node,
+	 * then the left sub-tree.
+	 * 
+	 * @param out
+	 * Where the tree is printed to.
+	 * @param node
+	 * The node being printed.
+	 * @param depth
+	 * The depth of the node below the top node.
+	 * @param maxDepth
+	 * Deepest level printed.
+	 */
+	private void printNode(Appendable out, Node node, int depth, int maxDepth) throws IOException {
+		if(node == null || isLeaf(node))
+			return;
+		
+		if(depth > maxDepth){
+			indent(out, depth);
+			out.append("...");
+			if(orderStatistics)
+				out.append(" (").append(Integer.toString(node.size)).append(" keys)");
+			out.append('\n');
+			return;
+		}
+		
+		printNode(out, node.rightChild, depth + 1, maxDepth);
+		
+		indent(out, depth);
+		out.append(String.valueOf(node.value)).append(" - ").append(node.color.name()).append('\n');
+		
+		printNode(out, node.leftChild, depth + 1, maxDepth);
+	}
+	
+	/**
+	 * Helper method for printNode(), indents a line by the depth of its node.
+	 */
+	private static void indent(Appendable out, int depth) throws IOException {
+		for(int i = 0; i < depth; i++)
+			out.append("    ");
+	}
+	
+	/**
+	 * Helper method for exportDot(), writes the node, the edges to its
+	 * children, then its sub-trees.
+	 * 
+	 * @param out
+	 * Where the graph is written to.
+	 * @param node
+	 * The node being written.
+	 * @param depth
+	 * The depth of the node below the top node.
+	 * @param maxDepth
+	 * Deepest level written.
+	 * @param ids
+	 * Holds the number of nodes written so far, used to name them.
+	 * @return
+	 * returns the name of the node, or -1 for a null leaf.
+	 */
+	private int dotNode(Appendable out, Node node, int depth, int maxDepth, int[] ids) throws IOException {
+		if(node == null || isLeaf(node))
+			return -1;
+		
+		int id = ids[0]++;
+		out.append("\tn").append(Integer.toString(id));
+		
+		if(depth > maxDepth){
+			out.append(" [label=\"...");
+			if(orderStatistics)
+				out.append(' ').append(Integer.toString(node.size)).append(" keys");
+			out.append("\", shape=plaintext, style=solid, fontcolor=black];\n");
+			return id;
+		}
+		
+		out.append(" [label=\"");
+		escape(out, String.valueOf(node.key), false);
+		out.append("\\n");
+		escape(out, String.valueOf(node.value), false);
+		out.append("\", fillcolor=").append(node.color.name()).append("];\n");
+		
+		int left = dotNode(out, node.leftChild, depth + 1, maxDepth, ids);
+		int right = dotNode(out, node.rightChild, depth + 1, maxDepth, ids);
+		
+		if(left >= 0)
+			out.append("\tn").append(Integer.toString(id)).append(" -> n").append(Integer.toString(left)).append(";\n");
+		if(right >= 0)
+			out.append("\tn").append(Integer.toString(id)).append(" -> n").append(Integer.toString(right)).append(";\n");
+		
+		return id;
+	}
+	
+	/**
+	 * Helper method for exportJson(), writes the node and its sub-trees.
+	 * 
+	 * @param out
+	 * Where the JSON is written to.
+	 * @param node
+	 * The node being written.
+	 * @param depth
+	 * The depth of the node below the top node.
+	 * @param maxDepth
+	 * Deepest level written.
+	 */
+	private void jsonNode(Appendable out, Node node, int depth, int maxDepth) throws IOException {
+		if(node == null || isLeaf(node)){
+			out.append("null");
+			return;
+		}
+		
+		if(depth > maxDepth){
+			out.append("{\"truncated\":").append(Integer.toString(orderStatistics ? node.size : -1)).append('}');
+			return;
+		}
+		
+		out.append("{\"key\":\"");
+		escape(out, String.valueOf(node.key), true);
+		out.append("\",\"value\":\"");
+		escape(out, String.valueOf(node.value), true);
+		out.append("\",\"color\":\"").append(node.color.name()).append("\",\"left\":");
+		jsonNode(out, node.leftChild, depth + 1, maxDepth);
+		out.append(",\"right\":");
+		jsonNode(out, node.rightChild, depth + 1, maxDepth);
+		out.append('}');
+	}
+	
+	/**
+	 * Writes text inside a quoted DOT or JSON string, escaping the
+	 * characters that would end or break it.
+	 * 
+	 * @param out
+	 * Where the text is written to.
+	 * @param text
+	 * The text being written.
+	 * @param json
+	 * true to escape for JSON, false for DOT.
+	 */
+	private static void escape(Appendable out, String text, boolean json) throws IOException {
+		for(int i = 0; i < text.length(); i++){
+			char c = text.charAt(i);
+			
+			if(c == '"' || c == '\\')
+				out.append('\\').append(c);
+			else if(c == '\n')
+				out.append("\\n");
+			else if(c < 0x20 && json)
+				out.append(String.format("\\u%04x", (int) c));
+			else if(c >= 0x20)
+				out.append(c);
+		}
+	}
+	
+	/**
+	 * Finds the largest depth of the tree using 
+	 * Depth first traversal
+	 * @return
+	 * returns number of levels the tree has
+	 */
+	public int maxLevel(Node node) {
+        if (node == null)
+            return 0;
+
+        return Math.max(maxLevel(node.leftChild), maxLevel(node.rightChild)) + 1;
+    }
+
+	/**
+	 * Enum for the two colors a node can possible have
+	 * @author Jacob Romero
 	 *
 	 */
 	private enum Colors{
@@ -777,6 +3248,17 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 		red;
 	}
 	
+	/**
+	 * Enum for the formats the tree can be rendered in
+	 * @author Jacob Romero
+	 *
+	 */
+	private enum RenderFormat{
+		text,
+		dot,
+		json;
+	}
+	
 	/**
 	 * Inner class for tree nodes.
 	 * 
@@ -787,17 +3269,20 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 	 *	-parent
 	 *	-key
 	 *	-value
+	 *	-size, the number of keys in the sub-tree, kept up to date only with order statistics
 	 *
 	 * @author Jacob Romero
 	 *
 	 */
-	class Node{
+	class Node implements Map.Entry<K, V>{
 		Colors color = Colors.red;
 		Node leftChild;
 		Node rightChild;
 		Node parent = null;
 		K key;
 		V value;
+		int size;
+		V aggregate;
 		
 		//constructors for creating nodes
 		
@@ -864,6 +3349,46 @@ public class RedBlackTree<K extends Comparable<K>, V>// implements Tree<K, V> {
 			color = addCol;
 			parent = addParent;
 		}
+		
+		//Map.Entry methods, so nodes can be handed out by iterators
+		
+		public K getKey() {
+			return key;
+		}
+		
+		public V getValue() {
+			return value;
+		}
+		
+		public V setValue(V newValue) {
+			V oldValue = value;
+			value = newValue;
+			
+			//the aggregates of the sub-trees holding the node change with it
+			if(combine != null)
+				updatePath(this);
+			
+			return oldValue;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return (key == null ? e.getKey() == null : key.equals(e.getKey()))
+					&& (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+		
+		@Override
+		public int hashCode() {
+			return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+		
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
 	}
 	
 }
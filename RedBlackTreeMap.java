@@ -0,0 +1,824 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * NavigableMap view of the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Lets a RedBlackTree be used as a java.util.NavigableMap without copying
+ * it. Every read and write goes straight to the tree, and the sub-maps,
+ * descending map and key sets are views of the same tree with bounds
+ * and a direction, so changes through any of them show up in all.
+ *
+ * The nearest key lookups, such as floorKey() and ceilingEntry(), walk
+ * down the tree once. The key lookups allocate nothing, while the entry
+ * lookups, like firstEntry() and pollFirstEntry(), return immutable
+ * copies, since a remove can move another key into the node they found.
+ *
+ * Keys are ordered by their natural ordering, null keys are not allowed.
+ * Like the tree, the map isn't thread-safe, and its iterators throw
+ * ConcurrentModificationException if the tree is changed other than
+ * through them.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class RedBlackTreeMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+	private final RedBlackTree<K, V> tree;
+
+	//bounds of the view, in the tree's ascending order, unused if the view runs to that end
+	private final boolean fromStart;
+	private final K lo;
+	private final boolean loInclusive;
+	private final boolean toEnd;
+	private final K hi;
+	private final boolean hiInclusive;
+
+	//true if the view runs from larger to smaller keys
+	private final boolean descending;
+
+	//views created on first use
+	private EntrySet entrySet;
+	private KeySet keySet;
+
+	/**
+	 * Creates a map over a new empty tree that uses a shared sentinel for
+	 * its null leaves.
+	 */
+	public RedBlackTreeMap(){
+		this(new RedBlackTree<K, V>(true));
+	}
+
+	/**
+	 * Creates a map over the tree, without copying it.
+	 *
+	 * @param tree
+	 * Tree the map reads and writes.
+	 */
+	public RedBlackTreeMap(RedBlackTree<K, V> tree){
+		this(tree, true, null, true, true, null, true, false);
+	}
+
+	/**
+	 * Creates a view of the tree between the bounds.
+	 */
+	private RedBlackTreeMap(RedBlackTree<K, V> tree, boolean fromStart, K lo, boolean loInclusive, boolean toEnd, K hi, boolean hiInclusive, boolean descending){
+		if(!fromStart && !toEnd && lo.compareTo(hi) > 0)
+			throw new IllegalArgumentException("fromKey > toKey");
+
+		this.tree = tree;
+		this.fromStart = fromStart;
+		this.lo = lo;
+		this.loInclusive = loInclusive;
+		this.toEnd = toEnd;
+		this.hi = hi;
+		this.hiInclusive = hiInclusive;
+		this.descending = descending;
+	}
+
+	/**
+	 * Returns the tree the map reads and writes.
+	 * @return
+	 * returns the tree.
+	 */
+	public RedBlackTree<K, V> tree(){
+		return tree;
+	}
+
+	//Map methods
+
+	public int size(){
+		if(fromStart && toEnd)
+			return tree.size();
+
+		//two walks down the tree if it keeps sub-tree sizes
+		if(tree.orderStatistics){
+			int above = toEnd ? tree.size() : tree.rank(hi, hiInclusive);
+			int below = fromStart ? 0 : tree.rank(lo, !loInclusive);
+
+			return Math.max(0, above - below);
+		}
+
+		int size = 0;
+		for(Iterator<Map.Entry<K, V>> entries = new EntryIterator(first(), descending); entries.hasNext(); entries.next())
+			size++;
+
+		return size;
+	}
+
+	public boolean isEmpty(){
+		return first() == null;
+	}
+
+	public boolean containsKey(Object key){
+		return node(key) != null;
+	}
+
+	public V get(Object key){
+		RedBlackTree<K, V>.Node node = node(key);
+
+		return node == null ? null : node.value;
+	}
+
+	public V put(K key, V value){
+		if(!inRange(checkKey(key)))
+			throw new IllegalArgumentException("Key out of range");
+
+		RedBlackTree<K, V>.Node node = tree.findNode(key);
+		if(node != null)
+			return node.setValue(value);
+
+		tree.add(key, value);
+
+		return null;
+	}
+
+	public V remove(Object key){
+		RedBlackTree<K, V>.Node node = node(key);
+		if(node == null)
+			return null;
+
+		V value = node.value;
+		tree.deleteNode(node);
+
+		return value;
+	}
+
+	public void clear(){
+		if(fromStart && toEnd){
+			tree.buildFromSorted(Collections.<Map.Entry<K, V>>emptyIterator());
+			return;
+		}
+
+		for(Iterator<Map.Entry<K, V>> entries = new EntryIterator(first(), descending); entries.hasNext();){
+			entries.next();
+			entries.remove();
+		}
+	}
+
+	public Set<Map.Entry<K, V>> entrySet(){
+		if(entrySet == null)
+			entrySet = new EntrySet();
+
+		return entrySet;
+	}
+
+	public Set<K> keySet(){
+		return navigableKeySet();
+	}
+
+	//SortedMap methods
+
+	public Comparator<? super K> comparator(){
+		return descending ? Collections.reverseOrder() : null;
+	}
+
+	public K firstKey(){
+		return key(first());
+	}
+
+	public K lastKey(){
+		return key(last());
+	}
+
+	public SortedMap<K, V> subMap(K fromKey, K toKey){
+		return subMap(fromKey, true, toKey, false);
+	}
+
+	public SortedMap<K, V> headMap(K toKey){
+		return headMap(toKey, false);
+	}
+
+	public SortedMap<K, V> tailMap(K fromKey){
+		return tailMap(fromKey, true);
+	}
+
+	//NavigableMap methods
+
+	public Map.Entry<K, V> lowerEntry(K key){
+		return export(lower(key));
+	}
+
+	public K lowerKey(K key){
+		return keyOrNull(lower(key));
+	}
+
+	public Map.Entry<K, V> floorEntry(K key){
+		return export(floor(key));
+	}
+
+	public K floorKey(K key){
+		return keyOrNull(floor(key));
+	}
+
+	public Map.Entry<K, V> ceilingEntry(K key){
+		return export(ceiling(key));
+	}
+
+	public K ceilingKey(K key){
+		return keyOrNull(ceiling(key));
+	}
+
+	public Map.Entry<K, V> higherEntry(K key){
+		return export(higher(key));
+	}
+
+	public K higherKey(K key){
+		return keyOrNull(higher(key));
+	}
+
+	public Map.Entry<K, V> firstEntry(){
+		return export(first());
+	}
+
+	public Map.Entry<K, V> lastEntry(){
+		return export(last());
+	}
+
+	public Map.Entry<K, V> pollFirstEntry(){
+		return poll(first());
+	}
+
+	public Map.Entry<K, V> pollLastEntry(){
+		return poll(last());
+	}
+
+	public NavigableMap<K, V> descendingMap(){
+		return new RedBlackTreeMap<K, V>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+	}
+
+	public NavigableSet<K> navigableKeySet(){
+		if(keySet == null)
+			keySet = new KeySet();
+
+		return keySet;
+	}
+
+	public NavigableSet<K> descendingKeySet(){
+		return descendingMap().navigableKeySet();
+	}
+
+	public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive){
+		checkKey(fromKey);
+		checkKey(toKey);
+
+		if(descending)
+			return bounded(toKey, toInclusive, fromKey, fromInclusive);
+
+		return bounded(fromKey, fromInclusive, toKey, toInclusive);
+	}
+
+	public NavigableMap<K, V> headMap(K toKey, boolean inclusive){
+		checkKey(toKey);
+
+		return descending ? bounded(toKey, inclusive, null, false) : bounded(null, false, toKey, inclusive);
+	}
+
+	public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive){
+		checkKey(fromKey);
+
+		return descending ? bounded(null, false, fromKey, inclusive) : bounded(fromKey, inclusive, null, false);
+	}
+
+	/**
+	 * Creates a view inside this one, with bounds in the tree's ascending
+	 * order and the same direction.
+	 *
+	 * @param from
+	 * Lower bound, or null to keep this view's.
+	 * @param fromInclusive
+	 * true if the lower bound is in the view.
+	 * @param to
+	 * Upper bound, or null to keep this view's.
+	 * @param toInclusive
+	 * true if the upper bound is in the view.
+	 * @return
+	 * returns the view.
+	 */
+	private NavigableMap<K, V> bounded(K from, boolean fromInclusive, K to, boolean toInclusive){
+		if(from != null && !inRange(from, fromInclusive))
+			throw new IllegalArgumentException("fromKey out of range");
+		if(to != null && !inRange(to, toInclusive))
+			throw new IllegalArgumentException("toKey out of range");
+
+		if(from == null){
+			from = lo;
+			fromInclusive = loInclusive;
+		}
+		if(to == null){
+			to = hi;
+			toInclusive = hiInclusive;
+		}
+
+		return new RedBlackTreeMap<K, V>(tree, from == null, from, fromInclusive, to == null, to, toInclusive, descending);
+	}
+
+	//nearest nodes inside the bounds, in the tree's ascending order
+
+	/**
+	 * Returns the node with the smallest key in the view.
+	 */
+	private RedBlackTree<K, V>.Node absLowest(){
+		RedBlackTree<K, V>.Node node = fromStart ? tree.firstNode() : loInclusive ? tree.ceilingNode(lo) : tree.higherNode(lo);
+
+		return node == null || tooHigh(node.key) ? null : node;
+	}
+
+	/**
+	 * Returns the node with the largest key in the view.
+	 */
+	private RedBlackTree<K, V>.Node absHighest(){
+		RedBlackTree<K, V>.Node node = toEnd ? tree.lastNode() : hiInclusive ? tree.floorNode(hi) : tree.lowerNode(hi);
+
+		return node == null || tooLow(node.key) ? null : node;
+	}
+
+	/**
+	 * Returns the node in the view with the smallest key at least the key.
+	 */
+	private RedBlackTree<K, V>.Node absCeiling(K key){
+		if(tooLow(key))
+			return absLowest();
+
+		RedBlackTree<K, V>.Node node = tree.ceilingNode(key);
+
+		return node == null || tooHigh(node.key) ? null : node;
+	}
+
+	/**
+	 * Returns the node in the view with the smallest key above the key.
+	 */
+	private RedBlackTree<K, V>.Node absHigher(K key){
+		if(tooLow(key))
+			return absLowest();
+
+		RedBlackTree<K, V>.Node node = tree.higherNode(key);
+
+		return node == null || tooHigh(node.key) ? null : node;
+	}
+
+	/**
+	 * Returns the node in the view with the largest key at most the key.
+	 */
+	private RedBlackTree<K, V>.Node absFloor(K key){
+		if(tooHigh(key))
+			return absHighest();
+
+		RedBlackTree<K, V>.Node node = tree.floorNode(key);
+
+		return node == null || tooLow(node.key) ? null : node;
+	}
+
+	/**
+	 * Returns the node in the view with the largest key below the key.
+	 */
+	private RedBlackTree<K, V>.Node absLower(K key){
+		if(tooHigh(key))
+			return absHighest();
+
+		RedBlackTree<K, V>.Node node = tree.lowerNode(key);
+
+		return node == null || tooLow(node.key) ? null : node;
+	}
+
+	/**
+	 * Returns the first node of the view in its own direction.
+	 */
+	private RedBlackTree<K, V>.Node first(){
+		return descending ? absHighest() : absLowest();
+	}
+
+	/**
+	 * Returns the last node of the view in its own direction.
+	 */
+	private RedBlackTree<K, V>.Node last(){
+		return descending ? absLowest() : absHighest();
+	}
+
+	/**
+	 * Returns the node with the nearest key before the key in the view's
+	 * own direction.
+	 */
+	private RedBlackTree<K, V>.Node lower(K key){
+		return descending ? absHigher(key) : absLower(key);
+	}
+
+	/**
+	 * Returns the node with the key, or the nearest key before it in the
+	 * view's own direction.
+	 */
+	private RedBlackTree<K, V>.Node floor(K key){
+		return descending ? absCeiling(key) : absFloor(key);
+	}
+
+	/**
+	 * Returns the node with the key, or the nearest key after it in the
+	 * view's own direction.
+	 */
+	private RedBlackTree<K, V>.Node ceiling(K key){
+		return descending ? absFloor(key) : absCeiling(key);
+	}
+
+	/**
+	 * Returns the node with the nearest key after the key in the view's
+	 * own direction.
+	 */
+	private RedBlackTree<K, V>.Node higher(K key){
+		return descending ? absLower(key) : absHigher(key);
+	}
+
+	//bounds checks
+
+	/**
+	 * Checks if the key is below the lower bound.
+	 */
+	private boolean tooLow(K key){
+		if(fromStart)
+			return false;
+
+		int cmp = key.compareTo(lo);
+
+		return cmp < 0 || (cmp == 0 && !loInclusive);
+	}
+
+	/**
+	 * Checks if the key is above the upper bound.
+	 */
+	private boolean tooHigh(K key){
+		if(toEnd)
+			return false;
+
+		int cmp = key.compareTo(hi);
+
+		return cmp > 0 || (cmp == 0 && !hiInclusive);
+	}
+
+	/**
+	 * Checks if the key is inside the bounds.
+	 */
+	private boolean inRange(K key){
+		return !tooLow(key) && !tooHigh(key);
+	}
+
+	/**
+	 * Checks if a bound of a new view fits inside this one. An exclusive
+	 * bound may sit on an exclusive bound of this view.
+	 */
+	private boolean inRange(K key, boolean inclusive){
+		if(inclusive)
+			return inRange(key);
+
+		boolean aboveLo = fromStart || key.compareTo(lo) >= 0;
+		boolean belowHi = toEnd || key.compareTo(hi) <= 0;
+
+		return aboveLo && belowHi;
+	}
+
+	/**
+	 * Finds the node of a key inside the view.
+	 * @param key
+	 * Key being searched for, must be a K.
+	 * @return
+	 * returns the node, or null if the key isn't in the view.
+	 */
+	@SuppressWarnings("unchecked")
+	private RedBlackTree<K, V>.Node node(Object key){
+		K k = checkKey((K) key);
+
+		return inRange(k) ? tree.findNode(k) : null;
+	}
+
+	/**
+	 * Throws if the key is null, since null keys mark the tree's leaves.
+	 * @param key
+	 * Key being checked.
+	 * @return
+	 * returns the key.
+	 */
+	private static <K> K checkKey(K key){
+		if(key == null)
+			throw new NullPointerException("Tree can't hold a null key");
+
+		return key;
+	}
+
+	/**
+	 * Removes the node from the tree and returns a copy of its entry.
+	 */
+	private Map.Entry<K, V> poll(RedBlackTree<K, V>.Node node){
+		if(node == null)
+			return null;
+
+		Map.Entry<K, V> entry = export(node);
+		tree.deleteNode(node);
+
+		return entry;
+	}
+
+	/**
+	 * Returns an immutable copy of the node's entry, or null if there is no
+	 * node. A remove can copy another key into the node, so callers holding
+	 * on to an entry must not be handed the node itself.
+	 */
+	private static <K extends Comparable<K>, V> Map.Entry<K, V> export(RedBlackTree<K, V>.Node node){
+		return node == null ? null : new AbstractMap.SimpleImmutableEntry<K, V>(node.key, node.value);
+	}
+
+	/**
+	 * Returns the key of the node, throwing if there is none.
+	 */
+	private static <K> K key(Map.Entry<K, ?> entry){
+		if(entry == null)
+			throw new NoSuchElementException();
+
+		return entry.getKey();
+	}
+
+	/**
+	 * Returns the key of the entry, or null if there is none.
+	 */
+	private static <K> K keyOrNull(Map.Entry<K, ?> entry){
+		return entry == null ? null : entry.getKey();
+	}
+
+	/**
+	 * Iterator over the nodes of the view, walking through the successor
+	 * or predecessor links until a key leaves the bounds.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+		private RedBlackTree<K, V>.Node next;
+		private RedBlackTree<K, V>.Node lastReturned;
+		private final boolean reverse;
+		private int expectedModCount = tree.modCount;
+
+		/**
+		 * Creates an iterator starting at the node.
+		 * @param first
+		 * First node to return, or null for an empty iterator.
+		 * @param reverse
+		 * true to walk from larger to smaller keys.
+		 */
+		EntryIterator(RedBlackTree<K, V>.Node first, boolean reverse){
+			next = first;
+			this.reverse = reverse;
+		}
+
+		public boolean hasNext(){
+			return next != null;
+		}
+
+		public Map.Entry<K, V> next(){
+			return nextNode();
+		}
+
+		/**
+		 * Returns the next node and moves past it.
+		 */
+		RedBlackTree<K, V>.Node nextNode(){
+			if(tree.modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if(next == null)
+				throw new NoSuchElementException();
+
+			lastReturned = next;
+
+			if(reverse){
+				next = tree.predecessor(next);
+				if(next != null && tooLow(next.key))
+					next = null;
+			}
+			else{
+				next = tree.successor(next);
+				if(next != null && tooHigh(next.key))
+					next = null;
+			}
+
+			return lastReturned;
+		}
+
+		public void remove(){
+			if(lastReturned == null)
+				throw new IllegalStateException();
+			if(tree.modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+
+			//a node with two children takes the key of its predecessor, which is the next node going down
+			boolean twoChildren = lastReturned.leftChild.key != null && lastReturned.rightChild.key != null;
+			tree.deleteNode(lastReturned);
+
+			if(reverse && twoChildren && next != null)
+				next = lastReturned;
+
+			lastReturned = null;
+			expectedModCount = tree.modCount;
+		}
+	}
+
+	/**
+	 * Iterator over the keys of the view.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class KeyIterator implements Iterator<K> {
+		private final EntryIterator entries;
+
+		KeyIterator(boolean reverse){
+			entries = new EntryIterator(reverse ? last() : first(), reverse != descending);
+		}
+
+		public boolean hasNext(){
+			return entries.hasNext();
+		}
+
+		public K next(){
+			return entries.nextNode().key;
+		}
+
+		public void remove(){
+			entries.remove();
+		}
+	}
+
+	/**
+	 * The entries of the view, backed by the tree.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+		public Iterator<Map.Entry<K, V>> iterator(){
+			return new EntryIterator(first(), descending);
+		}
+
+		public int size(){
+			return RedBlackTreeMap.this.size();
+		}
+
+		public boolean isEmpty(){
+			return RedBlackTreeMap.this.isEmpty();
+		}
+
+		public boolean contains(Object o){
+			if(!(o instanceof Map.Entry))
+				return false;
+
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+			if(entry.getKey() == null)
+				return false;
+
+			RedBlackTree<K, V>.Node node = node(entry.getKey());
+
+			return node != null && (node.value == null ? entry.getValue() == null : node.value.equals(entry.getValue()));
+		}
+
+		public boolean remove(Object o){
+			if(!contains(o))
+				return false;
+
+			RedBlackTreeMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+
+			return true;
+		}
+
+		public void clear(){
+			RedBlackTreeMap.this.clear();
+		}
+	}
+
+	/**
+	 * The keys of the view, backed by the tree.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class KeySet extends AbstractSet<K> implements NavigableSet<K> {
+		public Iterator<K> iterator(){
+			return new KeyIterator(false);
+		}
+
+		public Iterator<K> descendingIterator(){
+			return new KeyIterator(true);
+		}
+
+		public int size(){
+			return RedBlackTreeMap.this.size();
+		}
+
+		public boolean isEmpty(){
+			return RedBlackTreeMap.this.isEmpty();
+		}
+
+		public boolean contains(Object o){
+			return containsKey(o);
+		}
+
+		public boolean remove(Object o){
+			RedBlackTree<K, V>.Node node = node(o);
+			if(node == null)
+				return false;
+
+			tree.deleteNode(node);
+
+			return true;
+		}
+
+		public void clear(){
+			RedBlackTreeMap.this.clear();
+		}
+
+		public Comparator<? super K> comparator(){
+			return RedBlackTreeMap.this.comparator();
+		}
+
+		public K first(){
+			return firstKey();
+		}
+
+		public K last(){
+			return lastKey();
+		}
+
+		public K lower(K key){
+			return lowerKey(key);
+		}
+
+		public K floor(K key){
+			return floorKey(key);
+		}
+
+		public K ceiling(K key){
+			return ceilingKey(key);
+		}
+
+		public K higher(K key){
+			return higherKey(key);
+		}
+
+		public K pollFirst(){
+			return keyOrNull(pollFirstEntry());
+		}
+
+		public K pollLast(){
+			return keyOrNull(pollLastEntry());
+		}
+
+		public NavigableSet<K> descendingSet(){
+			return descendingMap().navigableKeySet();
+		}
+
+		public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive){
+			return subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+		}
+
+		public NavigableSet<K> headSet(K toElement, boolean inclusive){
+			return headMap(toElement, inclusive).navigableKeySet();
+		}
+
+		public NavigableSet<K> tailSet(K fromElement, boolean inclusive){
+			return tailMap(fromElement, inclusive).navigableKeySet();
+		}
+
+		public SortedSet<K> subSet(K fromElement, K toElement){
+			return subSet(fromElement, true, toElement, false);
+		}
+
+		public SortedSet<K> headSet(K toElement){
+			return headSet(toElement, false);
+		}
+
+		public SortedSet<K> tailSet(K fromElement){
+			return tailSet(fromElement, true);
+		}
+	}
+}
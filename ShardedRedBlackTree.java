@@ -0,0 +1,413 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Red-Black tree split into key-range shards
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Thread-safe tree that splits the key space into ranges, each held by
+ * its own RedBlackTree with its own lock, so writers working on different
+ * ranges never wait for each other. When one shard takes much more than
+ * its share of the writes, the boundary between it and its quieter
+ * neighbor is moved to the shard's median key and the keys past it are
+ * handed over.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class ShardedRedBlackTree<K extends Comparable<K>, V> implements Tree<K, V> {
+	//writes a shard takes before the shards are checked for hot spots
+	private static final int WINDOW = 1 << 14;
+
+	//a shard is hot once it takes this many times the average number of writes
+	private static final int HOT_FACTOR = 2;
+
+	private final Shard[] shards;
+
+	//shard i holds the keys from bounds[i - 1] inclusive to bounds[i] exclusive
+	private final Object[] bounds;
+
+	//guards bounds, operations read it optimistically and retry if it moved
+	private final StampedLock boundsLock = new StampedLock();
+
+	//held for reading by ordered traversals so no keys move under them
+	private final ReentrantReadWriteLock rebalanceLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Creates an empty tree with one more shard than there are split keys.
+	 *
+	 * @param splitKeys
+	 * First key of every shard but the first, in strictly ascending order.
+	 */
+	@SafeVarargs
+	@SuppressWarnings({"unchecked", "rawtypes", "varargs"})
+	public ShardedRedBlackTree(K... splitKeys){
+		for(int i = 1; i < splitKeys.length; i++){
+			if(splitKeys[i - 1].compareTo(splitKeys[i]) >= 0)
+				throw new IllegalArgumentException("Split keys are not in strictly ascending order at index " + i);
+		}
+
+		bounds = Arrays.copyOf(splitKeys, splitKeys.length, Object[].class);
+		shards = new ShardedRedBlackTree.Shard[splitKeys.length + 1];
+
+		for(int i = 0; i < shards.length; i++)
+			shards[i] = new Shard();
+	}
+
+	/**
+	 *
+	 * Add the key, value pair into the shard for the key.
+	 * If the key is already in the tree its value is replaced.
+	 *
+	 * @param key
+	 * Key used to find the shard and the insert position.
+	 *
+	 * @param value
+	 * Value the Node will hold.
+	 */
+	public void add(K key, V value){
+		int index = lockShard(key, true);
+		Shard shard = shards[index];
+
+		try{
+			shard.tree.add(key, value);
+			shard.writes++;
+		}
+		finally{
+			shard.lock.writeLock().unlock();
+		}
+
+		if(shard.writes >= WINDOW)
+			rebalance();
+	}
+
+	/**
+	 * Remove the node with the specified key from its shard.
+	 *
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 *
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	public V remove(K key){
+		int index = lockShard(key, true);
+		Shard shard = shards[index];
+		V value;
+
+		try{
+			value = shard.tree.remove(key);
+			shard.writes++;
+		}
+		finally{
+			shard.lock.writeLock().unlock();
+		}
+
+		if(shard.writes >= WINDOW)
+			rebalance();
+
+		return value;
+	}
+
+	/**
+	 * Returns, but doesn't remove the value of the key, holding only the
+	 * read lock of the key's shard.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key with the node that is passed
+	 */
+	public V lookup(K key){
+		int index = lockShard(key, false);
+		Shard shard = shards[index];
+
+		try{
+			return shard.tree.lookup(key);
+		}
+		finally{
+			shard.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the shard of the key and locks it. The bounds are read without
+	 * a lock, so once the shard is locked they are checked again and the
+	 * search is redone if a rebalance moved them in the meantime.
+	 *
+	 * @param key
+	 * Key being searched for.
+	 * @param write
+	 * true to take the shard's write lock, false for its read lock.
+	 * @return
+	 * returns the index of the locked shard.
+	 */
+	private int lockShard(K key, boolean write){
+		while(true){
+			long stamp = boundsLock.tryOptimisticRead();
+			int index = shardIndex(key);
+			Shard shard = shards[index];
+
+			if(write)
+				shard.lock.writeLock().lock();
+			else
+				shard.lock.readLock().lock();
+
+			if(boundsLock.validate(stamp))
+				return index;
+
+			if(write)
+				shard.lock.writeLock().unlock();
+			else
+				shard.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Binary searches the bounds for the shard holding the key.
+	 *
+	 * @param key
+	 * Key being searched for.
+	 * @return
+	 * returns the index of the shard.
+	 */
+	@SuppressWarnings("unchecked")
+	private int shardIndex(K key){
+		int lo = 0;
+		int hi = bounds.length;
+
+		//find the number of bounds less than or equal to the key
+		while(lo < hi){
+			int mid = (lo + hi) >>> 1;
+
+			if(key.compareTo((K) bounds[mid]) >= 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+
+		return lo;
+	}
+
+	/**
+	 * Looks for a shard that took at least HOT_FACTOR times the average
+	 * number of writes in the last window. Half of its keys are handed to
+	 * whichever neighbor took fewer writes, then all the write counts start
+	 * over. Skipped if another rebalance, an ordered traversal or a size()
+	 * count is running.
+	 */
+	private void rebalance(){
+		if(!rebalanceLock.writeLock().tryLock())
+			return;
+
+		try{
+			long total = 0;
+			int hottest = 0;
+
+			for(int i = 0; i < shards.length; i++){
+				total += shards[i].writes;
+				if(shards[i].writes > shards[hottest].writes)
+					hottest = i;
+			}
+
+			if(shards.length > 1 && (long) shards[hottest].writes * shards.length >= HOT_FACTOR * total){
+				//hand keys to the neighbor that took fewer writes
+				int neighbor;
+				if(hottest == 0)
+					neighbor = 1;
+				else if(hottest == shards.length - 1)
+					neighbor = hottest - 1;
+				else
+					neighbor = shards[hottest - 1].writes < shards[hottest + 1].writes ? hottest - 1 : hottest + 1;
+
+				moveBound(hottest, neighbor);
+			}
+
+			for(Shard shard : shards)
+				shard.writes = 0;
+		}
+		finally{
+			rebalanceLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Moves the bound between a shard and its neighbor to the shard's median
+	 * key, handing the keys past it over to the neighbor.
+	 *
+	 * @param from
+	 * Index of the shard giving up keys.
+	 * @param to
+	 * Index of the neighbor taking them, one more or one less than from.
+	 */
+	private void moveBound(int from, int to){
+		Shard first = shards[Math.min(from, to)];
+		Shard second = shards[Math.max(from, to)];
+
+		//always lock in shard order so two rebalances can't deadlock
+		first.lock.writeLock().lock();
+		second.lock.writeLock().lock();
+
+		try{
+			RedBlackTree<K, V> source = shards[from].tree;
+			if(source.size() < 2)
+				return;
+
+			K median = source.select(source.size() / 2);
+
+			//keys from the median up go right, keys below it go left
+			List<K> moved = new ArrayList<K>();
+			Map<K, V> batch = new HashMap<K, V>();
+			Iterator<Map.Entry<K, V>> entries = to > from ? source.range(median, source.select(source.size() - 1)) : source.range(source.select(0), median);
+
+			while(entries.hasNext()){
+				Map.Entry<K, V> entry = entries.next();
+
+				if(to < from && entry.getKey().compareTo(median) == 0)
+					break;
+
+				moved.add(entry.getKey());
+				batch.put(entry.getKey(), entry.getValue());
+			}
+
+			//both shards are write locked, so the keys can move before the bound does
+			source.removeAll(moved);
+			shards[to].tree.addAll(batch);
+
+			//only the bound change is under the bounds lock, so writers to other shards don't spin on it
+			long stamp = boundsLock.writeLock();
+			try{
+				bounds[Math.min(from, to)] = median;
+			}
+			finally{
+				boundsLock.unlockWrite(stamp);
+			}
+		}
+		finally{
+			second.lock.writeLock().unlock();
+			first.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Visits every entry in ascending key order, one shard at a time under
+	 * that shard's read lock. Keys are not moved between shards while this
+	 * runs, so the order holds across shards.
+	 *
+	 * @param action
+	 * Called with each key and value.
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action){
+		rebalanceLock.readLock().lock();
+
+		try{
+			for(Shard shard : shards){
+				shard.lock.readLock().lock();
+				try{
+					for(Map.Entry<K, V> entry : shard.tree)
+						action.accept(entry.getKey(), entry.getValue());
+				}
+				finally{
+					shard.lock.readLock().unlock();
+				}
+			}
+		}
+		finally{
+			rebalanceLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of keys in the tree, adding up the shards one at a
+	 * time. Keys are not moved between shards while they are counted, so
+	 * none is counted twice or missed.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		int size = 0;
+
+		rebalanceLock.readLock().lock();
+
+		try{
+			for(Shard shard : shards){
+				shard.lock.readLock().lock();
+				try{
+					size += shard.tree.size();
+				}
+				finally{
+					shard.lock.readLock().unlock();
+				}
+			}
+		}
+		finally{
+			rebalanceLock.readLock().unlock();
+		}
+
+		return size;
+	}
+
+	/**
+	 * Print every shard, in key order.
+	 * @return
+	 * return a string of the structure of each shard
+	 */
+	public String toPrettyString(){
+		StringBuilder str = new StringBuilder();
+
+		rebalanceLock.readLock().lock();
+
+		try{
+			for(int i = 0; i < shards.length; i++){
+				shards[i].lock.readLock().lock();
+				try{
+					str.append("shard ").append(i).append(":\n").append(shards[i].tree.toPrettyString()).append('\n');
+				}
+				finally{
+					shards[i].lock.readLock().unlock();
+				}
+			}
+		}
+		finally{
+			rebalanceLock.readLock().unlock();
+		}
+
+		return str.toString();
+	}
+
+	/**
+	 * One key range, its tree and its lock.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private class Shard{
+		final RedBlackTree<K, V> tree = new RedBlackTree<K, V>(true, true);
+		final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+		//writes since the last rebalance, only counted up under the write lock
+		volatile int writes;
+	}
+}
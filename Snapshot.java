@@ -0,0 +1,255 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Binary snapshot format shared by the trees
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Writes entries in ascending key order and reads them back. A snapshot is
+ * a header holding a magic number, the format version and the number of
+ * entries, followed by blocks of about 64KB. Each block holds the number of
+ * entries in it, the length of its bytes, the entries encoded by the key and
+ * value codecs, and a CRC32C checksum of those bytes, so corruption is caught
+ * one block at a time without buffering the whole snapshot.
+ */
+final class Snapshot {
+	//"RBTS" at the start of every snapshot
+	static final int MAGIC = 0x52425453;
+	static final int VERSION = 1;
+
+	//a block is written out once it holds at least this many bytes
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	private Snapshot(){
+	}
+
+	/**
+	 * Writes a snapshot of the entries to the stream, which is flushed but
+	 * not closed.
+	 *
+	 * @param out
+	 * Stream the snapshot is written to.
+	 * @param count
+	 * Number of entries the iterator will return.
+	 * @param entries
+	 * The entries in ascending key order.
+	 * @param keyCodec
+	 * Codec used to write the keys.
+	 * @param valueCodec
+	 * Codec used to write the values.
+	 * @throws IOException
+	 * if the stream can't be written to.
+	 */
+	static <K, V> void write(OutputStream out, int count, Iterator<? extends Map.Entry<? extends K, ? extends V>> entries, Codec<? super K> keyCodec, Codec<? super V> valueCodec) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BLOCK_SIZE));
+		BlockOutput block = new BlockOutput();
+		DataOutputStream blockData = new DataOutputStream(block);
+		CRC32C crc = new CRC32C();
+		int written = 0;
+		int inBlock = 0;
+
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(count);
+
+		while(entries.hasNext()){
+			Map.Entry<? extends K, ? extends V> entry = entries.next();
+			keyCodec.write(entry.getKey(), blockData);
+			valueCodec.write(entry.getValue(), blockData);
+			written++;
+			inBlock++;
+
+			if(block.size >= BLOCK_SIZE){
+				writeBlock(data, block, inBlock, crc);
+				inBlock = 0;
+			}
+		}
+
+		if(inBlock > 0)
+			writeBlock(data, block, inBlock, crc);
+
+		if(written != count)
+			throw new IllegalStateException("Wrote " + written + " entries but expected " + count);
+
+		data.flush();
+	}
+
+	/**
+	 * Helper method for write(), writes out a full block and empties it.
+	 */
+	private static void writeBlock(DataOutputStream data, BlockOutput block, int entries, CRC32C crc) throws IOException {
+		crc.reset();
+		crc.update(block.buf, 0, block.size);
+
+		data.writeInt(entries);
+		data.writeInt(block.size);
+		data.write(block.buf, 0, block.size);
+		data.writeInt((int) crc.getValue());
+
+		block.size = 0;
+	}
+
+	/**
+	 * Reads a snapshot from the stream, adding its keys and values to the
+	 * lists. The stream is read ahead in large chunks, so it should not hold
+	 * anything after the snapshot that the caller still needs.
+	 *
+	 * @param in
+	 * Stream the snapshot is read from.
+	 * @param keyCodec
+	 * Codec used to read the keys.
+	 * @param valueCodec
+	 * Codec used to read the values.
+	 * @param keys
+	 * List the keys are added to, in the order they were written.
+	 * @param values
+	 * List the values are added to, at the same positions as their keys.
+	 * @throws IOException
+	 * if the stream can't be read, or doesn't hold a valid snapshot.
+	 */
+	static <K, V> void read(InputStream in, Codec<? extends K> keyCodec, Codec<? extends V> valueCodec, ArrayList<K> keys, ArrayList<V> values) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in, BLOCK_SIZE));
+
+		if(data.readInt() != MAGIC)
+			throw new IOException("Not a tree snapshot");
+
+		int version = data.readInt();
+		if(version != VERSION)
+			throw new IOException("Unsupported snapshot version " + version);
+
+		int count = data.readInt();
+		if(count < 0)
+			throw new IOException("Corrupt snapshot header, entry count is " + count);
+
+		//the count isn't checksummed, so the lists grow as verified blocks arrive instead of being sized by it
+		BlockInput block = new BlockInput();
+		DataInputStream blockData = new DataInputStream(block);
+		CRC32C crc = new CRC32C();
+
+		for(int read = 0; read < count;){
+			int entries = data.readInt();
+			int length = data.readInt();
+
+			if(entries <= 0 || entries > count - read || length < 0)
+				throw new IOException("Corrupt snapshot block after entry " + read);
+
+			block.fill(data, length);
+			crc.reset();
+			crc.update(block.buf, 0, length);
+
+			if((int) crc.getValue() != data.readInt())
+				throw new IOException("Snapshot checksum does not match in the block after entry " + read);
+
+			for(int i = 0; i < entries; i++){
+				keys.add(keyCodec.read(blockData));
+				values.add(valueCodec.read(blockData));
+			}
+
+			//the codecs must have used up exactly the bytes of the block
+			if(block.position != length)
+				throw new IOException("Corrupt snapshot block after entry " + read);
+
+			read += entries;
+		}
+	}
+
+	/**
+	 * Growable byte buffer a block is encoded into, also used for the
+	 * records of DurableRedBlackTree's log. Unlike ByteArrayOutputStream
+	 * it isn't synchronized and gives direct access to its bytes.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	static class BlockOutput extends OutputStream {
+		byte[] buf = new byte[BLOCK_SIZE + 64];
+		int size;
+
+		public void write(int b){
+			if(size == buf.length)
+				buf = Arrays.copyOf(buf, buf.length * 2);
+
+			buf[size++] = (byte) b;
+		}
+
+		public void write(byte[] b, int off, int len){
+			if(size + len > buf.length)
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + len));
+
+			System.arraycopy(b, off, buf, size, len);
+			size += len;
+		}
+	}
+
+	/**
+	 * Stream over the bytes of the block being decoded, not synchronized
+	 * unlike ByteArrayInputStream.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private static class BlockInput extends InputStream {
+		byte[] buf = new byte[BLOCK_SIZE + 64];
+		int length;
+		int position;
+
+		/**
+		 * Reads the bytes of the next block. The length isn't checksummed,
+		 * so the buffer only grows as the bytes arrive, and a corrupt length
+		 * runs out of stream instead of allocating gigabytes.
+		 */
+		void fill(DataInputStream data, int length) throws IOException {
+			int filled = 0;
+
+			while(filled < length){
+				if(filled == buf.length)
+					buf = Arrays.copyOf(buf, (int) Math.min(length, 2L * buf.length));
+
+				int chunk = Math.min(length, buf.length) - filled;
+				data.readFully(buf, filled, chunk);
+				filled += chunk;
+			}
+
+			this.length = length;
+			position = 0;
+		}
+
+		public int read(){
+			return position < length ? buf[position++] & 0xFF : -1;
+		}
+
+		public int read(byte[] b, int off, int len){
+			if(position == length)
+				return len == 0 ? 0 : -1;
+
+			len = Math.min(len, length - position);
+			System.arraycopy(buf, position, b, off, len);
+			position += len;
+
+			return len;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Choice of balancing engine behind the Tree interface
+ *
+ * Jacob Romero
+ *
+ */
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * The balanced trees that can stand behind the Tree interface, so the
+ * engine can be picked when the tree is created, for example from a
+ * setting, without the code using it changing.
+ *
+ * 	-redBlack, RedBlackTree with a shared null leaf, bottom-up fix-ups
+ * 	-compact, CompactRedBlackTree, no parent links, balanced top-down
+ * 	-wavl, WavlTree, rank-balanced, at most two rotations per remove
+ */
+public enum TreeEngine {
+	redBlack,
+	compact,
+	wavl;
+
+	/**
+	 * Creates an empty tree balanced by this engine.
+	 * @return
+	 * returns the new tree.
+	 */
+	public <K extends Comparable<K>, V> Tree<K, V> create(){
+		switch(this){
+			case compact:
+				return new CompactRedBlackTree<K, V>();
+			case wavl:
+				return new WavlTree<K, V>();
+			default:
+				return new RedBlackTree<K, V>(true);
+		}
+	}
+}
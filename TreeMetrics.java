@@ -0,0 +1,307 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Counters for the balancing work done by the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Process wide counters for RedBlackTree: rotations, the recolors of add
+ * case 3 and remove case 3, how often each add and remove case fired, the
+ * keys compared while walking down the tree, and a histogram of how deep
+ * those walks went. WavlTree counts its rotations here as well.
+ *
+ * The counters are off unless the JVM is started with
+ * -Dredblacktree.metrics=true. ENABLED is a static final constant, so
+ * when it is false the JIT removes every check of it and the tree runs
+ * exactly as it would without metrics.
+ *
+ * When on, the counters are registered as the MBean
+ * RedBlackTree:type=Metrics, a redblacktree.Metrics JFR event holding
+ * their totals is recorded every second, and every add, remove and lookup
+ * slower than 1ms is recorded as a redblacktree.Operation JFR event.
+ */
+public final class TreeMetrics implements TreeMetricsMBean {
+	//true if the counters are kept, read once when the class loads
+	public static final boolean ENABLED = Boolean.getBoolean("redblacktree.metrics");
+
+	//walks deeper than this are counted in the last bucket of the histogram
+	private static final int MAX_DEPTH = 64;
+
+	private static final LongAdder leftRotations = new LongAdder();
+	private static final LongAdder rightRotations = new LongAdder();
+	private static final LongAdder addRecolors = new LongAdder();
+	private static final LongAdder removeRecolors = new LongAdder();
+	private static final LongAdder comparisons = new LongAdder();
+	private static final LongAdder[] addCases = adders(5);
+	private static final LongAdder[] removeCases = adders(6);
+	private static final LongAdder[] depths = adders(MAX_DEPTH + 1);
+
+	static{
+		if(ENABLED){
+			try{
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new TreeMetrics(), new ObjectName("RedBlackTree:type=Metrics"));
+			}
+			//already registered by another class loader, its counters are the ones shown
+			catch(JMException e){
+			}
+
+			FlightRecorder.addPeriodicEvent(SummaryEvent.class, TreeMetrics::emitSummary);
+		}
+	}
+
+	private TreeMetrics(){
+	}
+
+	/**
+	 * Counts a left rotation.
+	 */
+	static void leftRotation(){
+		leftRotations.increment();
+	}
+
+	/**
+	 * Counts a right rotation.
+	 */
+	static void rightRotation(){
+		rightRotations.increment();
+	}
+
+	/**
+	 * Counts a recolor by add case 3.
+	 */
+	static void addRecolor(){
+		addRecolors.increment();
+	}
+
+	/**
+	 * Counts a recolor by remove case 3.
+	 */
+	static void removeRecolor(){
+		removeRecolors.increment();
+	}
+
+	/**
+	 * Counts an add case that fired.
+	 * @param number
+	 * Number of the case, from 1 to 5.
+	 */
+	static void addCase(int number){
+		addCases[number - 1].increment();
+	}
+
+	/**
+	 * Counts a remove case that fired.
+	 * @param number
+	 * Number of the case, from 1 to 6.
+	 */
+	static void removeCase(int number){
+		removeCases[number - 1].increment();
+	}
+
+	/**
+	 * Counts a walk down the tree.
+	 * @param compared
+	 * Number of keys compared on the way down.
+	 */
+	static void descent(int compared){
+		comparisons.add(compared);
+		depths[Math.min(compared, MAX_DEPTH)].increment();
+	}
+
+	/**
+	 * Starts timing an operation for the redblacktree.Operation event.
+	 * @param operation
+	 * Name of the operation.
+	 * @return
+	 * returns the event, to be passed to end().
+	 */
+	static OperationEvent begin(String operation){
+		OperationEvent event = new OperationEvent();
+		event.operation = operation;
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * Records the operation if it was slower than the event's threshold.
+	 * @param event
+	 * The event returned by begin().
+	 * @param size
+	 * Number of keys in the tree after the operation.
+	 */
+	static void end(OperationEvent event, int size){
+		event.end();
+
+		if(event.shouldCommit()){
+			event.size = size;
+			event.commit();
+		}
+	}
+
+	public long getLeftRotations(){
+		return leftRotations.sum();
+	}
+
+	public long getRightRotations(){
+		return rightRotations.sum();
+	}
+
+	public long getAddRecolors(){
+		return addRecolors.sum();
+	}
+
+	public long getRemoveRecolors(){
+		return removeRecolors.sum();
+	}
+
+	public long getComparisons(){
+		return comparisons.sum();
+	}
+
+	public long[] getAddCases(){
+		return sums(addCases);
+	}
+
+	public long[] getRemoveCases(){
+		return sums(removeCases);
+	}
+
+	public long[] getDescentHistogram(){
+		return sums(depths);
+	}
+
+	public void reset(){
+		leftRotations.reset();
+		rightRotations.reset();
+		addRecolors.reset();
+		removeRecolors.reset();
+		comparisons.reset();
+
+		for(LongAdder[] counters : new LongAdder[][]{addCases, removeCases, depths}){
+			for(LongAdder counter : counters)
+				counter.reset();
+		}
+	}
+
+	/**
+	 * Records the totals of the counters, called by JFR once a period.
+	 */
+	private static void emitSummary(){
+		SummaryEvent event = new SummaryEvent();
+		event.leftRotations = leftRotations.sum();
+		event.rightRotations = rightRotations.sum();
+		event.addRecolors = addRecolors.sum();
+		event.removeRecolors = removeRecolors.sum();
+		event.comparisons = comparisons.sum();
+
+		//the deepest bucket any walk has reached
+		for(int i = MAX_DEPTH; i >= 0; i--){
+			if(depths[i].sum() > 0){
+				event.maxDepth = i;
+				break;
+			}
+		}
+
+		event.commit();
+	}
+
+	/**
+	 * Creates the counters of an array.
+	 */
+	private static LongAdder[] adders(int length){
+		LongAdder[] counters = new LongAdder[length];
+		for(int i = 0; i < length; i++)
+			counters[i] = new LongAdder();
+
+		return counters;
+	}
+
+	/**
+	 * Reads the counters of an array.
+	 */
+	private static long[] sums(LongAdder[] counters){
+		long[] sums = new long[counters.length];
+		for(int i = 0; i < counters.length; i++)
+			sums[i] = counters[i].sum();
+
+		return sums;
+	}
+
+	/**
+	 * JFR event for an add, remove or lookup slower than the threshold.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	@Name("redblacktree.Operation")
+	@Label("Red-Black Tree Operation")
+	@Category("Red-Black Tree")
+	@Description("An add, remove or lookup that took longer than the threshold")
+	@Threshold("1 ms")
+	static class OperationEvent extends Event {
+		@Label("Operation")
+		String operation;
+
+		@Label("Tree Size")
+		int size;
+	}
+
+	/**
+	 * JFR event holding the totals of the counters.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	@Name("redblacktree.Metrics")
+	@Label("Red-Black Tree Metrics")
+	@Category("Red-Black Tree")
+	@Description("Totals of the Red-Black tree counters since the start or the last reset")
+	@Period("1 s")
+	@StackTrace(false)
+	static class SummaryEvent extends Event {
+		@Label("Left Rotations")
+		long leftRotations;
+
+		@Label("Right Rotations")
+		long rightRotations;
+
+		@Label("Add Recolors")
+		long addRecolors;
+
+		@Label("Remove Recolors")
+		long removeRecolors;
+
+		@Label("Comparisons")
+		long comparisons;
+
+		@Label("Deepest Walk")
+		int maxDepth;
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * JMX view of the Red-Black tree metrics
+ *
+ * Jacob Romero
+ *
+ */
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Attributes and operations TreeMetrics exposes over JMX, under the name
+ * RedBlackTree:type=Metrics.
+ */
+public interface TreeMetricsMBean {
+	/**
+	 * @return
+	 * returns the number of left rotations.
+	 */
+	public long getLeftRotations();
+
+	/**
+	 * @return
+	 * returns the number of right rotations.
+	 */
+	public long getRightRotations();
+
+	/**
+	 * @return
+	 * returns the number of times add case 3 recolored a parent, uncle and grandparent.
+	 */
+	public long getAddRecolors();
+
+	/**
+	 * @return
+	 * returns the number of times remove case 3 recolored a sibling and moved up.
+	 */
+	public long getRemoveRecolors();
+
+	/**
+	 * @return
+	 * returns the number of keys compared while walking down the tree.
+	 */
+	public long getComparisons();
+
+	/**
+	 * @return
+	 * returns how many times each add case fired, case n at index n - 1.
+	 */
+	public long[] getAddCases();
+
+	/**
+	 * @return
+	 * returns how many times each remove case fired, case n at index n - 1.
+	 */
+	public long[] getRemoveCases();
+
+	/**
+	 * @return
+	 * returns how many walks down the tree compared d keys, at index d,
+	 * with the last index counting every deeper walk.
+	 */
+	public long[] getDescentHistogram();
+
+	/**
+	 * Sets every counter back to 0.
+	 */
+	public void reset();
+}
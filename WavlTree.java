@@ -0,0 +1,531 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Weak AVL (rank-balanced) tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Weak AVL tree, the rank-balanced tree of Haeupler, Sen and Tarjan. Every
+ * node has a rank, a null child has rank -1, and the rank difference
+ * between a node and each of its children is 1 or 2, with leaves at rank
+ * 0. Rebalancing only promotes or demotes ranks on the way up, and ends
+ * with at most two rotations for an add and at most two for a remove,
+ * where a Red-Black tree's remove cases can recolor and rotate their way
+ * up the whole path.
+ *
+ * Built only by adds, the tree is an AVL tree, so its height is at most
+ * 1.44 log(n). With removes mixed in it stays within 2 log(n), like a
+ * Red-Black tree.
+ *
+ * Rotations are counted in TreeMetrics when it is enabled, next to those
+ * of RedBlackTree.
+ *
+ * @param <K>
+ * A comparable type used for the keys in the tree.
+ *
+ * @param <V>
+ * Any type V that will be the value of tree nodes.
+ */
+public class WavlTree<K extends Comparable<K>, V> implements Tree<K, V>, Iterable<Map.Entry<K, V>> {
+	private Node<K, V> root;
+
+	//number of keys in the tree
+	private int count = 0;
+
+	//number of times keys were added or removed, used to fail iterators fast
+	private int modCount = 0;
+
+	/**
+	 * Adds a key and value to the tree, replacing the value if the key is
+	 * already in it.
+	 * @param key
+	 * The key for the node.
+	 * @param value
+	 * the value for the node.
+	 */
+	public void add(K key, V value){
+		if(key == null)
+			throw new NullPointerException("Tree can't hold a null key");
+
+		Node<K, V> parent = null;
+		Node<K, V> current = root;
+		int cmp = 0;
+
+		while(current != null){
+			cmp = key.compareTo(current.key);
+
+			if(cmp == 0){
+				current.value = value;
+				return;
+			}
+
+			parent = current;
+			current = cmp < 0 ? current.left : current.right;
+		}
+
+		Node<K, V> node = new Node<K, V>(key, value, parent);
+		count++;
+		modCount++;
+
+		if(parent == null){
+			root = node;
+			return;
+		}
+
+		if(cmp < 0)
+			parent.left = node;
+		else
+			parent.right = node;
+
+		rebalanceAdd(node);
+	}
+
+	/**
+	 * Helper method for add(), fixes the rank difference of 0 between the
+	 * new leaf and its parent. Parents are promoted while their other child
+	 * is a 1-child, then one or two rotations end it.
+	 * @param node
+	 * The new leaf.
+	 */
+	private void rebalanceAdd(Node<K, V> node){
+		Node<K, V> parent = node.parent;
+
+		while(parent != null && parent.rank == node.rank){
+			boolean left = parent.left == node;
+			Node<K, V> sibling = left ? parent.right : parent.left;
+
+			//the parent was 1,1, promoting it moves the problem up
+			if(parent.rank - rank(sibling) == 1){
+				parent.rank++;
+				node = parent;
+				parent = node.parent;
+				continue;
+			}
+
+			//the parent is 0,2, rotate the node or its inner child up
+			Node<K, V> inner = left ? node.right : node.left;
+
+			if(node.rank - rank(inner) == 2){
+				rotate(node);
+				parent.rank--;
+			}
+			else{
+				rotate(inner);
+				rotate(inner);
+				inner.rank++;
+				node.rank--;
+				parent.rank--;
+			}
+
+			return;
+		}
+	}
+
+	/**
+	 * Removes the key from the tree.
+	 * @param key
+	 * the key we want to find and remove from the tree.
+	 * @return
+	 * returns value of the node with the specified key that was removed.
+	 */
+	public V remove(K key){
+		Node<K, V> node = findNode(key);
+
+		if(node == null)
+			return null;
+
+		V returnVal = node.value;
+
+		//a node with two children takes the entry of its in-order predecessor, which is removed instead
+		if(node.left != null && node.right != null){
+			Node<K, V> pred = node.left;
+			while(pred.right != null)
+				pred = pred.right;
+
+			node.key = pred.key;
+			node.value = pred.value;
+			node = pred;
+		}
+
+		//the removed node has at most one child, which takes its place
+		Node<K, V> child = node.left != null ? node.left : node.right;
+		Node<K, V> parent = node.parent;
+		boolean left = parent != null && parent.left == node;
+
+		if(child != null)
+			child.parent = parent;
+
+		if(parent == null)
+			root = child;
+		else if(left)
+			parent.left = child;
+		else
+			parent.right = child;
+
+		count--;
+		modCount++;
+
+		if(parent != null)
+			rebalanceRemove(parent, child, left);
+
+		return returnVal;
+	}
+
+	/**
+	 * Helper method for remove(), fixes the ranks after a node is spliced
+	 * out. A parent left as a 2,2 leaf is demoted, then parents over a
+	 * 3-child are demoted, along with their sibling if it is 2,2, until one
+	 * or two rotations end it.
+	 * @param parent
+	 * Parent of the removed node.
+	 * @param node
+	 * Child that took the removed node's place, or null.
+	 * @param left
+	 * true if the node is the parent's left child.
+	 */
+	private void rebalanceRemove(Node<K, V> parent, Node<K, V> node, boolean left){
+		//a leaf of rank 1 has two 2-children and must drop to rank 0
+		if(parent.left == null && parent.right == null && parent.rank == 1){
+			parent.rank = 0;
+			node = parent;
+			parent = node.parent;
+			left = parent != null && parent.left == node;
+		}
+
+		while(parent != null && parent.rank - rank(node) == 3){
+			Node<K, V> sibling = left ? parent.right : parent.left;
+
+			if(parent.rank - sibling.rank == 2){
+				//the sibling is a 2-child, demoting the parent makes the node a 2-child
+				parent.rank--;
+			}
+			else if(sibling.rank - rank(sibling.left) == 2 && sibling.rank - rank(sibling.right) == 2){
+				//the sibling is 2,2 and can drop with the parent
+				parent.rank--;
+				sibling.rank--;
+			}
+			else{
+				//the sibling has a 1-child to rotate up
+				Node<K, V> outer = left ? sibling.right : sibling.left;
+				Node<K, V> inner = left ? sibling.left : sibling.right;
+
+				if(sibling.rank - rank(outer) == 1){
+					rotate(sibling);
+					sibling.rank++;
+					parent.rank--;
+
+					//a leaf can't be 2,2
+					if(parent.left == null && parent.right == null)
+						parent.rank--;
+				}
+				else{
+					rotate(inner);
+					rotate(inner);
+					inner.rank += 2;
+					sibling.rank--;
+					parent.rank -= 2;
+				}
+
+				return;
+			}
+
+			node = parent;
+			parent = node.parent;
+			left = parent != null && parent.left == node;
+		}
+	}
+
+	/**
+	 * Returns, but doesn't remove the node with the
+	 * key that is passed in to the method.
+	 * @param key
+	 * The key used to search the tree for the node
+	 * @return
+	 * Returns the value of the key with the node that is passed
+	 */
+	public V lookup(K key){
+		Node<K, V> node = findNode(key);
+
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * method that does the heavy lifting of finding the node based on a key,
+	 * walking down from the root with one comparison per level.
+	 * @param key
+	 * Key we want to find with the node that owns that key
+	 * @return
+	 * Returns the node with the key we wanted to find, or null if it isn't in the tree
+	 */
+	private Node<K, V> findNode(K key){
+		Node<K, V> node = root;
+
+		while(node != null){
+			int cmp = key.compareTo(node.key);
+
+			if(cmp == 0)
+				return node;
+
+			node = cmp < 0 ? node.left : node.right;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 * @return
+	 * the number of keys in the tree.
+	 */
+	public int size(){
+		return count;
+	}
+
+	/**
+	 * Returns the number of nodes on the longest path from the root down.
+	 * @return
+	 * returns the height, 0 for an empty tree.
+	 */
+	public int height(){
+		return height(root);
+	}
+
+	/**
+	 * Helper method for height(), measures a sub-tree.
+	 */
+	private static int height(Node<?, ?> node){
+		if(node == null)
+			return 0;
+
+		return Math.max(height(node.left), height(node.right)) + 1;
+	}
+
+	/**
+	 * Returns an iterator over the entries in ascending key order, walking
+	 * the parent links instead of keeping a stack.
+	 * @return
+	 * returns the ascending iterator.
+	 */
+	public Iterator<Map.Entry<K, V>> iterator(){
+		return new Iterator<Map.Entry<K, V>>(){
+			private Node<K, V> next = first();
+			private final int expectedModCount = modCount;
+
+			public boolean hasNext(){
+				return next != null;
+			}
+
+			public Map.Entry<K, V> next(){
+				if(modCount != expectedModCount)
+					throw new ConcurrentModificationException();
+				if(next == null)
+					throw new NoSuchElementException();
+
+				Node<K, V> node = next;
+				next = successor(node);
+				return node;
+			}
+		};
+	}
+
+	/**
+	 * Returns the node with the smallest key, or null if the tree is empty.
+	 */
+	private Node<K, V> first(){
+		Node<K, V> node = root;
+
+		while(node != null && node.left != null)
+			node = node.left;
+
+		return node;
+	}
+
+	/**
+	 * Returns the in-order successor of the node, or null if it has the
+	 * largest key.
+	 */
+	private static <K, V> Node<K, V> successor(Node<K, V> node){
+		if(node.right != null){
+			node = node.right;
+			while(node.left != null)
+				node = node.left;
+
+			return node;
+		}
+
+		//climb until coming up from a left child
+		while(node.parent != null && node.parent.right == node)
+			node = node.parent;
+
+		return node.parent;
+	}
+
+	/**
+	 * Print the tree, one node per line in order, indented by depth.
+	 * @return
+	 * return a string of the structure of the tree
+	 */
+	public String toPrettyString(){
+		StringBuilder str = new StringBuilder();
+
+		printNode(str, root, 0);
+
+		return str.toString();
+	}
+
+	/**
+	 * Helper method for toPrettyString(), prints the right sub-tree,
+	 * then the node, then the left sub-tree, so the tree reads sideways.
+	 *
+	 * @param str
+	 * The builder the tree is printed to.
+	 * @param node
+	 * The node being printed.
+	 * @param depth
+	 * The depth of the node.
+	 */
+	private void printNode(StringBuilder str, Node<K, V> node, int depth){
+		if(node == null)
+			return;
+
+		printNode(str, node.right, depth + 1);
+
+		for(int i = 0; i < depth; i++)
+			str.append("    ");
+		str.append(node.value).append(" - rank ").append(node.rank).append('\n');
+
+		printNode(str, node.left, depth + 1);
+	}
+
+	/**
+	 * Rotates the node above its parent, the parent becomes its child on
+	 * the other side. Ranks are left for the caller to fix.
+	 * @param node
+	 * The node moving up.
+	 */
+	private void rotate(Node<K, V> node){
+		Node<K, V> parent = node.parent;
+		Node<K, V> grand = parent.parent;
+
+		if(parent.left == node){
+			parent.left = node.right;
+			if(node.right != null)
+				node.right.parent = parent;
+			node.right = parent;
+
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.rightRotation();
+		}
+		else{
+			parent.right = node.left;
+			if(node.left != null)
+				node.left.parent = parent;
+			node.left = parent;
+
+			if(TreeMetrics.ENABLED)
+				TreeMetrics.leftRotation();
+		}
+
+		parent.parent = node;
+		node.parent = grand;
+
+		if(grand == null)
+			root = node;
+		else if(grand.left == parent)
+			grand.left = node;
+		else
+			grand.right = node;
+	}
+
+	/**
+	 * Returns the rank of a sub-tree, -1 for a null child.
+	 */
+	private static int rank(Node<?, ?> node){
+		return node == null ? -1 : node.rank;
+	}
+
+	/**
+	 * Tree node with its rank.
+	 *
+	 * Fields include:
+	 * 	-key
+	 * 	-value
+	 *	-left
+	 *	-right
+	 *	-parent
+	 *	-rank, new leaves start at 0
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	private static final class Node<K, V> implements Map.Entry<K, V>{
+		K key;
+		V value;
+		Node<K, V> left;
+		Node<K, V> right;
+		Node<K, V> parent;
+		int rank;
+
+		/**
+		 * Creates a leaf under the parent.
+		 * @param key
+		 * Key the node will have.
+		 * @param value
+		 * Value the node will have.
+		 * @param parent
+		 * Parent of the node, null for the root.
+		 */
+		Node(K key, V value, Node<K, V> parent){
+			this.key = key;
+			this.value = value;
+			this.parent = parent;
+		}
+
+		public K getKey(){
+			return key;
+		}
+
+		public V getValue(){
+			return value;
+		}
+
+		public V setValue(V newValue){
+			V oldValue = value;
+			value = newValue;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if(!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode(){
+			return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString(){
+			return key + "=" + value;
+		}
+	}
+}
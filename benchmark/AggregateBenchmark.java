@@ -0,0 +1,95 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of range aggregates on the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Times summing the values of random key ranges of several widths with
+ * aggregate() and with a range() scan, and what keeping the sums costs
+ * when filling the tree.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/AggregateBenchmark.java
+ *   java -cp out AggregateBenchmark [keys] [queries]
+ */
+public class AggregateBenchmark {
+	//results are added here so the JIT can't drop the queries
+	private static volatile long sink;
+
+	/**
+	 * Runs every step and prints how long each took.
+	 *
+	 * @param args
+	 * optional number of keys and number of queries per range width.
+	 */
+	public static void main(String[] args){
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		Random random = new Random(42);
+
+		Long[] added = new Long[keys];
+		for(int i = 0; i < keys; i++)
+			added[i] = random.nextLong() & Long.MAX_VALUE;
+
+		System.out.println("keys=" + keys + ", queries=" + queries);
+
+		RedBlackTree<Long, Long> plain = new RedBlackTree<Long, Long>(true);
+		long start = System.nanoTime();
+		for(Long key : added)
+			plain.add(key, key);
+		System.out.printf("fill without sums %10.1f ns/add%n", (double) (System.nanoTime() - start) / keys);
+
+		RedBlackTree<Long, Long> summed = new RedBlackTree<Long, Long>(true, false, 0L, Long::sum);
+		start = System.nanoTime();
+		for(Long key : added)
+			summed.add(key, key & 0xFFFF);
+		System.out.printf("fill with sums    %10.1f ns/add%n", (double) (System.nanoTime() - start) / keys);
+
+		//keys are spread evenly, so a width of w covers about w * keys / 2^63 of them
+		for(long width : new long[]{10, 1000, 100000}){
+			long span = Long.MAX_VALUE / keys * width;
+			long[] lo = new long[queries];
+			for(int i = 0; i < queries; i++)
+				lo[i] = (random.nextLong() & Long.MAX_VALUE) % (Long.MAX_VALUE - span);
+
+			for(int run = 0; run < 3; run++){
+				start = System.nanoTime();
+				long total = 0;
+				for(int i = 0; i < queries; i++)
+					total += summed.aggregate(lo[i], lo[i] + span);
+				long aggregate = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				long scanned = 0;
+				for(int i = 0; i < queries; i++){
+					Iterator<Map.Entry<Long, Long>> range = summed.range(lo[i], lo[i] + span);
+					while(range.hasNext())
+						scanned += range.next().getValue();
+				}
+				long scan = System.nanoTime() - start;
+
+				if(total != scanned)
+					System.out.println("sums disagree: " + total + " vs " + scanned);
+				sink += total;
+
+				if(run == 2)
+					System.out.printf("about %6d keys per range: aggregate %10.1f ns, scan %12.1f ns%n", width, (double) aggregate / queries, (double) scan / queries);
+			}
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Multi-threaded benchmark of the concurrent Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Measures how the throughput of ConcurrentRedBlackTree scales with the
+ * number of threads at 95/5 and 50/50 read/write mixes, next to a
+ * RedBlackTree guarded by one synchronized block.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/ConcurrentTreeBenchmark.java
+ *   java -cp out ConcurrentTreeBenchmark [keys] [seconds per run]
+ */
+public class ConcurrentTreeBenchmark {
+
+	/**
+	 * Runs every tree, read percentage and thread count combination and
+	 * prints the operations per second of each.
+	 *
+	 * @param args
+	 * optional number of keys and seconds per run.
+	 * @throws InterruptedException
+	 * if the benchmark is interrupted.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		List<Integer> threadCounts = new ArrayList<Integer>();
+		for(int threads = 1; threads < cores; threads *= 2)
+			threadCounts.add(threads);
+		threadCounts.add(cores);
+
+		System.out.println("keys=" + keys + ", cores=" + cores + ", " + seconds + "s per run");
+		System.out.println("tree\treads%\tthreads\tops/s");
+
+		for(int readPercent : new int[]{95, 50}){
+			for(int threads : threadCounts){
+				report("stamped", readPercent, threads, run(new ConcurrentRedBlackTree<Integer, Integer>(), keys, readPercent, threads, seconds));
+				report("synchronized", readPercent, threads, run(new SynchronizedTree(), keys, readPercent, threads, seconds));
+			}
+		}
+	}
+
+	/**
+	 * Fills the tree with every other key in the key range, then lets the
+	 * threads run random lookups, adds and removes for the given time.
+	 *
+	 * @param tree
+	 * Tree being measured.
+	 * @param keys
+	 * Size of the key range.
+	 * @param readPercent
+	 * Percentage of operations that are lookups, the rest are split between adds and removes.
+	 * @param threads
+	 * Number of threads running operations.
+	 * @param seconds
+	 * How long the threads run.
+	 * @return
+	 * returns the number of operations per second over all threads.
+	 * @throws InterruptedException
+	 * if the benchmark is interrupted.
+	 */
+	private static double run(final Tree<Integer, Integer> tree, final int keys, final int readPercent, int threads, int seconds) throws InterruptedException {
+		for(int i = 0; i < keys; i += 2)
+			tree.add(i, i);
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final LongAdder operations = new LongAdder();
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<Thread>();
+
+		for(int t = 0; t < threads; t++){
+			Thread worker = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long done = 0;
+
+				try{
+					start.await();
+				}
+				catch(InterruptedException e){
+					return;
+				}
+
+				while(running.get()){
+					Integer key = random.nextInt(keys);
+					int op = random.nextInt(100);
+
+					if(op < readPercent)
+						tree.lookup(key);
+					else if((op & 1) == 0)
+						tree.add(key, key);
+					else
+						tree.remove(key);
+
+					done++;
+				}
+
+				operations.add(done);
+			});
+			worker.start();
+			workers.add(worker);
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		Thread.sleep(seconds * 1000L);
+		running.set(false);
+
+		for(Thread worker : workers)
+			worker.join();
+
+		return operations.sum() / ((System.nanoTime() - begin) / 1e9);
+	}
+
+	/**
+	 * Prints one line of results.
+	 */
+	private static void report(String tree, int readPercent, int threads, double opsPerSecond){
+		System.out.printf("%s\t%d\t%d\t%.0f%n", tree, readPercent, threads, opsPerSecond);
+	}
+
+	/**
+	 * The baseline, a RedBlackTree where every operation holds one monitor.
+	 */
+	private static class SynchronizedTree implements Tree<Integer, Integer> {
+		private final RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>(true);
+
+		public synchronized void add(Integer key, Integer value){
+			tree.add(key, value);
+		}
+
+		public synchronized Integer remove(Integer key){
+			return tree.remove(key);
+		}
+
+		public synchronized Integer lookup(Integer key){
+			return tree.lookup(key);
+		}
+
+		public synchronized String toPrettyString(){
+			return tree.toPrettyString();
+		}
+	}
+}
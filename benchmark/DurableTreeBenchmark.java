@@ -0,0 +1,97 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of the commit policies of the durable Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Times threads adding keys to a DurableRedBlackTree under each commit
+ * policy, then times reopening the directory and replaying the log.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/DurableTreeBenchmark.java
+ *   java -cp out DurableTreeBenchmark [adds per thread] [threads]
+ */
+public class DurableTreeBenchmark {
+
+	/**
+	 * Runs every policy once and prints its throughput.
+	 *
+	 * @param args
+	 * optional number of adds per thread and number of threads.
+	 * @throws Exception
+	 * if the tree directory can't be written or read.
+	 */
+	public static void main(String[] args) throws Exception {
+		int adds = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+		System.out.println("adds per thread=" + adds + ", threads=" + threads);
+
+		run("per operation", CommitPolicy.perOperation(), adds, threads);
+		run("per batch of 64", CommitPolicy.perBatch(64), adds, threads);
+		run("interval 10ms", CommitPolicy.interval(10), adds, threads);
+	}
+
+	/**
+	 * Fills a new tree with the policy, closes it and reopens it.
+	 */
+	private static void run(String name, CommitPolicy policy, int adds, int threads) throws Exception {
+		Path directory = Files.createTempDirectory("durable");
+		DurableRedBlackTree<Integer, Integer> tree = new DurableRedBlackTree<Integer, Integer>(directory, Codec.INTEGER, Codec.INTEGER, policy);
+
+		Thread[] workers = new Thread[threads];
+		for(int t = 0; t < threads; t++){
+			int first = t * adds;
+			workers[t] = new Thread(() -> {
+				for(int i = 0; i < adds; i++)
+					tree.add(Integer.reverse(first + i), i);
+			});
+		}
+
+		long start = System.nanoTime();
+		for(Thread worker : workers)
+			worker.start();
+		for(Thread worker : workers)
+			worker.join();
+		tree.close();
+		long elapsed = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		DurableRedBlackTree<Integer, Integer> reopened = new DurableRedBlackTree<Integer, Integer>(directory, Codec.INTEGER, Codec.INTEGER, policy);
+		long reopen = System.nanoTime() - start;
+
+		if(reopened.size() != adds * threads)
+			System.out.println("reopened tree holds " + reopened.size() + " keys");
+		reopened.close();
+
+		System.out.printf("%-16s %10.0f adds/s %8.1f us/add   reopen %7.1f ms%n", name, adds * threads / (elapsed / 1e9), elapsed / 1e3 / adds, reopen / 1e6);
+
+		delete(directory);
+	}
+
+	/**
+	 * Deletes the tree directory and its files.
+	 */
+	private static void delete(Path directory) throws IOException {
+		try(Stream<Path> files = Files.walk(directory)){
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of finger searches on the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.Random;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Times appending ascending keys, adding keys that arrive slightly out of
+ * order, and looking up every key in order, once through RedBlackTree's
+ * add() and lookup() and once through a Finger.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/FingerBenchmark.java
+ *   java -cp out FingerBenchmark [keys] [runs]
+ */
+public class FingerBenchmark {
+	//results are added here so the JIT can't drop the lookups
+	private static volatile long sink;
+
+	/**
+	 * Runs every workload and prints the best time of each.
+	 *
+	 * @param args
+	 * optional number of keys and number of runs.
+	 */
+	public static void main(String[] args){
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		//each key is up to 16 places away from where it belongs in time order
+		Integer[] ascending = new Integer[keys];
+		Integer[] jittered = new Integer[keys];
+		Random random = new Random(42);
+		for(int i = 0; i < keys; i++){
+			ascending[i] = i;
+			jittered[i] = i * 16 + random.nextInt(256);
+		}
+
+		System.out.println("keys=" + keys + ", best of " + runs + " runs, ns per operation");
+		System.out.println("workload\tadd()\tfinger");
+
+		long[] append = new long[2];
+		long[] nearby = new long[2];
+		long[] scan = new long[2];
+		for(int i = 0; i < 2; i++){
+			append[i] = nearby[i] = scan[i] = Long.MAX_VALUE;
+		}
+
+		for(int run = 0; run < runs; run++){
+			for(int useFinger = 0; useFinger < 2; useFinger++){
+				RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>(true);
+				RedBlackTree<Integer, Integer>.Finger finger = tree.finger();
+
+				long start = System.nanoTime();
+				for(Integer key : ascending){
+					if(useFinger == 1)
+						finger.add(key, key);
+					else
+						tree.add(key, key);
+				}
+				append[useFinger] = Math.min(append[useFinger], System.nanoTime() - start);
+
+				start = System.nanoTime();
+				long found = 0;
+				for(Integer key : ascending){
+					if((useFinger == 1 ? finger.lookup(key) : tree.lookup(key)) != null)
+						found++;
+				}
+				scan[useFinger] = Math.min(scan[useFinger], System.nanoTime() - start);
+				sink += found;
+
+				tree = new RedBlackTree<Integer, Integer>(true);
+				finger = tree.finger();
+
+				start = System.nanoTime();
+				for(Integer key : jittered){
+					if(useFinger == 1)
+						finger.add(key, key);
+					else
+						tree.add(key, key);
+				}
+				nearby[useFinger] = Math.min(nearby[useFinger], System.nanoTime() - start);
+			}
+		}
+
+		report("append", append, keys);
+		report("jittered add", nearby, keys);
+		report("in order lookup", scan, keys);
+	}
+
+	/**
+	 * Prints the time per operation of both ways.
+	 */
+	private static void report(String workload, long[] nanos, int keys){
+		System.out.printf("%s\t%.1f\t%.1f%n", workload, (double) nanos[0] / keys, (double) nanos[1] / keys);
+	}
+}
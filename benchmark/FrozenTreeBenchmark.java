@@ -0,0 +1,155 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of frozen array indexes against the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Fills a RedBlackTree with random keys, freezes it, and times random
+ * lookups, half of which miss, and range scans of 100 keys on both. Also
+ * times freeze() and thaw() themselves.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/FrozenTreeBenchmark.java
+ *   java -cp out FrozenTreeBenchmark [keys] [runs]
+ */
+public class FrozenTreeBenchmark {
+	//keys in each range scan
+	private static final int SCAN = 100;
+
+	//results are added here so the JIT can't drop the reads
+	private static volatile long sink;
+
+	//sum of the keys seen by forEach scans
+	private static long scanned;
+
+	/**
+	 * Runs every workload and prints the best time of each.
+	 *
+	 * @param args
+	 * optional number of keys and number of runs.
+	 */
+	public static void main(String[] args){
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		//even keys in random order, probes anywhere in the range so half of them miss
+		Random random = new Random(42);
+		Integer[] fill = new Integer[keys];
+		for(int i = 0; i < keys; i++)
+			fill[i] = 2 * i;
+		for(int i = keys - 1; i > 0; i--){
+			int j = random.nextInt(i + 1);
+			Integer swap = fill[i];
+			fill[i] = fill[j];
+			fill[j] = swap;
+		}
+
+		Integer[] probes = new Integer[keys];
+		Integer[] scanStarts = new Integer[keys / SCAN];
+		Integer[] scanEnds = new Integer[keys / SCAN];
+		for(int i = 0; i < keys; i++)
+			probes[i] = random.nextInt(2 * keys);
+		for(int i = 0; i < scanStarts.length; i++){
+			scanStarts[i] = random.nextInt(2 * keys);
+			scanEnds[i] = scanStarts[i] + 2 * SCAN - 1;
+		}
+
+		RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>(true);
+		for(Integer key : fill)
+			tree.add(key, key);
+
+		long lookupTree = Long.MAX_VALUE;
+		long lookupFrozen = Long.MAX_VALUE;
+		long scanTree = Long.MAX_VALUE;
+		long scanFrozen = Long.MAX_VALUE;
+		long scanFrozenForEach = Long.MAX_VALUE;
+		long freeze = Long.MAX_VALUE;
+		long thaw = Long.MAX_VALUE;
+
+		for(int run = 0; run < runs; run++){
+			long start = System.nanoTime();
+			FrozenTree<Integer, Integer> frozen = tree.freeze();
+			freeze = Math.min(freeze, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			sink += frozen.thaw(true, false).size();
+			thaw = Math.min(thaw, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			sink += lookups(tree, probes);
+			lookupTree = Math.min(lookupTree, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			sink += lookups(frozen, probes);
+			lookupFrozen = Math.min(lookupFrozen, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			long sum = 0;
+			for(int i = 0; i < scanStarts.length; i++)
+				sum += sum(tree.range(scanStarts[i], scanEnds[i]));
+			scanTree = Math.min(scanTree, System.nanoTime() - start);
+			sink += sum;
+
+			start = System.nanoTime();
+			sum = 0;
+			for(int i = 0; i < scanStarts.length; i++)
+				sum += sum(frozen.range(scanStarts[i], scanEnds[i]));
+			scanFrozen = Math.min(scanFrozen, System.nanoTime() - start);
+			sink += sum;
+
+			start = System.nanoTime();
+			scanned = 0;
+			for(int i = 0; i < scanStarts.length; i++)
+				frozen.forEach(scanStarts[i], scanEnds[i], (key, value) -> scanned += value);
+			scanFrozenForEach = Math.min(scanFrozenForEach, System.nanoTime() - start);
+			sink += scanned;
+		}
+
+		System.out.println("keys=" + keys + ", best of " + runs + " runs");
+		System.out.printf("lookup, ns/op\ttree %.1f\tfrozen %.1f%n", (double) lookupTree / keys, (double) lookupFrozen / keys);
+		System.out.printf("scan of %d, ns/scan\ttree range() %.1f\tfrozen range() %.1f\tfrozen forEach() %.1f%n", SCAN,
+				(double) scanTree / scanStarts.length, (double) scanFrozen / scanStarts.length, (double) scanFrozenForEach / scanStarts.length);
+		System.out.printf("freeze %.1f ms\tthaw %.1f ms%n", freeze / 1e6, thaw / 1e6);
+	}
+
+	/**
+	 * Looks up every probe and returns how many were found.
+	 */
+	private static long lookups(Tree<Integer, Integer> tree, Integer[] probes){
+		long found = 0;
+
+		for(Integer probe : probes){
+			if(tree.lookup(probe) != null)
+				found++;
+		}
+
+		return found;
+	}
+
+	/**
+	 * Adds up the values the iterator returns.
+	 */
+	private static long sum(Iterator<Map.Entry<Integer, Integer>> entries){
+		long sum = 0;
+
+		while(entries.hasNext())
+			sum += entries.next().getValue();
+
+		return sum;
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of the memory-mapped Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Fills a MappedRedBlackTree, closes it, then times reopening the file
+ * and running random lookups against it, next to an on-heap LongRedBlackTree
+ * with the same keys.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/MappedTreeBenchmark.java
+ *   java -cp out MappedTreeBenchmark [keys] [lookups]
+ */
+public class MappedTreeBenchmark {
+
+	/**
+	 * Runs every step once and prints how long each took.
+	 *
+	 * @param args
+	 * optional number of keys and number of lookups.
+	 * @throws IOException
+	 * if the tree file can't be written or read.
+	 */
+	public static void main(String[] args) throws IOException {
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		File file = File.createTempFile("tree", ".rbt");
+		file.delete();
+		file.deleteOnExit();
+
+		long[] added = new long[keys];
+		Random random = new Random(42);
+		for(int i = 0; i < keys; i++)
+			added[i] = random.nextLong();
+
+		//half the lookups are for keys in the tree, half almost surely miss
+		long[] searched = new long[lookups];
+		for(int i = 0; i < lookups; i++)
+			searched[i] = (i & 1) == 0 ? added[random.nextInt(keys)] : random.nextLong();
+
+		System.out.println("keys=" + keys + ", lookups=" + lookups);
+
+		long start = System.nanoTime();
+		try(MappedRedBlackTree tree = new MappedRedBlackTree(file.toPath())){
+			for(int i = 0; i < keys; i++)
+				tree.add(added[i], i);
+		}
+		report("fill and close", start);
+		System.out.printf("file is %.1f MB%n", file.length() / 1e6);
+
+		start = System.nanoTime();
+		MappedRedBlackTree tree = new MappedRedBlackTree(file.toPath());
+		report("reopen", start);
+
+		start = System.nanoTime();
+		long found = 0;
+		for(long key : searched){
+			if(tree.contains(key))
+				found++;
+		}
+		report("mapped lookups", start);
+		tree.close();
+
+		LongRedBlackTree<Long> heap = new LongRedBlackTree<Long>();
+		for(int i = 0; i < keys; i++)
+			heap.add(added[i], (long) i);
+
+		start = System.nanoTime();
+		for(long key : searched){
+			if(heap.lookup(key) != null)
+				found--;
+		}
+		report("heap lookups", start);
+
+		if(found != 0)
+			System.out.println("trees disagree on " + found + " lookups");
+	}
+
+	/**
+	 * Prints how long a step took.
+	 */
+	private static void report(String step, long start){
+		System.out.printf("%-16s %8.1f ms%n", step, (System.nanoTime() - start) / 1e6);
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of nearest key lookups through RedBlackTreeMap
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.lang.management.ManagementFactory;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Times floorKey(), ceilingKey(), higherKey() and lowerKey() with random
+ * probes that mostly miss, and counts a full scan of a sub-map, on a
+ * RedBlackTreeMap and on a java.util.TreeMap holding the same keys. Bytes
+ * per operation come from the allocation counter of the running thread.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/NavigableMapBenchmark.java
+ *   java -cp out NavigableMapBenchmark [keys] [runs]
+ */
+public class NavigableMapBenchmark {
+	private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	//results are added here so the JIT can't drop the lookups
+	private static volatile long sink;
+
+	/**
+	 * Runs every lookup on both maps and prints the best time of each.
+	 *
+	 * @param args
+	 * optional number of keys and number of runs.
+	 */
+	public static void main(String[] args){
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		//even keys in the maps, probes anywhere in the range so half of them miss
+		Random random = new Random(42);
+		Integer[] probes = new Integer[keys];
+		for(int i = 0; i < keys; i++)
+			probes[i] = random.nextInt(2 * keys);
+
+		NavigableMap<Integer, Integer> redBlack = new RedBlackTreeMap<Integer, Integer>();
+		NavigableMap<Integer, Integer> treeMap = new TreeMap<Integer, Integer>();
+		for(int i = 0; i < keys; i++){
+			redBlack.put(2 * i, i);
+			treeMap.put(2 * i, i);
+		}
+
+		System.out.println("keys=" + keys + ", best of " + runs + " runs");
+		System.out.println("operation\tstructure\tns/op\tB/op");
+
+		String[] operations = {"floorKey", "ceilingKey", "higherKey", "lowerKey", "subMap scan"};
+		for(String operation : operations){
+			measure(operation, "redBlackMap", redBlack, probes, runs);
+			measure(operation, "treeMap", treeMap, probes, runs);
+		}
+	}
+
+	/**
+	 * Runs one operation on one map and prints its best time and the bytes
+	 * it allocated.
+	 */
+	private static void measure(String operation, String structure, NavigableMap<Integer, Integer> map, Integer[] probes, int runs){
+		long best = Long.MAX_VALUE;
+		long bytes = 0;
+		int ops = operation.equals("subMap scan") ? map.size() / 2 : probes.length;
+
+		for(int run = 0; run < runs; run++){
+			long allocated = threads.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			sink += run(operation, map, probes);
+			best = Math.min(best, System.nanoTime() - start);
+			bytes = threads.getCurrentThreadAllocatedBytes() - allocated;
+		}
+
+		System.out.printf("%s\t%s\t%.1f\t%.1f%n", operation, structure, (double) best / ops, (double) bytes / ops);
+	}
+
+	/**
+	 * Does one pass of the operation and returns a sum of its results.
+	 */
+	private static long run(String operation, NavigableMap<Integer, Integer> map, Integer[] probes){
+		long sum = 0;
+
+		switch(operation){
+			case "floorKey":
+				for(Integer probe : probes){
+					Integer key = map.floorKey(probe);
+					sum += key == null ? 0 : key;
+				}
+				break;
+			case "ceilingKey":
+				for(Integer probe : probes){
+					Integer key = map.ceilingKey(probe);
+					sum += key == null ? 0 : key;
+				}
+				break;
+			case "higherKey":
+				for(Integer probe : probes){
+					Integer key = map.higherKey(probe);
+					sum += key == null ? 0 : key;
+				}
+				break;
+			case "lowerKey":
+				for(Integer probe : probes){
+					Integer key = map.lowerKey(probe);
+					sum += key == null ? 0 : key;
+				}
+				break;
+			default:
+				//the middle half of the keys
+				int size = map.size();
+				for(Integer key : map.subMap(size / 2, true, 3 * size / 2, false).keySet())
+					sum += key;
+		}
+
+		return sum;
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of parallel traversal of the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Sums the values of a large tree with a sequential loop, a sequential
+ * stream, a parallel stream, parallelReduce and parallelForEach, and
+ * prints the best time of each and its speedup over the loop.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/ParallelTraversalBenchmark.java
+ *   java -Xmx4g -cp out ParallelTraversalBenchmark [keys] [rounds]
+ */
+public class ParallelTraversalBenchmark {
+
+	/**
+	 * Builds the tree, then times every traversal.
+	 *
+	 * @param args
+	 * optional number of keys and number of timed rounds.
+	 */
+	public static void main(String[] args){
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		Long[] sorted = new Long[keys];
+		for(int i = 0; i < keys; i++)
+			sorted[i] = (long) i;
+
+		final RedBlackTree<Long, Long> tree = new RedBlackTree<Long, Long>(true, true);
+		tree.buildFromSorted(sorted, sorted);
+		sorted = null;
+
+		System.out.println("keys=" + keys + ", cores=" + Runtime.getRuntime().availableProcessors()
+				+ ", pool parallelism=" + ForkJoinPool.getCommonPoolParallelism());
+
+		double loop = best(rounds, () -> {
+			long sum = 0;
+			for(Map.Entry<Long, Long> entry : tree)
+				sum += entry.getValue();
+			return sum;
+		});
+		report("loop", loop, loop);
+
+		report("stream", loop, best(rounds, () -> tree.stream().mapToLong(Map.Entry::getValue).sum()));
+		report("parallel stream", loop, best(rounds, () -> tree.stream().parallel().mapToLong(Map.Entry::getValue).sum()));
+		report("parallelReduce", loop, best(rounds, () -> tree.parallelReduce(0L, (key, value) -> value, Long::sum)));
+		report("parallelForEach", loop, best(rounds, () -> {
+			LongAdder sum = new LongAdder();
+			tree.parallelForEach((key, value) -> sum.add(value));
+			return sum.sum();
+		}));
+	}
+
+	/**
+	 * A traversal that sums the values of the tree.
+	 */
+	private interface Traversal{
+		long sum();
+	}
+
+	/**
+	 * Runs the traversal a number of times and keeps the best time.
+	 *
+	 * @param rounds
+	 * Number of timed runs.
+	 * @param traversal
+	 * The traversal being timed.
+	 * @return
+	 * returns the best time in milliseconds.
+	 */
+	private static double best(int rounds, Traversal traversal){
+		double best = Double.MAX_VALUE;
+		long check = 0;
+
+		for(int i = 0; i < rounds; i++){
+			long start = System.nanoTime();
+			check += traversal.sum();
+			best = Math.min(best, (System.nanoTime() - start) / 1e6);
+		}
+
+		//use the sums so the traversal can't be optimized away
+		if(check == 42)
+			System.out.println();
+
+		return best;
+	}
+
+	/**
+	 * Prints one line of results.
+	 */
+	private static void report(String name, double loop, double millis){
+		System.out.printf("%-16s %8.1f ms  %5.2fx%n", name, millis, loop / millis);
+	}
+}
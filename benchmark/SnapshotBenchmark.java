@@ -0,0 +1,91 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of saving and loading Red-Black tree snapshots
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Compares starting up a tree by adding every key again, the way it was
+ * rebuilt before snapshots, with loading it from a snapshot file, and
+ * also times writing the snapshot.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/SnapshotBenchmark.java
+ *   java -Xmx4g -cp out SnapshotBenchmark [keys]
+ */
+public class SnapshotBenchmark {
+
+	/**
+	 * Runs each step once, since a restart only happens once.
+	 *
+	 * @param args
+	 * optional number of keys.
+	 * @throws IOException
+	 * if the snapshot file can't be written or read.
+	 */
+	public static void main(String[] args) throws IOException {
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		File file = File.createTempFile("tree", ".snapshot");
+		file.deleteOnExit();
+
+		//random keys in random order, like keys coming back from a log or database
+		int[] order = new int[keys];
+		Random random = new Random(42);
+		for(int i = 0; i < keys; i++)
+			order[i] = random.nextInt();
+
+		System.out.println("keys=" + keys);
+
+		long start = System.nanoTime();
+		RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>(true);
+		for(int key : order)
+			tree.add(key, key);
+		report("rebuild with add", start);
+
+		start = System.nanoTime();
+		try(OutputStream out = new FileOutputStream(file)){
+			tree.writeTo(out, Codec.INTEGER, Codec.INTEGER);
+		}
+		report("writeTo", start);
+		System.out.printf("snapshot is %.1f MB for %d keys%n", file.length() / 1e6, tree.size());
+
+		tree = null;
+		order = null;
+		System.gc();
+
+		start = System.nanoTime();
+		RedBlackTree<Integer, Integer> loaded = new RedBlackTree<Integer, Integer>(true);
+		try(InputStream in = new FileInputStream(file)){
+			loaded.readFrom(in, Codec.INTEGER, Codec.INTEGER);
+		}
+		report("readFrom", start);
+
+		if(loaded.size() == 0)
+			System.out.println("snapshot was empty");
+	}
+
+	/**
+	 * Prints how long a step took.
+	 */
+	private static void report(String step, long start){
+		System.out.printf("%-18s %8.0f ms%n", step, (System.nanoTime() - start) / 1e6);
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Benchmark of the WAVL engine against the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Fills a RedBlackTree and a WavlTree with the same random keys, then runs
+ * the same mixed workload on both, 40% removes, 40% adds and 20% lookups
+ * over twice the key range so the trees keep about the same size. Prints
+ * the time per operation of each phase, the rotations per add and per
+ * remove call, misses included, and the height of each tree after each
+ * phase.
+ *
+ * Rotations are read from TreeMetrics, so they are only counted when the
+ * JVM is started with -Dredblacktree.metrics=true. The counters slow the
+ * trees down a little, so times should be taken from a run without it.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java benchmark/WavlBenchmark.java
+ *   java -cp out WavlBenchmark [keys] [operations]
+ *   java -Dredblacktree.metrics=true -cp out WavlBenchmark [keys] [operations]
+ */
+public class WavlBenchmark {
+	//engines compared, the Red-Black tree first
+	private static final TreeEngine[] ENGINES = {TreeEngine.redBlack, TreeEngine.wavl};
+
+	//results are added here so the JIT can't drop the lookups
+	private static volatile long sink;
+
+	/**
+	 * Runs both phases on both engines and prints the results.
+	 *
+	 * @param args
+	 * optional number of keys and number of mixed operations.
+	 */
+	public static void main(String[] args) throws MalformedObjectNameException {
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int operations = args.length > 1 ? Integer.parseInt(args[1]) : 4000000;
+
+		Random random = new Random(42);
+		Integer[] fill = new Integer[keys];
+		for(int i = 0; i < keys; i++)
+			fill[i] = random.nextInt(2 * keys);
+
+		//0 is a remove, 1 an add and 2 a lookup
+		Integer[] opKeys = new Integer[operations];
+		byte[] ops = new byte[operations];
+		for(int i = 0; i < operations; i++){
+			int draw = random.nextInt(5);
+			ops[i] = (byte) (draw < 2 ? 0 : draw < 4 ? 1 : 2);
+			opKeys[i] = random.nextInt(2 * keys);
+		}
+
+		TreeMetricsMBean metrics = TreeMetrics.ENABLED ? JMX.newMBeanProxy(ManagementFactory.getPlatformMBeanServer(), new ObjectName("RedBlackTree:type=Metrics"), TreeMetricsMBean.class) : null;
+
+		System.out.println("keys=" + keys + ", mixed operations=" + operations + ", rotations " + (metrics == null ? "not counted" : "counted"));
+		System.out.println("engine\tphase\tns/op\trotations/add\trotations/remove\theight\tsize");
+
+		//run twice, the first time only warms up the JIT
+		for(int run = 0; run < 2; run++){
+			for(TreeEngine engine : ENGINES){
+				Tree<Integer, Integer> tree = engine.create();
+
+				long rotations = rotations(metrics);
+				long start = System.nanoTime();
+				for(Integer key : fill)
+					tree.add(key, key);
+				long fillTime = System.nanoTime() - start;
+				long fillRotations = rotations(metrics) - rotations;
+
+				if(run == 1)
+					report(engine, "fill", tree, fillTime, keys, fillRotations, keys, 0, 0, metrics);
+
+				long addRotations = 0;
+				long removeRotations = 0;
+				long adds = 0;
+				long removes = 0;
+				long found = 0;
+
+				start = System.nanoTime();
+				for(int i = 0; i < operations; i++){
+					if(metrics != null){
+						//split the rotations between adds and removes
+						rotations = rotations(metrics);
+						found += run(tree, ops[i], opKeys[i]);
+						if(ops[i] == 0)
+							removeRotations += rotations(metrics) - rotations;
+						else if(ops[i] == 1)
+							addRotations += rotations(metrics) - rotations;
+					}
+					else{
+						found += run(tree, ops[i], opKeys[i]);
+					}
+
+					if(ops[i] == 0)
+						removes++;
+					else if(ops[i] == 1)
+						adds++;
+				}
+				long mixedTime = System.nanoTime() - start;
+				sink += found;
+
+				if(run == 1)
+					report(engine, "mixed", tree, mixedTime, operations, addRotations, adds, removeRotations, removes, metrics);
+			}
+		}
+	}
+
+	/**
+	 * Runs one operation and returns 1 if it found or removed a key.
+	 */
+	private static int run(Tree<Integer, Integer> tree, byte op, Integer key){
+		if(op == 0)
+			return tree.remove(key) != null ? 1 : 0;
+
+		if(op == 1){
+			tree.add(key, key);
+			return 0;
+		}
+
+		return tree.lookup(key) != null ? 1 : 0;
+	}
+
+	/**
+	 * Returns the number of rotations so far, 0 if they aren't counted.
+	 */
+	private static long rotations(TreeMetricsMBean metrics){
+		return metrics == null ? 0 : metrics.getLeftRotations() + metrics.getRightRotations();
+	}
+
+	/**
+	 * Prints one line of results.
+	 */
+	private static void report(TreeEngine engine, String phase, Tree<Integer, Integer> tree, long nanos, int operations, long addRotations, long adds, long removeRotations, long removes, TreeMetricsMBean metrics){
+		System.out.printf("%s\t%s\t%.1f\t%s\t%s\t%d\t%d%n", engine, phase, (double) nanos / operations,
+				ratio(metrics, addRotations, adds), ratio(metrics, removeRotations, removes), height(tree), size(tree));
+	}
+
+	/**
+	 * Formats rotations per operation, or a dash if there is nothing to show.
+	 */
+	private static String ratio(TreeMetricsMBean metrics, long rotations, long operations){
+		return metrics == null || operations == 0 ? "-" : String.format("%.3f", (double) rotations / operations);
+	}
+
+	/**
+	 * Returns the number of nodes on the longest path from the root down.
+	 */
+	private static int height(Tree<Integer, Integer> tree){
+		if(tree instanceof WavlTree)
+			return ((WavlTree<Integer, Integer>) tree).height();
+
+		RedBlackTree<Integer, Integer> redBlack = (RedBlackTree<Integer, Integer>) tree;
+
+		//maxLevel() counts the null leaves as a level
+		return redBlack.root == null ? 0 : redBlack.maxLevel(redBlack.root) - 1;
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 */
+	private static int size(Tree<Integer, Integer> tree){
+		if(tree instanceof WavlTree)
+			return ((WavlTree<Integer, Integer>) tree).size();
+
+		return ((RedBlackTree<Integer, Integer>) tree).size();
+	}
+}
@@ -0,0 +1,63 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Bridge from the JMH suite to the trees in the default package
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import benchmarks.TreeBenchmark;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Lets benchmarks.TreeBenchmark time the trees. JMH won't run benchmarks
+ * in the default package and a named package can't import the trees, so
+ * the benchmark finds this class by name once per trial and times the
+ * trees through TreeBenchmark.Operations.
+ */
+public class TreeOperations implements TreeBenchmark.Operations {
+	private final Tree<Integer, Integer> tree;
+
+	private TreeOperations(Tree<Integer, Integer> tree){
+		this.tree = tree;
+	}
+
+	/**
+	 * Creates an empty tree by name.
+	 * @param structure
+	 * redBlack, redBlackShared or compact.
+	 * @return
+	 * returns the tree.
+	 */
+	public static TreeBenchmark.Operations create(String structure){
+		switch(structure){
+			case "redBlack":
+				return new TreeOperations(new RedBlackTree<Integer, Integer>());
+			case "redBlackShared":
+				return new TreeOperations(new RedBlackTree<Integer, Integer>(true));
+			case "compact":
+				return new TreeOperations(new CompactRedBlackTree<Integer, Integer>());
+			default:
+				throw new IllegalArgumentException("Unknown structure " + structure);
+		}
+	}
+
+	public void add(Integer key, Integer value){
+		tree.add(key, value);
+	}
+
+	public Integer lookup(Integer key){
+		return tree.lookup(key);
+	}
+
+	public Integer remove(Integer key){
+		return tree.remove(key);
+	}
+}
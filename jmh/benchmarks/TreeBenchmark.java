@@ -0,0 +1,418 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * JMH suite comparing the Red-Black tree to the JDK's sorted maps
+ *
+ * Jacob Romero
+ *
+ */
+package benchmarks;
+
+//Imports for functionality later on
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Times add, lookup, remove and a mixed workload on RedBlackTree and
+ * CompactRedBlackTree, next to java.util.TreeMap and ConcurrentSkipListMap,
+ * for sequential, random and Zipfian keys at several tree sizes.
+ *
+ * Each tree starts out holding the even keys from 0 to 2 * (size - 1),
+ * added in random order. Every invocation runs BATCH operations on keys
+ * drawn from the distribution: lookup and remove use the even keys in the
+ * tree, add uses the odd keys between them, and mixed both. add and remove
+ * are undone after each invocation, outside the timing, so every
+ * invocation sees a tree of the same size. Scores are per operation, and
+ * the GC profiler's gc.alloc.rate.norm is the bytes one operation
+ * allocates, since the keys are boxed before timing. The profiler counts
+ * the untimed undo too, so add and remove both show what one add allocates.
+ *
+ * The trees are in the default package, which JMH benchmarks can't be in
+ * and named packages can't import, so they are created through the
+ * TreeOperations bridge next to this package, looked up once per trial.
+ * Every structure, the JDK maps included, is used through the Operations
+ * interface, so each pays the same interface call.
+ *
+ * Run from the repository root, with the GC profiler:
+ *   gradle jmh
+ *   gradle jmh -PjmhIncludes=TreeBenchmark.lookup
+ * or build the benchmark jar and pick the parameters:
+ *   gradle jmhJar
+ *   java -jar build/libs/red-black-tree-jmh.jar TreeBenchmark -prof gc -p size=100000 -p distribution=zipfian
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(TreeBenchmark.BATCH)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+	//operations run by each invocation
+	static final int BATCH = 512;
+
+	//theta of the Zipfian keys, the usual YCSB skew
+	private static final double ZIPF_THETA = 0.99;
+
+	/**
+	 * Looks up keys that are in the tree.
+	 * @return
+	 * returns the number found, so the lookups can't be dropped.
+	 */
+	@Benchmark
+	public int lookup(Workload workload){
+		Operations tree = workload.tree;
+		Integer[] present = workload.present;
+		int found = 0;
+		int next = workload.presentNext;
+
+		for(int i = 0; i < BATCH; i++){
+			if(tree.lookup(present[next]) != null)
+				found++;
+			if(++next == present.length)
+				next = 0;
+		}
+
+		workload.presentNext = next;
+		return found;
+	}
+
+	/**
+	 * Adds keys that aren't in the tree, removed again after the invocation.
+	 */
+	@Benchmark
+	public void add(Added added){
+		Operations tree = added.tree;
+
+		for(Integer key : added.keys)
+			tree.add(key, key);
+	}
+
+	/**
+	 * Removes keys that are in the tree, added back after the invocation.
+	 * @return
+	 * returns the number removed, so the removes can't be dropped.
+	 */
+	@Benchmark
+	public int remove(Removed removed){
+		Operations tree = removed.tree;
+		int found = 0;
+
+		for(Integer key : removed.keys){
+			if(tree.remove(key) != null)
+				found++;
+		}
+
+		return found;
+	}
+
+	/**
+	 * Half lookups, a quarter adds and a quarter removes, over keys both
+	 * in the tree and between them.
+	 * @return
+	 * returns the number found or removed.
+	 */
+	@Benchmark
+	public int mixed(Workload workload){
+		Operations tree = workload.tree;
+		Integer[] mixed = workload.mixed;
+		int found = 0;
+		int next = workload.mixedNext;
+
+		for(int i = 0; i < BATCH; i++){
+			Integer key = mixed[next];
+
+			switch(i & 3){
+			case 0:
+			case 1:
+				if(tree.lookup(key) != null)
+					found++;
+				break;
+			case 2:
+				tree.add(key, key);
+				break;
+			default:
+				if(tree.remove(key) != null)
+					found++;
+			}
+
+			if(++next == mixed.length)
+				next = 0;
+		}
+
+		workload.mixedNext = next;
+		return found;
+	}
+
+	/**
+	 * The structure being timed, filled, and the keys drawn for it.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class Workload {
+		@Param({"1000", "100000", "1000000"})
+		public int size;
+
+		@Param({"sequential", "random", "zipfian"})
+		public Distribution distribution;
+
+		@Param({"redBlack", "redBlackShared", "compact", "treeMap", "skipList"})
+		public String structure;
+
+		Operations tree;
+
+		//keys in the tree, keys between them, and a mix of both, all in draw order
+		Integer[] present;
+		Integer[] absent;
+		Integer[] mixed;
+
+		//next draw each workload uses
+		int presentNext;
+		int absentNext;
+		int mixedNext;
+
+		/**
+		 * Draws the keys and fills the tree.
+		 */
+		@Setup(Level.Trial)
+		public void fill(){
+			Random random = new Random(42);
+			int[] draws = distribution.draws(size, Math.max(size, BATCH), random);
+			present = new Integer[draws.length];
+			absent = new Integer[draws.length];
+			mixed = new Integer[draws.length];
+
+			for(int i = 0; i < draws.length; i++){
+				present[i] = 2 * draws[i];
+				absent[i] = 2 * draws[i] + 1;
+				mixed[i] = 2 * draws[i] + random.nextInt(2);
+			}
+
+			tree = create(structure);
+			for(int key : Distribution.random.draws(size, size, new Random(7)))
+				tree.add(2 * key, 2 * key);
+		}
+	}
+
+	/**
+	 * A workload whose invocations add the next keys, taken back out once
+	 * they are timed. It extends Workload rather than taking one as a fixture
+	 * argument, since JMH hands each fixture its own thread-scoped instance.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class Added extends Workload {
+		final Integer[] keys = new Integer[BATCH];
+
+		@Setup(Level.Invocation)
+		public void next(){
+			absentNext = take(absent, absentNext, keys);
+		}
+
+		@TearDown(Level.Invocation)
+		public void undo(){
+			for(Integer key : keys)
+				tree.remove(key);
+		}
+	}
+
+	/**
+	 * A workload whose invocations remove the next keys, put back once they
+	 * are timed.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class Removed extends Workload {
+		final Integer[] keys = new Integer[BATCH];
+
+		@Setup(Level.Invocation)
+		public void next(){
+			presentNext = take(present, presentNext, keys);
+		}
+
+		@TearDown(Level.Invocation)
+		public void undo(){
+			for(Integer key : keys)
+				tree.add(key, key);
+		}
+	}
+
+	/**
+	 * Copies the next keys into the batch, wrapping around the draws.
+	 * @return
+	 * returns the draw after the last one taken.
+	 */
+	private static int take(Integer[] draws, int next, Integer[] batch){
+		for(int i = 0; i < batch.length; i++){
+			batch[i] = draws[next];
+			if(++next == draws.length)
+				next = 0;
+		}
+
+		return next;
+	}
+
+	/**
+	 * Creates an empty structure by name.
+	 */
+	private static Operations create(String structure){
+		switch(structure){
+			case "treeMap":
+				return new MapOperations(new TreeMap<Integer, Integer>());
+			case "skipList":
+				return new MapOperations(new ConcurrentSkipListMap<Integer, Integer>());
+			default:
+				try{
+					return (Operations) Class.forName("TreeOperations").getMethod("create", String.class).invoke(null, structure);
+				}
+				catch(ReflectiveOperationException e){
+					throw new IllegalStateException("Can't create the " + structure + " tree", e);
+				}
+		}
+	}
+
+	/**
+	 * The operations every structure is timed through.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	public interface Operations {
+		void add(Integer key, Integer value);
+
+		Integer lookup(Integer key);
+
+		Integer remove(Integer key);
+	}
+
+	/**
+	 * Lets a JDK sorted map be timed through Operations.
+	 */
+	private static class MapOperations implements Operations {
+		private final Map<Integer, Integer> map;
+
+		MapOperations(Map<Integer, Integer> map){
+			this.map = map;
+		}
+
+		public void add(Integer key, Integer value){
+			map.put(key, value);
+		}
+
+		public Integer lookup(Integer key){
+			return map.get(key);
+		}
+
+		public Integer remove(Integer key){
+			return map.remove(key);
+		}
+	}
+
+	/**
+	 * How the keys of a workload are drawn from 0 to size - 1.
+	 *
+	 * @author Jacob Romero
+	 *
+	 */
+	public enum Distribution{
+		//every key once, in ascending order, then again
+		sequential{
+			int[] draws(int size, int count, Random random){
+				int[] draws = new int[count];
+				for(int i = 0; i < count; i++)
+					draws[i] = i % size;
+
+				return draws;
+			}
+		},
+		//every key once in random order, then again
+		random{
+			int[] draws(int size, int count, Random random){
+				int[] order = sequential.draws(size, size, random);
+				for(int i = size - 1; i > 0; i--){
+					int j = random.nextInt(i + 1);
+					int swap = order[i];
+					order[i] = order[j];
+					order[j] = swap;
+				}
+
+				int[] draws = new int[count];
+				for(int i = 0; i < count; i++)
+					draws[i] = order[i % size];
+
+				return draws;
+			}
+		},
+		//skewed draws, a few hot keys take most operations, scattered over the range
+		zipfian{
+			int[] draws(int size, int count, Random random){
+				int[] scatter = Distribution.random.draws(size, size, random);
+				int[] draws = new int[count];
+
+				//Gray et al., "Quickly Generating Billion-Record Synthetic Databases"
+				double zetaN = zeta(size);
+				double alpha = 1 / (1 - ZIPF_THETA);
+				double eta = (1 - Math.pow(2.0 / size, 1 - ZIPF_THETA)) / (1 - zeta(2) / zetaN);
+
+				for(int i = 0; i < count; i++){
+					double u = random.nextDouble();
+					double uz = u * zetaN;
+					int rank;
+
+					if(uz < 1)
+						rank = 0;
+					else if(uz < 1 + Math.pow(0.5, ZIPF_THETA))
+						rank = 1;
+					else
+						rank = (int) (size * Math.pow(eta * u - eta + 1, alpha));
+
+					draws[i] = scatter[Math.min(rank, size - 1)];
+				}
+
+				return draws;
+			}
+		};
+
+		abstract int[] draws(int size, int count, Random random);
+
+		/**
+		 * Returns the sum of 1 / i^theta for i from 1 to n.
+		 */
+		private static double zeta(int n){
+			double sum = 0;
+			for(int i = 1; i <= n; i++)
+				sum += 1 / Math.pow(i, ZIPF_THETA);
+
+			return sum;
+		}
+	}
+}
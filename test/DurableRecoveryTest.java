@@ -0,0 +1,236 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Recovery checks for the durable Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Reopens DurableRedBlackTree logs after failed writes, torn tails,
+ * damage in the middle of a log and corrupt snapshot sizes, and checks
+ * what comes back. Exits with status 1 if any check fails.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java test/DurableRecoveryTest.java
+ *   java -cp out DurableRecoveryTest
+ */
+public class DurableRecoveryTest {
+	//number of failed checks
+	private static int failures;
+
+	/**
+	 * Runs every check and prints the ones that fail.
+	 *
+	 * @param args
+	 * unused.
+	 */
+	public static void main(String[] args) throws Exception {
+		failedEncodeKeepsLaterWrites();
+		tornTailIsDropped();
+		damageInTheMiddleFails();
+		corruptSnapshotSizesFail();
+
+		if(failures > 0){
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+
+		System.out.println("all checks passed");
+	}
+
+	/**
+	 * A value the codec can't write must not take the acknowledged writes
+	 * after it down with it.
+	 */
+	private static void failedEncodeKeepsLaterWrites() throws IOException {
+		Path directory = Files.createTempDirectory("durable");
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			tree.add(1, 1);
+			try{
+				tree.add(2, null);
+				check(false, "add of a null value should throw");
+			}
+			catch(NullPointerException e){
+				//expected, Codec.INTEGER can't write null
+			}
+			tree.add(3, 3);
+			tree.add(4, 4);
+		}
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			check(tree.size() == 3, "failed encode: size " + tree.size() + ", expected 3");
+			check(tree.lookup(1) != null && tree.lookup(3) != null && tree.lookup(4) != null, "failed encode: keys 1, 3 and 4 should survive");
+			check(tree.lookup(2) == null, "failed encode: key 2 should be missing");
+
+			//the log must still take new records after the failed one
+			tree.add(5, 5);
+		}
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			check(tree.size() == 4, "failed encode: size " + tree.size() + " after a second reopen, expected 4");
+		}
+
+		delete(directory);
+	}
+
+	/**
+	 * Half a record at the end of the newest log is what a crash leaves
+	 * behind, so it is dropped and the whole records before it are kept.
+	 */
+	private static void tornTailIsDropped() throws IOException {
+		Path directory = Files.createTempDirectory("durable");
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			for(int i = 0; i < 10; i++)
+				tree.add(i, i);
+		}
+
+		Path log = newestLog(directory);
+		long size = Files.size(log);
+		try(RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")){
+			file.setLength(size - 3);
+		}
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			check(tree.size() == 9, "torn tail: size " + tree.size() + ", expected 9");
+			check(tree.lookup(9) == null, "torn tail: key 9 should be dropped");
+			tree.add(9, 9);
+		}
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			check(tree.size() == 10, "torn tail: size " + tree.size() + " after rewriting, expected 10");
+		}
+
+		delete(directory);
+	}
+
+	/**
+	 * A damaged record with whole records after it wasn't torn by a crash,
+	 * so opening has to fail instead of truncating the records after it.
+	 */
+	private static void damageInTheMiddleFails() throws IOException {
+		Path directory = Files.createTempDirectory("durable");
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			for(int i = 0; i < 10; i++)
+				tree.add(i, i);
+		}
+
+		Path log = newestLog(directory);
+		long size = Files.size(log);
+		try(RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")){
+			//flip a byte in the checksum of a record near the start
+			file.seek(size / 10 + 4);
+			int b = file.read();
+			file.seek(size / 10 + 4);
+			file.write(b ^ 0xff);
+		}
+
+		try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+			check(false, "damage in the middle: opened with " + tree.size() + " keys, expected an IOException");
+		}
+		catch(IOException e){
+			check(Files.size(log) == size, "damage in the middle: log was truncated");
+		}
+
+		delete(directory);
+	}
+
+	/**
+	 * The entry count and block lengths of a snapshot aren't checksummed,
+	 * so a flipped bit in them must fail with an IOException rather than
+	 * allocate gigabytes.
+	 */
+	private static void corruptSnapshotSizesFail() throws IOException {
+		//offsets of the entry count in the header and of the first block's length
+		long[] offsets = {8, 16};
+
+		for(long offset : offsets){
+			Path directory = Files.createTempDirectory("durable");
+
+			try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+				for(int i = 0; i < 10; i++)
+					tree.add(i, i);
+				tree.checkpoint();
+			}
+
+			try(RandomAccessFile file = new RandomAccessFile(newest(directory, "snapshot.").toFile(), "rw")){
+				file.seek(offset);
+				file.writeInt(Integer.MAX_VALUE - 8);
+			}
+
+			try(DurableRedBlackTree<Integer, Integer> tree = open(directory)){
+				check(false, "corrupt snapshot at byte " + offset + ": opened with " + tree.size() + " keys, expected an IOException");
+			}
+			catch(IOException e){
+				//expected
+			}
+
+			delete(directory);
+		}
+	}
+
+	/**
+	 * Opens an Integer tree that forces every change to disk.
+	 */
+	private static DurableRedBlackTree<Integer, Integer> open(Path directory) throws IOException {
+		return new DurableRedBlackTree<Integer, Integer>(directory, Codec.INTEGER, Codec.INTEGER, CommitPolicy.perOperation());
+	}
+
+	/**
+	 * Returns the log with the highest generation in the directory.
+	 */
+	private static Path newestLog(Path directory) throws IOException {
+		return newest(directory, "log.");
+	}
+
+	/**
+	 * Returns the file with the prefix and the highest generation in the
+	 * directory.
+	 */
+	private static Path newest(Path directory, String prefix) throws IOException {
+		try(Stream<Path> files = Files.list(directory)){
+			return files.filter(file -> file.getFileName().toString().matches("\\Q" + prefix + "\\E[0-9]+"))
+					.max(Comparator.comparingLong(file -> Long.parseLong(file.getFileName().toString().substring(prefix.length()))))
+					.get();
+		}
+	}
+
+	/**
+	 * Deletes the directory and everything in it.
+	 */
+	private static void delete(Path directory) throws IOException {
+		try(Stream<Path> files = Files.list(directory)){
+			for(Path file : (Iterable<Path>) files::iterator)
+				Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Prints the message and counts a failure if the condition is false.
+	 */
+	private static void check(boolean condition, String message){
+		if(!condition){
+			failures++;
+			System.out.println("FAIL " + message);
+		}
+	}
+}
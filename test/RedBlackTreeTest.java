@@ -0,0 +1,193 @@
+/**
+ * CS 241: Data Structures and Algorithms II
+ * Professor: Edwin Rodr&iacute;guez
+ *
+ * Programming Assignment #2
+ *
+ * Checks for the Red-Black tree
+ *
+ * Jacob Romero
+ *
+ */
+
+//Imports for functionality later on
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ *
+ * @author Jacob Romero
+ *
+ * Checks the parts of RedBlackTree that sequential use doesn't reach,
+ * parallel streams over its spliterator and the two halves of a split
+ * being changed from different threads. Exits with status 1 if any check
+ * fails.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out *.java test/RedBlackTreeTest.java
+ *   java -cp out RedBlackTreeTest
+ */
+public class RedBlackTreeTest {
+	//number of failed checks
+	private static int failures;
+
+	/**
+	 * Runs every check and prints the ones that fail.
+	 *
+	 * @param args
+	 * unused.
+	 */
+	public static void main(String[] args) throws Exception {
+		for(int keys : new int[] {0, 1, 100, 1000, 100000}){
+			parallelToArray(keys, false);
+			parallelToArray(keys, true);
+		}
+
+		for(int round = 0; round < 5; round++)
+			splitHalvesChangedConcurrently(round);
+
+		if(failures > 0){
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+
+		System.out.println("all checks passed");
+	}
+
+	/**
+	 * Sized parallel terminal operations trust SIZED and SUBSIZED, so they
+	 * must only be reported when the split sizes are exact.
+	 */
+	private static void parallelToArray(int keys, boolean orderStatistics){
+		RedBlackTree<Integer, Integer> tree = new RedBlackTree<Integer, Integer>(true, orderStatistics);
+		for(int i = 0; i < keys; i++)
+			tree.add(i, i);
+
+		int[] expected = new int[keys];
+		for(int i = 0; i < keys; i++)
+			expected[i] = i;
+
+		String mode = keys + " keys, order statistics " + (orderStatistics ? "on" : "off");
+
+		try{
+			Object[] boxed = tree.stream().parallel().map(Map.Entry::getKey).toArray();
+			int[] ints = tree.stream().parallel().mapToInt(Map.Entry::getKey).toArray();
+
+			check(boxed.length == keys && Arrays.equals(Arrays.stream(boxed).mapToInt(key -> (Integer) key).toArray(), expected), "parallel toArray(): wrong keys with " + mode);
+			check(Arrays.equals(ints, expected), "parallel mapToInt().toArray(): wrong keys with " + mode);
+			check(tree.stream().parallel().count() == keys, "parallel count(): wrong count with " + mode);
+		}
+		catch(RuntimeException e){
+			check(false, "parallel toArray() threw " + e + " with " + mode);
+		}
+	}
+
+	/**
+	 * Both halves of a split share the null leaf sentinel, so a remove in
+	 * one must not write anything to it that the other reads.
+	 */
+	private static void splitHalvesChangedConcurrently(int round) throws InterruptedException {
+		int keys = 200000;
+		RedBlackTree<Integer, Integer> left = new RedBlackTree<Integer, Integer>(true, true);
+		for(int i = 0; i < keys; i++)
+			left.add(i, i);
+
+		RedBlackTree<Integer, Integer> right = left.split(keys / 2);
+		TreeMap<Integer, Integer> leftExpected = new TreeMap<Integer, Integer>();
+		TreeMap<Integer, Integer> rightExpected = new TreeMap<Integer, Integer>();
+		Throwable[] errors = new Throwable[2];
+
+		Thread[] threads = {
+			new Thread(() -> churn(left, leftExpected, 0, keys / 2, round, errors, 0)),
+			new Thread(() -> churn(right, rightExpected, keys / 2, keys, round + 100, errors, 1))
+		};
+		for(Thread thread : threads)
+			thread.start();
+		for(Thread thread : threads)
+			thread.join();
+
+		String name = "split halves, round " + round;
+		check(errors[0] == null && errors[1] == null, name + ": threw " + (errors[0] != null ? errors[0] : errors[1]));
+		checkTree(left, leftExpected, name + ", left half");
+		checkTree(right, rightExpected, name + ", right half");
+	}
+
+	/**
+	 * Adds and removes random keys between lo and hi, mirroring them in the
+	 * expected map, which starts out as the tree's keys.
+	 */
+	private static void churn(RedBlackTree<Integer, Integer> tree, TreeMap<Integer, Integer> expected, int lo, int hi, int seed, Throwable[] errors, int slot){
+		try{
+			for(int i = lo; i < hi; i++)
+				expected.put(i, i);
+
+			Random random = new Random(seed);
+			for(int i = 0; i < 400000; i++){
+				int key = lo + random.nextInt(hi - lo);
+				if(random.nextBoolean()){
+					tree.remove(key);
+					expected.remove(key);
+				}
+				else{
+					tree.add(key, key);
+					expected.put(key, key);
+				}
+			}
+		}
+		catch(Throwable e){
+			errors[slot] = e;
+		}
+	}
+
+	/**
+	 * Checks the tree holds the expected keys and that every path from the
+	 * root down to a null leaf passes the same number of black nodes.
+	 */
+	private static void checkTree(RedBlackTree<Integer, Integer> tree, TreeMap<Integer, Integer> expected, String name){
+		check(tree.size() == expected.size(), name + ": size " + tree.size() + ", expected " + expected.size());
+
+		Object[] keys = tree.stream().map(Map.Entry::getKey).toArray();
+		check(Arrays.equals(keys, expected.keySet().toArray()), name + ": wrong keys");
+
+		check(tree.root == null || blackHeight(tree.root) >= 0, name + ": unequal black heights or a red node with a red child");
+	}
+
+	/**
+	 * Returns the number of black nodes on every path down from the node,
+	 * or -1 if the paths differ or a red node has a red child.
+	 */
+	private static <K extends Comparable<K>, V> int blackHeight(RedBlackTree<K, V>.Node node){
+		if(node.key == null)
+			return 0;
+
+		boolean black = String.valueOf(node.color).equals("black");
+		if(!black && (isRed(node.leftChild) || isRed(node.rightChild)))
+			return -1;
+
+		int left = blackHeight(node.leftChild);
+		int right = blackHeight(node.rightChild);
+		if(left < 0 || left != right)
+			return -1;
+
+		return left + (black ? 1 : 0);
+	}
+
+	/**
+	 * Checks if the node is red, null leaves are black.
+	 */
+	private static <K extends Comparable<K>, V> boolean isRed(RedBlackTree<K, V>.Node node){
+		return node.key != null && String.valueOf(node.color).equals("red");
+	}
+
+	/**
+	 * Prints the message and counts a failure if the condition is false.
+	 */
+	private static void check(boolean condition, String message){
+		if(!condition){
+			failures++;
+			System.out.println("FAIL " + message);
+		}
+	}
+}